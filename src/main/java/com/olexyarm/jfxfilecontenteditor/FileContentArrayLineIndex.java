@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.util.Arrays;
+
+// Start offsets of all lines of Document. Line starts after "\n", "\r\n" or single "\r".
+// Offsets after the last edit are kept with pending delta, so typing does not shift the whole array.
+public class FileContentArrayLineIndex implements FileContentLineIndex {
+
+    private static final int INT_LINES_CAPACITY_MIN = 1024;
+    private static final int INT_SCAN_BLOCK_SIZE = 64 * 1024;
+
+    private long[] arrLineStarts;
+    private int intLineCount;
+
+    // Real line start is arrLineStarts[i] + lngDelta for i >= intDeltaFrom.
+    private int intDeltaFrom;
+    private long lngDelta;
+
+    // Sequential scan state, line terminators are counted to detect line separator of file.
+    private long lngScanPos = 0;
+    private boolean booScanPrevCR = false;
+    private long lngCountLF = 0;
+    private long lngCountCRLF = 0;
+    private long lngCountCR = 0;
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentArrayLineIndex() {
+
+        this.arrLineStarts = new long[INT_LINES_CAPACITY_MIN];
+        this.arrLineStarts[0] = 0;
+        this.intLineCount = 1;
+        this.intDeltaFrom = 1;
+        this.lngDelta = 0;
+    }
+
+    // -------------------------------------------------------------------------------------
+    public static FileContentArrayLineIndex build(FileContentDocument.Snapshot snapshot) {
+
+        FileContentArrayLineIndex lineIndex = new FileContentArrayLineIndex();
+        long lngLen = snapshot.length();
+        char[] arrBlock = new char[(int) Math.min(INT_SCAN_BLOCK_SIZE, Math.max(1, lngLen))];
+        long lngBlockStart = 0;
+        while (lngBlockStart < lngLen) {
+            int intBlockLen = (int) Math.min(arrBlock.length, lngLen - lngBlockStart);
+            snapshot.getChars(lngBlockStart, lngBlockStart + intBlockLen, arrBlock, 0);
+            lineIndex.scan(arrBlock, 0, intBlockLen);
+            lngBlockStart += intBlockLen;
+        }
+        lineIndex.scanFinish();
+        return lineIndex;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Copy of line starts found so far, it is used for Document shown while file is still loading.
+    public FileContentArrayLineIndex copy() {
+
+        FileContentArrayLineIndex lineIndex = new FileContentArrayLineIndex();
+        lineIndex.arrLineStarts = Arrays.copyOf(this.arrLineStarts, Math.max(INT_LINES_CAPACITY_MIN, this.intLineCount));
+        lineIndex.intLineCount = this.intLineCount;
+        lineIndex.intDeltaFrom = this.intDeltaFrom;
+        lineIndex.lngDelta = this.lngDelta;
+        lineIndex.lngScanPos = this.lngScanPos;
+        lineIndex.booScanPrevCR = this.booScanPrevCR;
+        lineIndex.lngCountLF = this.lngCountLF;
+        lineIndex.lngCountCRLF = this.lngCountCRLF;
+        lineIndex.lngCountCR = this.lngCountCR;
+        return lineIndex;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    @Override
+    public int getLineCount() {
+        return this.intLineCount;
+    }
+
+    @Override
+    public long getLineStart(int intLine) {
+
+        if (intLine < 0 || intLine >= this.intLineCount) {
+            throw new IndexOutOfBoundsException("Line " + intLine + " is out of lines count " + this.intLineCount);
+        }
+        return this.get(intLine);
+    }
+
+    // -------------------------------------------------------------------------------------
+    @Override
+    public int getLineOfOffset(long lngPos) {
+
+        // Binary search of last line start <= lngPos.
+        int intLow = 0;
+        int intHigh = this.intLineCount - 1;
+        while (intLow < intHigh) {
+            int intMid = (intLow + intHigh + 1) >>> 1;
+            if (this.get(intMid) <= lngPos) {
+                intLow = intMid;
+            } else {
+                intHigh = intMid - 1;
+            }
+        }
+        return intLow;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Scan next chars of content (index is built sequentially while file is loading).
+    public void scan(char[] arrChars, int intFrom, int intTo) {
+
+        boolean booPrevCR = this.booScanPrevCR;
+        long lngBase = this.lngScanPos - intFrom;
+        for (int i = intFrom; i < intTo; i++) {
+            char ch = arrChars[i];
+            if (ch == '\n') {
+                if (booPrevCR) {
+                    this.lngCountCRLF++;
+                } else {
+                    this.lngCountLF++;
+                }
+                this.addLineStart(lngBase + i + 1);
+            } else if (booPrevCR) {
+                this.lngCountCR++;
+                this.addLineStart(lngBase + i);
+            }
+            booPrevCR = ch == '\r';
+        }
+        this.booScanPrevCR = booPrevCR;
+        this.lngScanPos += intTo - intFrom;
+    }
+
+    public void scanFinish() {
+
+        if (this.booScanPrevCR) {
+            this.lngCountCR++;
+            this.addLineStart(this.lngScanPos);
+            this.booScanPrevCR = false;
+        }
+    }
+
+    // Line separator of the most of lines found by scan, System.lineSeparator() for content without lines.
+    @Override
+    public String getLineSeparatorDetected() {
+
+        if (this.lngCountLF == 0 && this.lngCountCRLF == 0 && this.lngCountCR == 0) {
+            return System.lineSeparator();
+        }
+        if (this.lngCountCRLF >= this.lngCountLF && this.lngCountCRLF >= this.lngCountCR) {
+            return "\r\n";
+        }
+        if (this.lngCountLF >= this.lngCountCR) {
+            return "\n";
+        }
+        return "\r";
+    }
+
+    @Override
+    public String getLineSeparatorsStat() {
+        return "LF=" + this.lngCountLF + " CRLF=" + this.lngCountCRLF + " CR=" + this.lngCountCR;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Append line start when index is built sequentially, lngPos must be greater than last line start.
+    public void addLineStart(long lngPos) {
+
+        this.moveDelta(this.intLineCount);
+        this.ensureCapacity(this.intLineCount + 1);
+        this.arrLineStarts[this.intLineCount] = lngPos - this.lngDelta;
+        this.intLineCount++;
+        this.intDeltaFrom = this.intLineCount;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Update index after Document edit, snapshot is the Document after edit.
+    @Override
+    public void edited(FileContentDocument.Snapshot snapshot, long lngPos, long lngLenRemoved, long lngLenInserted) {
+
+        // Line start at p depends only on chars p-1 and p, so only starts in [lngPos, lngPos + lngLenRemoved]
+        // are removed and only starts in [lngPos, lngPos + lngLenInserted] of edited Document are scanned.
+        int intFrom = this.findFirstAtOrAfter(Math.max(lngPos, 1));
+        int intTo = this.findFirstAtOrAfter(lngPos + lngLenRemoved + 1);
+
+        long lngScanFrom = Math.max(lngPos, 1);
+        long lngScanTo = lngPos + lngLenInserted;
+        long lngLen = snapshot.length();
+        long[] arrNew = new long[8];
+        int intNewCount = 0;
+        if (lngScanFrom <= lngScanTo) {
+            long lngReadFrom = lngScanFrom - 1;
+            long lngReadTo = Math.min(lngLen, lngScanTo + 1);
+            char[] arrBlock = new char[(int) Math.min(INT_SCAN_BLOCK_SIZE, lngReadTo - lngReadFrom)];
+            long lngBlockStart = lngReadFrom;
+            char chPrev = 0;
+            boolean booFirst = true;
+            while (lngBlockStart < lngReadTo) {
+                int intBlockLen = (int) Math.min(arrBlock.length, lngReadTo - lngBlockStart);
+                snapshot.getChars(lngBlockStart, lngBlockStart + intBlockLen, arrBlock, 0);
+                for (int i = 0; i < intBlockLen; i++) {
+                    char ch = arrBlock[i];
+                    if (!booFirst && (chPrev == '\n' || (chPrev == '\r' && ch != '\n'))) {
+                        if (intNewCount == arrNew.length) {
+                            arrNew = Arrays.copyOf(arrNew, intNewCount * 2);
+                        }
+                        arrNew[intNewCount++] = lngBlockStart + i;
+                    }
+                    chPrev = ch;
+                    booFirst = false;
+                }
+                lngBlockStart += intBlockLen;
+            }
+            if (lngReadTo == lngLen && lngLen == lngScanTo && lngLen > 0 && (chPrev == '\n' || chPrev == '\r')) {
+                // Line start at the end of Document.
+                if (intNewCount == arrNew.length) {
+                    arrNew = Arrays.copyOf(arrNew, intNewCount + 1);
+                }
+                arrNew[intNewCount++] = lngLen;
+            }
+        }
+
+        // Lines after edit keep stored values, only pending delta is changed.
+        this.moveDelta(intTo);
+        int intRemoved = intTo - intFrom;
+        int intShift = intNewCount - intRemoved;
+        if (intShift != 0) {
+            this.ensureCapacity(this.intLineCount + intShift);
+            System.arraycopy(this.arrLineStarts, intTo, this.arrLineStarts, intTo + intShift, this.intLineCount - intTo);
+            this.intLineCount += intShift;
+        }
+        long lngDeltaNew = this.lngDelta + lngLenInserted - lngLenRemoved;
+        for (int i = 0; i < intNewCount; i++) {
+            // New line starts are stored relative to the new delta.
+            this.arrLineStarts[intFrom + i] = arrNew[i] - lngDeltaNew;
+        }
+        this.intDeltaFrom = intFrom;
+        this.lngDelta = lngDeltaNew;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------------------
+    private long get(int intLine) {
+
+        if (intLine >= this.intDeltaFrom) {
+            return this.arrLineStarts[intLine] + this.lngDelta;
+        }
+        return this.arrLineStarts[intLine];
+    }
+
+    // -------------------------------------------------------------------------------------
+    private int findFirstAtOrAfter(long lngPos) {
+
+        int intLow = 0;
+        int intHigh = this.intLineCount;
+        while (intLow < intHigh) {
+            int intMid = (intLow + intHigh) >>> 1;
+            if (this.get(intMid) < lngPos) {
+                intLow = intMid + 1;
+            } else {
+                intHigh = intMid;
+            }
+        }
+        return intLow;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void moveDelta(int intDeltaFromNew) {
+
+        if (this.lngDelta != 0) {
+            if (this.intDeltaFrom < intDeltaFromNew) {
+                for (int i = this.intDeltaFrom; i < intDeltaFromNew; i++) {
+                    this.arrLineStarts[i] += this.lngDelta;
+                }
+            } else {
+                for (int i = intDeltaFromNew; i < this.intDeltaFrom; i++) {
+                    this.arrLineStarts[i] -= this.lngDelta;
+                }
+            }
+        }
+        this.intDeltaFrom = intDeltaFromNew;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void ensureCapacity(int intCapacity) {
+
+        if (intCapacity > this.arrLineStarts.length) {
+            this.arrLineStarts = Arrays.copyOf(this.arrLineStarts, Math.max(intCapacity, this.arrLineStarts.length * 2));
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+
+// Decoder of mapped file for charsets where bytes 0x00-0x7F are ASCII characters (UTF-8, single-byte charsets).
+// Decoders of JDK check ASCII by array loop for heap buffers only, for direct buffer they decode byte by byte.
+// Runs of ASCII bytes are copied to CharBuffer directly, only other bytes are decoded by CharsetDecoder,
+// so malformed input is replaced in the same way as by CharsetDecoder alone.
+// Methods decode and flush have the same contract as methods of CharsetDecoder.
+public class FileContentAsciiDecoder {
+
+    private static final int INT_BLOCK_SIZE = 8 * 1024;
+    private static final int INT_ASCII_RUN_MIN = 64;
+
+    private final CharsetDecoder charsetDecoder;
+    private final boolean booAsciiCompatible;
+    private final byte[] arrBytesBlock = new byte[INT_BLOCK_SIZE];
+    // CharsetDecoder got end of input, it does not accept more input then.
+    private boolean booEndOfInputPassed = false;
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentAsciiDecoder(CharsetDecoder charsetDecoder) {
+
+        this.charsetDecoder = charsetDecoder;
+        this.booAsciiCompatible = isAsciiCompatible(charsetDecoder.charset());
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    // Charset is ASCII compatible if every byte 0x00-0x7F is decoded to the same char alone and never is part of other char.
+    public static boolean isAsciiCompatible(Charset charset) {
+
+        if (charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1)) {
+            return true;
+        }
+        if (!charset.canEncode() || charset.newEncoder().maxBytesPerChar() != 1) {
+            // Bytes 0x00-0x7F are part of multi-byte characters in Shift_JIS, Big5, ISO-2022.
+            return false;
+        }
+        byte[] arrBytes = new byte[0x80];
+        for (int i = 0; i < arrBytes.length; i++) {
+            arrBytes[i] = (byte) i;
+        }
+        String strDecoded = new String(arrBytes, charset);
+        if (strDecoded.length() != arrBytes.length) {
+            return false;
+        }
+        for (int i = 0; i < arrBytes.length; i++) {
+            if (strDecoded.charAt(i) != i) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean isAsciiCompatible() {
+        return this.booAsciiCompatible;
+    }
+
+    // -------------------------------------------------------------------------------------
+    public CoderResult decode(ByteBuffer in, CharBuffer out, boolean booEndOfInput) {
+
+        if (!this.booAsciiCompatible || in.hasArray() || !out.hasArray() || this.booEndOfInputPassed) {
+            // Decoders of JDK have own ASCII fast path for arrays, it is faster.
+            this.booEndOfInputPassed = booEndOfInput;
+            return this.charsetDecoder.decode(in, out, booEndOfInput);
+        }
+        while (true) {
+            int intAscii = this.copyAscii(in, out);
+            if (!in.hasRemaining()) {
+                if (booEndOfInput) {
+                    // Decoder has to get end of input before flush.
+                    this.booEndOfInputPassed = true;
+                    return this.charsetDecoder.decode(in, out, true);
+                }
+                return CoderResult.UNDERFLOW;
+            }
+            if (!out.hasRemaining()) {
+                return CoderResult.OVERFLOW;
+            }
+            int intLimit = in.limit();
+            int intRunEnd = in.position();
+            // Text in other script has short ASCII runs (spaces, digits), it is decoded by CharsetDecoder by blocks.
+            boolean booBlock = intAscii < INT_ASCII_RUN_MIN;
+            if (booBlock) {
+                intRunEnd = Math.min(intLimit, intRunEnd + INT_BLOCK_SIZE);
+            } else {
+                // Not ASCII bytes up to next ASCII byte are decoded by CharsetDecoder.
+                while (intRunEnd < intLimit && in.get(intRunEnd) < 0) {
+                    intRunEnd++;
+                }
+            }
+            boolean booRunIsLast = intRunEnd == intLimit;
+            this.booEndOfInputPassed = booEndOfInput && booRunIsLast;
+            in.limit(intRunEnd);
+            CoderResult coderResult = this.charsetDecoder.decode(in, out, booEndOfInput && booRunIsLast);
+            in.limit(intLimit);
+            if (coderResult.isOverflow() || coderResult.isError()) {
+                return coderResult;
+            }
+            if (in.position() < intRunEnd) {
+                if (booRunIsLast) {
+                    // Partial character at the end of input, it is decoded with next input.
+                    return coderResult;
+                }
+                if (booBlock) {
+                    // Partial character at the end of block is decoded with next block.
+                    continue;
+                }
+                // Partial character followed by ASCII byte is malformed, decoder replaces it when it sees the next byte.
+                in.limit(intRunEnd + 1);
+                coderResult = this.charsetDecoder.decode(in, out, false);
+                in.limit(intLimit);
+                if (coderResult.isOverflow() || coderResult.isError()) {
+                    return coderResult;
+                }
+                if (in.position() <= intRunEnd) {
+                    this.booEndOfInputPassed = booEndOfInput;
+                    return this.charsetDecoder.decode(in, out, booEndOfInput);
+                }
+            }
+        }
+    }
+
+    public CoderResult flush(CharBuffer out) {
+        return this.charsetDecoder.flush(out);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // ASCII bytes are copied until not ASCII byte or end of input or output.
+    // Bytes are copied from mapped buffer to array by blocks, so loops work with arrays only.
+    private int copyAscii(ByteBuffer in, CharBuffer out) {
+
+        int intPosIn = in.position();
+        int intPosOut = out.position();
+        int intLen = Math.min(in.remaining(), out.remaining());
+        char[] arrChars = out.array();
+        int intOffsetOut = out.arrayOffset() + intPosOut;
+        int i = 0;
+        while (i < intLen) {
+            int intBlockLen = Math.min(this.arrBytesBlock.length, intLen - i);
+            in.get(intPosIn + i, this.arrBytesBlock, 0, intBlockLen);
+            int intAscii = 0;
+            while (intAscii < intBlockLen && this.arrBytesBlock[intAscii] >= 0) {
+                intAscii++;
+            }
+            for (int j = 0; j < intAscii; j++) {
+                arrChars[intOffsetOut + i + j] = (char) this.arrBytesBlock[j];
+            }
+            i += intAscii;
+            if (intAscii < intBlockLen) {
+                break;
+            }
+        }
+        in.position(intPosIn + i);
+        out.position(intPosOut + i);
+        return i;
+    }
+
+    // -------------------------------------------------------------------------------------
+}
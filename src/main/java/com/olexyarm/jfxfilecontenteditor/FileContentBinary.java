@@ -0,0 +1,336 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Content of binary file. Bytes stay on disk, file is mapped by regions when they are viewed or searched,
+// only few mapped regions are kept. Changed bytes are kept until save, file is saved in place
+// by writing changed bytes only, size of file is not changed.
+public class FileContentBinary {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileContentBinary.class);
+
+    public static final int INT_BINARY_CHECK_SIZE = 8 * 1024;
+
+    private static final int INT_REGION_SIZE = 64 * 1024 * 1024;
+    private static final int INT_REGIONS_MAX = 8;
+    private static final int INT_FIND_CHUNK_SIZE = 1024 * 1024;
+    private static final int INT_WRITE_BUFFER_SIZE = 64 * 1024;
+    private static final Pattern PATTERN_HEX = Pattern.compile("^\\s*([0-9A-Fa-f]{2}\\s*)+$");
+
+    private Path pathFile;
+    private FileChannel fileChannel;
+    private long lngSize;
+    private boolean booReadOnly;
+
+    // Mapped regions by region number, the least recently used region is unmapped (left for GC).
+    private final LinkedHashMap<Long, MappedByteBuffer> mapRegions;
+    private final TreeMap<Long, Byte> mapChanged = new TreeMap<>();
+
+    // -------------------------------------------------------------------------------------
+    public interface FindListener {
+
+        // Called after every chunk is searched, returns false to stop search.
+        boolean searched(long lngBytesSearched);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentBinary(Path pathFile) throws IOException {
+
+        this.mapRegions = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, MappedByteBuffer> eldest) {
+                return size() > INT_REGIONS_MAX;
+            }
+        };
+        this.open(pathFile);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    private void open(Path pathFileOpen) throws IOException {
+
+        this.pathFile = pathFileOpen;
+        try {
+            this.fileChannel = FileChannel.open(pathFileOpen, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.booReadOnly = false;
+        } catch (IOException | SecurityException e) {
+            this.fileChannel = FileChannel.open(pathFileOpen, StandardOpenOption.READ);
+            this.booReadOnly = true;
+        }
+        this.lngSize = this.fileChannel.size();
+        LOGGER.debug("Opened binary file."
+                + " pathFile=\"" + pathFileOpen + "\""
+                + " Size=" + this.lngSize
+                + " ReadOnly=" + this.booReadOnly);
+    }
+
+    public synchronized void close() {
+
+        this.mapRegions.clear();
+        try {
+            this.fileChannel.close();
+        } catch (Throwable t) {
+            LOGGER.error("Could not close binary file."
+                    + " pathFile=\"" + this.pathFile + "\""
+                    + " Throwable=\"" + t.toString() + "\"");
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    public long size() {
+        return this.lngSize;
+    }
+
+    public boolean isReadOnly() {
+        return this.booReadOnly;
+    }
+
+    public synchronized boolean isChanged() {
+        return !this.mapChanged.isEmpty();
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Read bytes from position into array, changed bytes are read instead of file bytes.
+    // Returns count of bytes read, it is less than length at the end of file.
+    public synchronized int read(long lngPos, byte[] arrDst, int intOffset, int intLen) throws IOException {
+
+        int intRead = (int) Math.max(0, Math.min(intLen, this.lngSize - lngPos));
+        int intDone = 0;
+        while (intDone < intRead) {
+            long lngPosRead = lngPos + intDone;
+            long lngRegion = lngPosRead / INT_REGION_SIZE;
+            int intRegionPos = (int) (lngPosRead - lngRegion * INT_REGION_SIZE);
+            MappedByteBuffer mbb = this.getRegion(lngRegion);
+            int intPart = Math.min(intRead - intDone, mbb.capacity() - intRegionPos);
+            mbb.get(intRegionPos, arrDst, intOffset + intDone, intPart);
+            intDone += intPart;
+        }
+        for (Map.Entry<Long, Byte> entry : this.mapChanged.subMap(lngPos, lngPos + intRead).entrySet()) {
+            arrDst[intOffset + (int) (entry.getKey() - lngPos)] = entry.getValue();
+        }
+        return intRead;
+    }
+
+    public synchronized void write(long lngPos, byte bt) {
+
+        if (lngPos < 0 || lngPos >= this.lngSize) {
+            return;
+        }
+        this.mapChanged.put(lngPos, bt);
+    }
+
+    private MappedByteBuffer getRegion(long lngRegion) throws IOException {
+
+        MappedByteBuffer mbb = this.mapRegions.get(lngRegion);
+        if (mbb == null) {
+            long lngRegionPos = lngRegion * INT_REGION_SIZE;
+            long lngRegionSize = Math.min(INT_REGION_SIZE, this.lngSize - lngRegionPos);
+            mbb = this.fileChannel.map(FileChannel.MapMode.READ_ONLY, lngRegionPos, lngRegionSize);
+            this.mapRegions.put(lngRegion, mbb);
+        }
+        return mbb;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Changed bytes are written in place by runs of adjacent bytes. For Save As file is copied first.
+    public synchronized long save(Path pathFileSaveAs) throws IOException {
+
+        if (pathFileSaveAs != null && !pathFileSaveAs.toAbsolutePath().normalize().equals(this.pathFile.toAbsolutePath().normalize())) {
+            Files.copy(this.pathFile, pathFileSaveAs, StandardCopyOption.REPLACE_EXISTING);
+            this.close();
+            this.open(pathFileSaveAs);
+        }
+        if (this.booReadOnly && !this.mapChanged.isEmpty()) {
+            throw new IOException("File is read only.");
+        }
+        long lngBytesWritten = 0;
+        ByteBuffer byteBuffer = ByteBuffer.allocate(INT_WRITE_BUFFER_SIZE);
+        long lngRunStart = -1;
+        for (Map.Entry<Long, Byte> entry : this.mapChanged.entrySet()) {
+            long lngPos = entry.getKey();
+            if (lngRunStart >= 0 && (lngPos != lngRunStart + byteBuffer.position() || !byteBuffer.hasRemaining())) {
+                lngBytesWritten += this.writeRun(byteBuffer, lngRunStart);
+                lngRunStart = -1;
+            }
+            if (lngRunStart < 0) {
+                lngRunStart = lngPos;
+            }
+            byteBuffer.put(entry.getValue());
+        }
+        if (lngRunStart >= 0) {
+            lngBytesWritten += this.writeRun(byteBuffer, lngRunStart);
+        }
+        this.fileChannel.force(false);
+        this.mapChanged.clear();
+        LOGGER.info("Saved binary file."
+                + " pathFile=\"" + this.pathFile + "\""
+                + " BytesWritten=" + lngBytesWritten);
+        return lngBytesWritten;
+    }
+
+    private int writeRun(ByteBuffer byteBuffer, long lngPos) throws IOException {
+
+        byteBuffer.flip();
+        int intBytes = byteBuffer.remaining();
+        while (byteBuffer.hasRemaining()) {
+            lngPos += this.fileChannel.write(byteBuffer, lngPos);
+        }
+        byteBuffer.clear();
+        return intBytes;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Position of pattern from position forward, or the last position before it backward, -1 if not found.
+    // File is searched by chunks, next chunk overlaps previous one by pattern length.
+    public long find(byte[] arrPattern, long lngFrom, boolean booForward, FindListener findListener) throws IOException {
+
+        int intLen = arrPattern.length;
+        if (intLen == 0 || intLen > INT_FIND_CHUNK_SIZE / 2) {
+            return -1;
+        }
+        byte[] arrChunk = new byte[INT_FIND_CHUNK_SIZE];
+        int intStep = INT_FIND_CHUNK_SIZE - intLen + 1;
+        long lngSearched = 0;
+        if (booForward) {
+            for (long lngChunk = Math.max(0, lngFrom); lngChunk < this.lngSize; lngChunk += intStep) {
+                int intRead = this.read(lngChunk, arrChunk, 0, INT_FIND_CHUNK_SIZE);
+                int intFound = indexOf(arrChunk, intRead, arrPattern, 0, true);
+                if (intFound >= 0) {
+                    return lngChunk + intFound;
+                }
+                lngSearched += intStep;
+                if (findListener != null && !findListener.searched(lngSearched)) {
+                    return -1;
+                }
+            }
+        } else {
+            // Match should start before lngFrom.
+            long lngEnd = Math.min(this.lngSize, lngFrom + intLen - 1);
+            while (lngEnd >= intLen) {
+                long lngChunk = Math.max(0, lngEnd - INT_FIND_CHUNK_SIZE);
+                int intRead = this.read(lngChunk, arrChunk, 0, (int) (lngEnd - lngChunk));
+                int intFound = indexOf(arrChunk, intRead, arrPattern, intRead - intLen, false);
+                if (intFound >= 0) {
+                    return lngChunk + intFound;
+                }
+                lngSearched += intRead;
+                if (lngChunk == 0 || (findListener != null && !findListener.searched(lngSearched))) {
+                    return -1;
+                }
+                lngEnd = lngChunk + intLen - 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] arrChunk, int intChunkLen, byte[] arrPattern, int intFrom, boolean booForward) {
+
+        int intLen = arrPattern.length;
+        byte btFirst = arrPattern[0];
+        int intStep = booForward ? 1 : -1;
+        for (int i = intFrom; i >= 0 && i <= intChunkLen - intLen; i += intStep) {
+            if (arrChunk[i] != btFirst) {
+                continue;
+            }
+            int j = 1;
+            while (j < intLen && arrChunk[i + j] == arrPattern[j]) {
+                j++;
+            }
+            if (j == intLen) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Text of hex bytes ("CA FE BA BE" or "cafebabe") is pattern of bytes, other text is searched as UTF-8 bytes.
+    public static byte[] parsePattern(String strPattern) {
+
+        if (strPattern == null || strPattern.isEmpty()) {
+            return new byte[0];
+        }
+        if (!PATTERN_HEX.matcher(strPattern).matches()) {
+            return strPattern.getBytes(StandardCharsets.UTF_8);
+        }
+        String strHex = strPattern.replaceAll("\\s", "");
+        byte[] arrPattern = new byte[strHex.length() / 2];
+        for (int i = 0; i < arrPattern.length; i++) {
+            arrPattern[i] = (byte) Integer.parseInt(strHex.substring(2 * i, 2 * i + 2), 16);
+        }
+        return arrPattern;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // File with zero byte at the start is not text (files of UTF-16 and UTF-32 are checked by caller).
+    public static boolean isBinary(ByteBuffer byteBuffer) {
+
+        int intLen = Math.min(INT_BINARY_CHECK_SIZE, byteBuffer.limit());
+        for (int i = 0; i < intLen; i++) {
+            if (byteBuffer.get(i) == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static boolean isBinary(Path path) throws IOException {
+
+        try (FileChannel fileChannelCheck = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer byteBuffer = ByteBuffer.allocate(INT_BINARY_CHECK_SIZE);
+            int intRead;
+            do {
+                intRead = fileChannelCheck.read(byteBuffer);
+            } while (intRead > 0 && byteBuffer.hasRemaining());
+            byteBuffer.flip();
+            return isBinary(byteBuffer);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    public Path getPathFile() {
+        return this.pathFile;
+    }
+
+    @Override
+    public String toString() {
+        return "pathFile=\"" + this.pathFile + "\""
+                + " Size=" + this.lngSize
+                + " ReadOnly=" + this.booReadOnly
+                + " Regions=" + this.mapRegions.size()
+                + " Changed=" + this.mapChanged.size();
+    }
+
+    // -------------------------------------------------------------------------------------
+}
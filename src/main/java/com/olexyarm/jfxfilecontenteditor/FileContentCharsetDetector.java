@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.SplittableRandom;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Charset of file is detected by sample: head of file and few blocks from the rest of it.
+// Not more than intSampleSize + INT_BLOCKS * INT_BLOCK_SIZE bytes are read, so time does not depend on file size.
+// Order of checks: BOM, UTF-16 without BOM by zero bytes, UTF-8 validity, single-byte heuristic.
+public class FileContentCharsetDetector {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileContentCharsetDetector.class);
+
+    public static final String STR_CHARSET_UTF_8 = "UTF-8";
+    public static final String STR_CHARSET_UTF_16LE = "UTF-16LE";
+    public static final String STR_CHARSET_UTF_16BE = "UTF-16BE";
+    public static final String STR_CHARSET_UTF_32LE = "UTF-32LE";
+    public static final String STR_CHARSET_UTF_32BE = "UTF-32BE";
+    public static final String STR_CHARSET_WINDOWS_1251 = "windows-1251";
+    public static final String STR_CHARSET_KOI8_U = "KOI8-U";
+    public static final String STR_CHARSET_WINDOWS_1252 = "windows-1252";
+
+    private static final int INT_BLOCKS = 4;
+    private static final int INT_BLOCK_SIZE = 4 * 1024;
+
+    // Zero bytes in half of positions are expected for UTF-16 text in Latin script.
+    private static final int INT_UTF16_ZERO_PERCENT_MIN = 30;
+    private static final int INT_UTF16_ZERO_OTHER_PERCENT_MAX = 2;
+    private static final int INT_UTF16_PAIRS_MIN = 8;
+    private static final int INT_UTF16_HIGH_PERCENT_MIN = 90;
+    private static final int INT_UTF16_HIGH_OTHER_PERCENT_MAX = 50;
+
+    private final int intSampleSize;
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentCharsetDetector(int intSampleSize) {
+
+        this.intSampleSize = Math.max(INT_BLOCK_SIZE, intSampleSize);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    // Returns name of charset or null if sample has only ASCII characters and any ASCII compatible charset fits.
+    public String detect(Path pathFile) throws IOException {
+
+        long lngTimeStart = System.nanoTime();
+        try (FileChannel fileChannel = FileChannel.open(pathFile, StandardOpenOption.READ)) {
+            long lngFileSize = fileChannel.size();
+            int intHeadSize = (int) Math.min(lngFileSize, this.intSampleSize);
+            ByteBuffer bbHead = ByteBuffer.allocate(intHeadSize);
+            readFully(fileChannel, bbHead, 0);
+            byte[] arrHead = bbHead.array();
+
+            String strCharsetName = detectBom(arrHead, intHeadSize);
+            if (strCharsetName == null) {
+                strCharsetName = detectUtf16(arrHead, intHeadSize);
+            }
+            if (strCharsetName == null) {
+                byte[][] arrBlocks = readBlocks(fileChannel, lngFileSize, intHeadSize);
+                strCharsetName = detectByBytes(arrHead, intHeadSize, arrBlocks, lngFileSize == intHeadSize);
+            }
+            LOGGER.debug("Detected charset."
+                    + " pathFile=\"" + pathFile + "\""
+                    + " FileSize=" + lngFileSize
+                    + " Charset=\"" + strCharsetName + "\""
+                    + " TimeMcs=" + (System.nanoTime() - lngTimeStart) / 1000);
+            return strCharsetName;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Blocks are taken from random positions after the head, random is seeded by file size,
+    // so the same file gets the same charset every time it is opened.
+    private static byte[][] readBlocks(FileChannel fileChannel, long lngFileSize, int intHeadSize) throws IOException {
+
+        long lngRest = lngFileSize - intHeadSize;
+        if (lngRest <= 0) {
+            return new byte[0][];
+        }
+        SplittableRandom random = new SplittableRandom(lngFileSize);
+        int intBlocks = (int) Math.min(INT_BLOCKS, (lngRest + INT_BLOCK_SIZE - 1) / INT_BLOCK_SIZE);
+        byte[][] arrBlocks = new byte[intBlocks][];
+        for (int i = 0; i < intBlocks; i++) {
+            long lngPos = intHeadSize + (lngRest <= INT_BLOCK_SIZE ? 0 : random.nextLong(lngRest - INT_BLOCK_SIZE + 1));
+            int intSize = (int) Math.min(INT_BLOCK_SIZE, lngFileSize - lngPos);
+            ByteBuffer bb = ByteBuffer.allocate(intSize);
+            readFully(fileChannel, bb, lngPos);
+            arrBlocks[i] = bb.array();
+        }
+        return arrBlocks;
+    }
+
+    private static void readFully(FileChannel fileChannel, ByteBuffer bb, long lngPos) throws IOException {
+
+        while (bb.hasRemaining()) {
+            int intRead = fileChannel.read(bb, lngPos + bb.position());
+            if (intRead < 0) {
+                break;
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Byte order is taken from BOM, BOM is kept in text as U+FEFF and written back on save as it was read.
+    public static String detectBom(byte[] arrBytes, int intLen) {
+
+        int b0 = intLen > 0 ? arrBytes[0] & 0xFF : -1;
+        int b1 = intLen > 1 ? arrBytes[1] & 0xFF : -1;
+        int b2 = intLen > 2 ? arrBytes[2] & 0xFF : -1;
+        int b3 = intLen > 3 ? arrBytes[3] & 0xFF : -1;
+        if (b0 == 0xEF && b1 == 0xBB && b2 == 0xBF) {
+            return STR_CHARSET_UTF_8;
+        }
+        if (b0 == 0x00 && b1 == 0x00 && b2 == 0xFE && b3 == 0xFF) {
+            return STR_CHARSET_UTF_32BE;
+        }
+        if (b0 == 0xFF && b1 == 0xFE && b2 == 0x00 && b3 == 0x00) {
+            return STR_CHARSET_UTF_32LE;
+        }
+        if (b0 == 0xFE && b1 == 0xFF) {
+            return STR_CHARSET_UTF_16BE;
+        }
+        if (b0 == 0xFF && b1 == 0xFE) {
+            return STR_CHARSET_UTF_16LE;
+        }
+        return null;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // UTF-16 text without BOM has zero bytes on odd (LE) or even (BE) positions only in Latin script,
+    // text in other script has the same high byte of its block (0x04 for Cyrillic) or zero for spaces and digits.
+    public static String detectUtf16(byte[] arrBytes, int intLen) {
+
+        int intPairs = intLen / 2;
+        if (intPairs < INT_UTF16_PAIRS_MIN) {
+            return null;
+        }
+        int[] arrCountEven = new int[256];
+        int[] arrCountOdd = new int[256];
+        for (int i = 0; i < intPairs * 2; i += 2) {
+            arrCountEven[arrBytes[i] & 0xFF]++;
+            arrCountOdd[arrBytes[i + 1] & 0xFF]++;
+        }
+        if (arrCountOdd[0] * 100 >= intPairs * INT_UTF16_ZERO_PERCENT_MIN
+                && arrCountEven[0] * 100 <= intPairs * INT_UTF16_ZERO_OTHER_PERCENT_MAX) {
+            return STR_CHARSET_UTF_16LE;
+        }
+        if (arrCountEven[0] * 100 >= intPairs * INT_UTF16_ZERO_PERCENT_MIN
+                && arrCountOdd[0] * 100 <= intPairs * INT_UTF16_ZERO_OTHER_PERCENT_MAX) {
+            return STR_CHARSET_UTF_16BE;
+        }
+        int intHighEven = getHighByteCount(arrCountEven);
+        int intHighOdd = getHighByteCount(arrCountOdd);
+        if (intHighOdd * 100 >= intPairs * INT_UTF16_HIGH_PERCENT_MIN
+                && intHighEven * 100 < intPairs * INT_UTF16_HIGH_OTHER_PERCENT_MAX) {
+            return STR_CHARSET_UTF_16LE;
+        }
+        if (intHighEven * 100 >= intPairs * INT_UTF16_HIGH_PERCENT_MIN
+                && intHighOdd * 100 < intPairs * INT_UTF16_HIGH_OTHER_PERCENT_MAX) {
+            return STR_CHARSET_UTF_16BE;
+        }
+        return null;
+    }
+
+    // Count of zero bytes and of the most frequent not zero byte below surrogates.
+    private static int getHighByteCount(int[] arrCount) {
+
+        int intCountMax = 0;
+        for (int b = 1; b < 0xD8; b++) {
+            intCountMax = Math.max(intCountMax, arrCount[b]);
+        }
+        return arrCount[0] + intCountMax;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static String detectByBytes(byte[] arrHead, int intHeadSize, byte[][] arrBlocks, boolean booHeadIsFile) {
+
+        // Fast path: most files are ASCII or valid UTF-8.
+        int intUtf8 = checkUtf8(arrHead, 0, intHeadSize, booHeadIsFile);
+        for (byte[] arrBlock : arrBlocks) {
+            if (intUtf8 < 0) {
+                break;
+            }
+            // Block could start and end inside of multi-byte sequence.
+            int intStart = 0;
+            while (intStart < arrBlock.length && intStart < 3 && (arrBlock[intStart] & 0xC0) == 0x80) {
+                intStart++;
+            }
+            int intUtf8Block = checkUtf8(arrBlock, intStart, arrBlock.length, false);
+            intUtf8 = intUtf8Block < 0 ? -1 : intUtf8 + intUtf8Block;
+        }
+        if (intUtf8 == 0) {
+            return null;
+        }
+        if (intUtf8 > 0) {
+            return STR_CHARSET_UTF_8;
+        }
+
+        SingleByteStats stats = new SingleByteStats();
+        stats.add(arrHead, 0, intHeadSize);
+        for (byte[] arrBlock : arrBlocks) {
+            stats.add(arrBlock, 0, arrBlock.length);
+        }
+        return stats.getCharsetName();
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Returns number of multi-byte sequences or -1 if bytes are not valid UTF-8.
+    // Sequence cut by end of sample is valid unless sample is the whole file.
+    public static int checkUtf8(byte[] arrBytes, int intFrom, int intTo, boolean booEndIsFileEnd) {
+
+        int intSequences = 0;
+        int i = intFrom;
+        while (i < intTo) {
+            int b = arrBytes[i] & 0xFF;
+            if (b < 0x80) {
+                i++;
+                continue;
+            }
+            int intLen;
+            int intMin;
+            if (b >= 0xC2 && b <= 0xDF) {
+                intLen = 2;
+                intMin = 0x80;
+            } else if (b >= 0xE0 && b <= 0xEF) {
+                intLen = 3;
+                intMin = 0x800;
+            } else if (b >= 0xF0 && b <= 0xF4) {
+                intLen = 4;
+                intMin = 0x10000;
+            } else {
+                return -1;
+            }
+            int intCodePoint = b & (0xFF >> (intLen + 1));
+            int j = 1;
+            for (; j < intLen && i + j < intTo; j++) {
+                int c = arrBytes[i + j] & 0xFF;
+                if ((c & 0xC0) != 0x80) {
+                    return -1;
+                }
+                intCodePoint = (intCodePoint << 6) | (c & 0x3F);
+            }
+            if (j < intLen) {
+                return booEndIsFileEnd ? -1 : intSequences;
+            }
+            if (intCodePoint < intMin || intCodePoint > 0x10FFFF
+                    || (intCodePoint >= 0xD800 && intCodePoint <= 0xDFFF)) {
+                return -1;
+            }
+            intSequences++;
+            i += intLen;
+        }
+        return intSequences;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Text in Cyrillic has letters with high bit in runs (words), text in Latin script
+    // has single accented letters between ASCII letters.
+    // Most of Cyrillic letters are lower case, they are 0xE0-0xFF in windows-1251 and 0xC0-0xDF in KOI8-U.
+    private static class SingleByteStats {
+
+        private int intHigh;
+        private int intHighRun;
+        private int intWin1251Lower;
+        private int intKoi8Lower;
+        private boolean booHighPrev;
+
+        private void add(byte[] arrBytes, int intFrom, int intTo) {
+
+            this.booHighPrev = false;
+            for (int i = intFrom; i < intTo; i++) {
+                int b = arrBytes[i] & 0xFF;
+                if (b < 0x80) {
+                    this.booHighPrev = false;
+                    continue;
+                }
+                this.intHigh++;
+                if (this.booHighPrev) {
+                    this.intHighRun++;
+                }
+                this.booHighPrev = true;
+                if (b >= 0xE0) {
+                    this.intWin1251Lower++;
+                } else if (b >= 0xC0) {
+                    this.intKoi8Lower++;
+                }
+            }
+        }
+
+        private String getCharsetName() {
+
+            if (this.intHigh == 0) {
+                return null;
+            }
+            if (this.intHighRun * 2 < this.intHigh) {
+                return STR_CHARSET_WINDOWS_1252;
+            }
+            if (this.intKoi8Lower > this.intWin1251Lower) {
+                return STR_CHARSET_KOI8_U;
+            }
+            return STR_CHARSET_WINDOWS_1251;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+}
@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.util.Arrays;
+
+// Append-only storage of fixed size chunks. Growing does not copy stored chars (unlike StringBuilder),
+// one thread appends while other threads read already appended chars.
+// Chunk is byte[] while all its chars are Latin-1 (half of memory for ASCII text),
+// it is replaced by char[] copy when the first other char is appended into it.
+public class FileContentChunkStorage implements FileContentAppendStorage {
+
+    public static final int INT_CHUNK_SIZE_DEFAULT = 64 * 1024;
+
+    private final int intChunkSize;
+    private final boolean booLatin1;
+    // Every chunk is byte[] or char[].
+    private volatile Object[] arrChunks = new Object[0];
+    private volatile long lngLength;
+    private int intChunksUtf16;
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentChunkStorage() {
+        this(INT_CHUNK_SIZE_DEFAULT, true);
+    }
+
+    public FileContentChunkStorage(int intChunkSize) {
+        this(intChunkSize, true);
+    }
+
+    public FileContentChunkStorage(int intChunkSize, boolean booLatin1) {
+        this.intChunkSize = intChunkSize;
+        this.booLatin1 = booLatin1;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    @Override
+    public long length() {
+        return this.lngLength;
+    }
+
+    @Override
+    public char charAt(long lngPos) {
+
+        Object objChunk = this.arrChunks[(int) (lngPos / this.intChunkSize)];
+        int intChunkPos = (int) (lngPos % this.intChunkSize);
+        if (objChunk instanceof byte[] arrBytes) {
+            return (char) (arrBytes[intChunkPos] & 0xFF);
+        }
+        return ((char[]) objChunk)[intChunkPos];
+    }
+
+    @Override
+    public void getChars(long lngStart, long lngEnd, char[] arrDst, int intDstPos) {
+
+        Object[] arrChunksCurrent = this.arrChunks;
+        long lngPos = lngStart;
+        while (lngPos < lngEnd) {
+            int intChunk = (int) (lngPos / this.intChunkSize);
+            int intChunkPos = (int) (lngPos % this.intChunkSize);
+            int intCount = (int) Math.min(lngEnd - lngPos, this.intChunkSize - intChunkPos);
+            Object objChunk = arrChunksCurrent[intChunk];
+            if (objChunk instanceof byte[] arrBytes) {
+                for (int i = 0; i < intCount; i++) {
+                    arrDst[intDstPos + i] = (char) (arrBytes[intChunkPos + i] & 0xFF);
+                }
+            } else {
+                System.arraycopy((char[]) objChunk, intChunkPos, arrDst, intDstPos, intCount);
+            }
+            intDstPos += intCount;
+            lngPos += intCount;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Returns position of the first appended char.
+    public long append(CharSequence csText) {
+
+        long lngStart = this.lngLength;
+        int intTextLen = csText.length();
+        int intTextPos = 0;
+        char[] arrChars = new char[Math.min(intTextLen, this.intChunkSize)];
+        while (intTextPos < intTextLen) {
+            int intCount = Math.min(intTextLen - intTextPos, arrChars.length);
+            if (csText instanceof String str) {
+                str.getChars(intTextPos, intTextPos + intCount, arrChars, 0);
+            } else {
+                for (int i = 0; i < intCount; i++) {
+                    arrChars[i] = csText.charAt(intTextPos + i);
+                }
+            }
+            this.append(arrChars, 0, intCount);
+            intTextPos += intCount;
+        }
+        return lngStart;
+    }
+
+    @Override
+    public long append(char[] arrChars, int intFrom, int intTo) {
+
+        long lngStart = this.lngLength;
+        int intPos = intFrom;
+        while (intPos < intTo) {
+            int intChunk = (int) (this.lngLength / this.intChunkSize);
+            int intChunkPos = (int) (this.lngLength % this.intChunkSize);
+            int intCount = Math.min(intTo - intPos, this.intChunkSize - intChunkPos);
+            Object objChunk = this.chunkForAppend(intChunk);
+            if (objChunk instanceof byte[] arrBytes) {
+                int intLatin1 = copyLatin1(arrChars, intPos, arrBytes, intChunkPos, intCount);
+                if (intLatin1 < intCount) {
+                    char[] arrChunk = this.chunkToUtf16(intChunk, arrBytes, intChunkPos + intLatin1);
+                    System.arraycopy(arrChars, intPos + intLatin1, arrChunk, intChunkPos + intLatin1, intCount - intLatin1);
+                }
+            } else {
+                System.arraycopy(arrChars, intPos, (char[]) objChunk, intChunkPos, intCount);
+            }
+            intPos += intCount;
+            this.lngLength += intCount;
+        }
+        return lngStart;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Memory used by chunks, for logging.
+    public long getChunksBytes() {
+
+        long lngBytes = 0;
+        for (Object objChunk : this.arrChunks) {
+            if (objChunk instanceof byte[] arrBytes) {
+                lngBytes += arrBytes.length;
+            } else if (objChunk instanceof char[] arrChunk) {
+                lngBytes += (long) arrChunk.length * Character.BYTES;
+            }
+        }
+        return lngBytes;
+    }
+
+    public int getChunksUtf16() {
+        return this.intChunksUtf16;
+    }
+
+    @Override
+    public String toString() {
+        return "Length=" + this.lngLength
+                + " ChunkSize=" + this.intChunkSize
+                + " ChunksUtf16=" + this.intChunksUtf16
+                + " ChunksBytes=" + this.getChunksBytes();
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------------------
+    private Object chunkForAppend(int intChunk) {
+
+        // Chars are written into chunk before length is changed, readers see them after reading length.
+        Object[] arrChunksCurrent = this.arrChunks;
+        if (intChunk >= arrChunksCurrent.length) {
+            arrChunksCurrent = Arrays.copyOf(arrChunksCurrent, Math.max(intChunk + 1, arrChunksCurrent.length * 2));
+        }
+        if (arrChunksCurrent[intChunk] == null) {
+            if (this.booLatin1) {
+                arrChunksCurrent[intChunk] = new byte[this.intChunkSize];
+            } else {
+                arrChunksCurrent[intChunk] = new char[this.intChunkSize];
+                this.intChunksUtf16++;
+            }
+            this.arrChunks = arrChunksCurrent;
+        }
+        return arrChunksCurrent[intChunk];
+    }
+
+    // Stored chars are copied into new char[] chunk, reader of old byte[] chunk gets the same chars.
+    private char[] chunkToUtf16(int intChunk, byte[] arrBytes, int intLen) {
+
+        char[] arrChunk = new char[this.intChunkSize];
+        for (int i = 0; i < intLen; i++) {
+            arrChunk[i] = (char) (arrBytes[i] & 0xFF);
+        }
+        Object[] arrChunksCurrent = this.arrChunks;
+        arrChunksCurrent[intChunk] = arrChunk;
+        this.arrChunks = arrChunksCurrent;
+        this.intChunksUtf16++;
+        return arrChunk;
+    }
+
+    // Returns number of copied chars, copy stops at the first char above Latin-1.
+    private static int copyLatin1(char[] arrChars, int intFrom, byte[] arrBytes, int intBytesPos, int intCount) {
+
+        for (int i = 0; i < intCount; i++) {
+            char ch = arrChars[intFrom + i];
+            if (ch > 0xFF) {
+                return i;
+            }
+            arrBytes[intBytesPos + i] = (byte) ch;
+        }
+        return intCount;
+    }
+
+    // -------------------------------------------------------------------------------------
+}
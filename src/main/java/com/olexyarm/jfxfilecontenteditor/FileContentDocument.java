@@ -0,0 +1,657 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Piece table: original file content (never copied or modified), append-only storage for inserted text
+// and list of pieces referencing both buffers. Every edit creates new immutable Snapshot, so background
+// tasks (save, find) could read Snapshot while user continues editing.
+public class FileContentDocument {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileContentDocument.class);
+
+    private static final int INT_READ_BLOCK_SIZE = 64 * 1024;
+    private static final int INT_UNDO_EDITS_MAX = 1000;
+
+    private final FileContentStorage storageOriginal;
+    private final FileContentChunkStorage storageAppend = new FileContentChunkStorage();
+    private final FileContentLineIndex lineIndex;
+    private final String strLineSeparator;
+
+    private volatile Snapshot snapshot;
+
+    private final ArrayDeque<Edit> dequeUndo = new ArrayDeque<>();
+    private final ArrayDeque<Edit> dequeRedo = new ArrayDeque<>();
+
+    private final List<EditListener> lstEditListeners = new ArrayList<>();
+
+    // -------------------------------------------------------------------------------------
+    public interface EditListener {
+
+        void edited(long lngPos, long lngLenRemoved, long lngLenInserted);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentDocument(CharSequence csOriginal) {
+        this(toStorage(csOriginal), null);
+    }
+
+    // Line index could be built by loader while reading file, otherwise it is built here.
+    public FileContentDocument(FileContentStorage storageOriginal, FileContentLineIndex lineIndex) {
+
+        this.storageOriginal = storageOriginal;
+        long lngLength = storageOriginal.length();
+        Piece[] arrPieces;
+        if (lngLength == 0) {
+            arrPieces = new Piece[0];
+        } else {
+            arrPieces = new Piece[]{new Piece(true, 0, lngLength)};
+        }
+        this.snapshot = new Snapshot(this, arrPieces, 0);
+        if (lineIndex == null) {
+            lineIndex = FileContentArrayLineIndex.build(this.snapshot);
+        }
+        this.lineIndex = lineIndex;
+        this.strLineSeparator = lineIndex.getLineSeparatorDetected();
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    public Snapshot snapshot() {
+        return this.snapshot;
+    }
+
+    public long length() {
+        return this.snapshot.length();
+    }
+
+    public long getVersion() {
+        return this.snapshot.getVersion();
+    }
+
+    public FileContentStorage getStorageOriginal() {
+        return this.storageOriginal;
+    }
+
+    public char charAt(long lngPos) {
+        return this.snapshot.charAt(lngPos);
+    }
+
+    // Line separator used by the most of lines of original content, new lines are inserted with it.
+    public String getLineSeparator() {
+        return this.strLineSeparator;
+    }
+
+    // Line index is for current version of Document, it is updated on every edit.
+    public FileContentLineIndex getLineIndex() {
+        return this.lineIndex;
+    }
+
+    public int getLineCount() {
+        return this.lineIndex.getLineCount();
+    }
+
+    public long getLineStart(int intLine) {
+        return this.lineIndex.getLineStart(intLine);
+    }
+
+    public int getLineOfOffset(long lngPos) {
+        return this.lineIndex.getLineOfOffset(lngPos);
+    }
+
+    public String getText(long lngStart, long lngEnd) {
+        return this.snapshot.getText(lngStart, lngEnd);
+    }
+
+    public long indexOf(String strFind, long lngFrom) {
+        return this.snapshot.indexOf(strFind, lngFrom);
+    }
+
+    @Override
+    public String toString() {
+        return this.snapshot.toString();
+    }
+
+    // -------------------------------------------------------------------------------------
+    public boolean insert(long lngPos, CharSequence csText) {
+        return this.replace(lngPos, 0, csText);
+    }
+
+    public boolean delete(long lngPos, long lngLen) {
+        return this.replace(lngPos, lngLen, "");
+    }
+
+    public boolean replace(long lngPos, long lngLenRemove, CharSequence csText) {
+
+        Snapshot snap = this.snapshot;
+        if (lngPos < 0 || lngLenRemove < 0 || lngPos + lngLenRemove > snap.lngLength) {
+            LOGGER.error("Could not edit Document, position is out of range."
+                    + " Pos=" + lngPos
+                    + " LenRemove=" + lngLenRemove
+                    + " Length=" + snap.lngLength);
+            return false;
+        }
+        if (csText == null) {
+            csText = "";
+        }
+        if (lngLenRemove == 0 && csText.isEmpty()) {
+            return true;
+        }
+        Piece[] arrInserted;
+        if (csText.isEmpty()) {
+            arrInserted = new Piece[0];
+        } else {
+            long lngStart = this.storageAppend.append(csText);
+            arrInserted = new Piece[]{new Piece(false, lngStart, csText.length())};
+        }
+        Piece[] arrRemoved = this.replacePieces(lngPos, lngLenRemove, arrInserted, csText.length());
+
+        Edit edit = new Edit(lngPos, arrRemoved, lngLenRemove, arrInserted, csText.length());
+        this.dequeRedo.clear();
+        Edit editLast = this.dequeUndo.peekLast();
+        if (editLast != null && editLast.canMerge(edit, csText)) {
+            editLast.merge(edit);
+        } else {
+            this.dequeUndo.addLast(edit);
+            if (this.dequeUndo.size() > INT_UNDO_EDITS_MAX) {
+                this.dequeUndo.removeFirst();
+            }
+        }
+        this.fireEdited(lngPos, lngLenRemove, csText.length());
+        return true;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Append text added to file outside of editor (followed file). It is not recorded for undo,
+    // only list of pieces is rebuilt, content and line index are not copied.
+    public void append(CharSequence csText) {
+
+        if (csText == null || csText.isEmpty()) {
+            return;
+        }
+        long lngPos = this.snapshot.lngLength;
+        long lngStart = this.storageAppend.append(csText);
+        this.replacePieces(lngPos, 0, new Piece[]{new Piece(false, lngStart, csText.length())}, csText.length());
+        this.fireEdited(lngPos, 0, csText.length());
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Replace part of Document by part of file changed outside of editor. Positions of edits in undo
+    // history are not valid after that, so history is cleared.
+    public boolean splice(long lngPos, long lngLenRemove, CharSequence csText) {
+
+        Snapshot snap = this.snapshot;
+        if (lngPos < 0 || lngLenRemove < 0 || lngPos + lngLenRemove > snap.lngLength) {
+            LOGGER.error("Could not splice Document, position is out of range."
+                    + " Pos=" + lngPos
+                    + " LenRemove=" + lngLenRemove
+                    + " Length=" + snap.lngLength);
+            return false;
+        }
+        Piece[] arrInserted = new Piece[0];
+        if (csText != null && !csText.isEmpty()) {
+            long lngStart = this.storageAppend.append(csText);
+            arrInserted = new Piece[]{new Piece(false, lngStart, csText.length())};
+        }
+        long lngLenInsert = csText == null ? 0 : csText.length();
+        this.replacePieces(lngPos, lngLenRemove, arrInserted, lngLenInsert);
+        this.dequeUndo.clear();
+        this.dequeRedo.clear();
+        this.fireEdited(lngPos, lngLenRemove, lngLenInsert);
+        return true;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Replace text of every range [arrStart[i], arrEnd[i]) (sorted by start) by csText, ranges overlapping
+    // previous replaced text are skipped. All replacements are one edit of range from first to last position,
+    // so Document is rebuilt in one pass and undo restores all of them at once.
+    public int replaceAll(long[] arrStart, long[] arrEnd, CharSequence csText) {
+
+        Snapshot snap = this.snapshot;
+        if (arrStart == null || arrStart.length == 0) {
+            return 0;
+        }
+        for (int i = 0; i < arrStart.length; i++) {
+            if (arrStart[i] < 0 || arrEnd[i] < arrStart[i] || arrEnd[i] > snap.lngLength) {
+                LOGGER.error("Could not edit Document, position is out of range."
+                        + " Start=" + arrStart[i]
+                        + " End=" + arrEnd[i]
+                        + " Length=" + snap.lngLength);
+                return 0;
+            }
+        }
+        if (csText == null) {
+            csText = "";
+        }
+        // Inserted text is appended once, all replacements refer to it.
+        Piece pieceInsert = null;
+        if (!csText.isEmpty()) {
+            pieceInsert = new Piece(false, this.storageAppend.append(csText), csText.length());
+        }
+        long lngRangeStart = arrStart[0];
+        long lngPrevEnd = lngRangeStart;
+        int intCount = 0;
+        long lngLenRemoved = 0;
+        List<Piece> lstInserted = new ArrayList<>();
+        for (int i = 0; i < arrStart.length; i++) {
+            long lngPos = arrStart[i];
+            if (lngPos < lngPrevEnd || (intCount > 0 && lngPos == arrEnd[i] && lngPos == lngPrevEnd)) {
+                continue;
+            }
+            snap.addPieces(lstInserted, lngPrevEnd, lngPos);
+            if (pieceInsert != null) {
+                addPiece(lstInserted, pieceInsert);
+            }
+            lngPrevEnd = arrEnd[i];
+            lngLenRemoved += arrEnd[i] - lngPos;
+            intCount++;
+        }
+        long lngRangeLenRemove = lngPrevEnd - lngRangeStart;
+        long lngRangeLenInsert = lngRangeLenRemove - lngLenRemoved + (long) intCount * csText.length();
+        if (lngRangeLenRemove == 0 && lngRangeLenInsert == 0) {
+            return 0;
+        }
+        Piece[] arrInserted = lstInserted.toArray(new Piece[0]);
+        Piece[] arrRemoved = this.replacePieces(lngRangeStart, lngRangeLenRemove, arrInserted, lngRangeLenInsert);
+
+        this.dequeRedo.clear();
+        this.dequeUndo.addLast(new Edit(lngRangeStart, arrRemoved, lngRangeLenRemove, arrInserted, lngRangeLenInsert));
+        if (this.dequeUndo.size() > INT_UNDO_EDITS_MAX) {
+            this.dequeUndo.removeFirst();
+        }
+        this.fireEdited(lngRangeStart, lngRangeLenRemove, lngRangeLenInsert);
+        return intCount;
+    }
+
+    // -------------------------------------------------------------------------------------
+    public boolean canUndo() {
+        return !this.dequeUndo.isEmpty();
+    }
+
+    public boolean canRedo() {
+        return !this.dequeRedo.isEmpty();
+    }
+
+    // Returns position of caret after undo or -1 if there is nothing to undo.
+    public long undo() {
+
+        Edit edit = this.dequeUndo.pollLast();
+        if (edit == null) {
+            return -1;
+        }
+        this.replacePieces(edit.lngPos, edit.lngLenInserted, edit.arrRemoved, edit.lngLenRemoved);
+        this.dequeRedo.addLast(edit);
+        this.fireEdited(edit.lngPos, edit.lngLenInserted, edit.lngLenRemoved);
+        return edit.lngPos + edit.lngLenRemoved;
+    }
+
+    // Returns position of caret after redo or -1 if there is nothing to redo.
+    public long redo() {
+
+        Edit edit = this.dequeRedo.pollLast();
+        if (edit == null) {
+            return -1;
+        }
+        this.replacePieces(edit.lngPos, edit.lngLenRemoved, edit.arrInserted, edit.lngLenInserted);
+        this.dequeUndo.addLast(edit);
+        this.fireEdited(edit.lngPos, edit.lngLenRemoved, edit.lngLenInserted);
+        return edit.lngPos + edit.lngLenInserted;
+    }
+
+    // -------------------------------------------------------------------------------------
+    public void addEditListener(EditListener editListener) {
+        this.lstEditListeners.add(editListener);
+    }
+
+    public void removeEditListener(EditListener editListener) {
+        this.lstEditListeners.remove(editListener);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------------------
+    private Piece[] replacePieces(long lngPos, long lngLenRemove, Piece[] arrInsert, long lngLenInsert) {
+
+        // Build new list of pieces in one pass: pieces before edit, inserted pieces, pieces after edit.
+        Snapshot snap = this.snapshot;
+        Piece[] arrPieces = snap.arrPieces;
+        long[] arrStarts = snap.arrStarts;
+        long lngEnd = lngPos + lngLenRemove;
+
+        List<Piece> lstRemoved = new ArrayList<>();
+        List<Piece> lstPieces = new ArrayList<>(arrPieces.length + arrInsert.length + 2);
+        int i = 0;
+        while (i < arrPieces.length && arrStarts[i] + arrPieces[i].lngLength <= lngPos) {
+            lstPieces.add(arrPieces[i]);
+            i++;
+        }
+        if (i < arrPieces.length && arrStarts[i] < lngPos) {
+            // Edit starts inside of piece, keep its head.
+            lstPieces.add(arrPieces[i].sub(0, lngPos - arrStarts[i]));
+        }
+        for (Piece piece : arrInsert) {
+            addPiece(lstPieces, piece);
+        }
+        while (i < arrPieces.length && arrStarts[i] < lngEnd) {
+            Piece piece = arrPieces[i];
+            long lngPieceStart = arrStarts[i];
+            long lngPieceEnd = lngPieceStart + piece.lngLength;
+            long lngFrom = Math.max(lngPos, lngPieceStart) - lngPieceStart;
+            long lngTo = Math.min(lngEnd, lngPieceEnd) - lngPieceStart;
+            if (lngTo > lngFrom) {
+                lstRemoved.add(piece.sub(lngFrom, lngTo));
+            }
+            if (lngPieceEnd > lngEnd) {
+                // Edit ends inside of piece, keep its tail.
+                addPiece(lstPieces, piece.sub(lngEnd - lngPieceStart, piece.lngLength));
+                i++;
+                break;
+            }
+            i++;
+        }
+        for (; i < arrPieces.length; i++) {
+            addPiece(lstPieces, arrPieces[i]);
+        }
+        this.snapshot = new Snapshot(this, lstPieces.toArray(new Piece[0]), snap.lngVersion + 1);
+        this.lineIndex.edited(this.snapshot, lngPos, lngLenRemove, lngLenInsert);
+        return lstRemoved.toArray(new Piece[0]);
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static void addPiece(List<Piece> lstPieces, Piece piece) {
+
+        if (piece.lngLength == 0) {
+            return;
+        }
+        int intLast = lstPieces.size() - 1;
+        if (intLast >= 0) {
+            Piece pieceLast = lstPieces.get(intLast);
+            if (pieceLast.booOriginal == piece.booOriginal && pieceLast.lngStart + pieceLast.lngLength == piece.lngStart) {
+                // Merge pieces adjacent in the same buffer (typing appends to the end of append buffer).
+                lstPieces.set(intLast, new Piece(piece.booOriginal, pieceLast.lngStart, pieceLast.lngLength + piece.lngLength));
+                return;
+            }
+        }
+        lstPieces.add(piece);
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void fireEdited(long lngPos, long lngLenRemoved, long lngLenInserted) {
+
+        for (EditListener editListener : this.lstEditListeners.toArray(new EditListener[0])) {
+            try {
+                editListener.edited(lngPos, lngLenRemoved, lngLenInserted);
+            } catch (Throwable t) {
+                LOGGER.error("Document EditListener failed."
+                        + " Pos=" + lngPos
+                        + " LenRemoved=" + lngLenRemoved
+                        + " LenInserted=" + lngLenInserted
+                        + " Throwable=\"" + t.toString() + "\"");
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static FileContentStorage toStorage(CharSequence cs) {
+
+        FileContentChunkStorage storage = new FileContentChunkStorage();
+        if (cs != null) {
+            storage.append(cs);
+        }
+        return storage;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Classes
+    // -------------------------------------------------------------------------------------
+    private static final class Piece {
+
+        private final boolean booOriginal;
+        private final long lngStart;
+        private final long lngLength;
+
+        private Piece(boolean booOriginal, long lngStart, long lngLength) {
+            this.booOriginal = booOriginal;
+            this.lngStart = lngStart;
+            this.lngLength = lngLength;
+        }
+
+        private Piece sub(long lngFrom, long lngTo) {
+            return new Piece(this.booOriginal, this.lngStart + lngFrom, lngTo - lngFrom);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static final class Edit {
+
+        private final long lngPos;
+        private Piece[] arrRemoved;
+        private long lngLenRemoved;
+        private Piece[] arrInserted;
+        private long lngLenInserted;
+
+        private Edit(long lngPos, Piece[] arrRemoved, long lngLenRemoved, Piece[] arrInserted, long lngLenInserted) {
+            this.lngPos = lngPos;
+            this.arrRemoved = arrRemoved;
+            this.lngLenRemoved = lngLenRemoved;
+            this.arrInserted = arrInserted;
+            this.lngLenInserted = lngLenInserted;
+        }
+
+        private boolean canMerge(Edit edit, CharSequence csText) {
+
+            // Typing of the same word is one undo step.
+            if (this.lngLenRemoved != 0 || edit.lngLenRemoved != 0 || edit.arrInserted.length != 1 || this.arrInserted.length == 0) {
+                return false;
+            }
+            if (edit.lngPos != this.lngPos + this.lngLenInserted) {
+                return false;
+            }
+            for (int i = 0; i < csText.length(); i++) {
+                if (Character.isWhitespace(csText.charAt(i))) {
+                    return false;
+                }
+            }
+            Piece pieceLast = this.arrInserted[this.arrInserted.length - 1];
+            return pieceLast.lngStart + pieceLast.lngLength == edit.arrInserted[0].lngStart;
+        }
+
+        private void merge(Edit edit) {
+
+            Piece pieceLast = this.arrInserted[this.arrInserted.length - 1];
+            this.arrInserted = Arrays.copyOf(this.arrInserted, this.arrInserted.length);
+            this.arrInserted[this.arrInserted.length - 1] = new Piece(false, pieceLast.lngStart, pieceLast.lngLength + edit.lngLenInserted);
+            this.lngLenInserted += edit.lngLenInserted;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Immutable state of Document for one version.
+    public static final class Snapshot implements FileContentStorage {
+
+        private final FileContentDocument document;
+        private final Piece[] arrPieces;
+        private final long[] arrStarts;
+        private final long lngLength;
+        private final long lngVersion;
+
+        private Snapshot(FileContentDocument document, Piece[] arrPieces, long lngVersion) {
+
+            this.document = document;
+            this.arrPieces = arrPieces;
+            this.arrStarts = new long[arrPieces.length];
+            long lngPos = 0;
+            for (int i = 0; i < arrPieces.length; i++) {
+                this.arrStarts[i] = lngPos;
+                lngPos += arrPieces[i].lngLength;
+            }
+            this.lngLength = lngPos;
+            this.lngVersion = lngVersion;
+        }
+
+        @Override
+        public long length() {
+            return this.lngLength;
+        }
+
+        public long getVersion() {
+            return this.lngVersion;
+        }
+
+        public int getPiecesCount() {
+            return this.arrPieces.length;
+        }
+
+        // -------------------------------------------------------------------------------------
+        @Override
+        public char charAt(long lngPos) {
+
+            if (lngPos < 0 || lngPos >= this.lngLength) {
+                throw new IndexOutOfBoundsException("Position " + lngPos + " is out of Document length " + this.lngLength);
+            }
+            int intPiece = this.findPiece(lngPos);
+            Piece piece = this.arrPieces[intPiece];
+            long lngBufferPos = piece.lngStart + lngPos - this.arrStarts[intPiece];
+            if (piece.booOriginal) {
+                return this.document.storageOriginal.charAt(lngBufferPos);
+            }
+            return this.document.storageAppend.charAt(lngBufferPos);
+        }
+
+        // -------------------------------------------------------------------------------------
+        @Override
+        public void getChars(long lngStart, long lngEnd, char[] arrDst, int intDstPos) {
+
+            if (lngStart < 0 || lngEnd > this.lngLength || lngStart > lngEnd) {
+                throw new IndexOutOfBoundsException("Range " + lngStart + "-" + lngEnd + " is out of Document length " + this.lngLength);
+            }
+            if (lngStart == lngEnd) {
+                return;
+            }
+            int intPiece = this.findPiece(lngStart);
+            long lngPos = lngStart;
+            while (lngPos < lngEnd) {
+                Piece piece = this.arrPieces[intPiece];
+                long lngPieceStart = this.arrStarts[intPiece];
+                long lngFrom = piece.lngStart + lngPos - lngPieceStart;
+                long lngCount = Math.min(lngEnd, lngPieceStart + piece.lngLength) - lngPos;
+                if (piece.booOriginal) {
+                    this.document.storageOriginal.getChars(lngFrom, lngFrom + lngCount, arrDst, intDstPos);
+                } else {
+                    this.document.storageAppend.getChars(lngFrom, lngFrom + lngCount, arrDst, intDstPos);
+                }
+                intDstPos += (int) lngCount;
+                lngPos += lngCount;
+                intPiece++;
+            }
+        }
+
+        // -------------------------------------------------------------------------------------
+        public String getText(long lngStart, long lngEnd) {
+
+            char[] arrChars = new char[(int) (lngEnd - lngStart)];
+            this.getChars(lngStart, lngEnd, arrChars, 0);
+            return new String(arrChars);
+        }
+
+        @Override
+        public String toString() {
+            return this.getText(0, this.lngLength);
+        }
+
+        // -------------------------------------------------------------------------------------
+        public long indexOf(String strFind, long lngFrom) {
+            return this.indexOf(strFind, lngFrom, this.lngLength);
+        }
+
+        // First match starting in [lngFrom, lngTo).
+        public long indexOf(String strFind, long lngFrom, long lngTo) {
+
+            // Search block by block, blocks are overlapped by length of text to find minus one.
+            int intFindLen = strFind.length();
+            if (intFindLen == 0 || lngFrom < 0) {
+                return -1;
+            }
+            long lngEnd = Math.min(this.lngLength, lngTo + intFindLen - 1);
+            if (lngFrom + intFindLen > lngEnd) {
+                return -1;
+            }
+            char[] arrFind = strFind.toCharArray();
+            char chFirst = arrFind[0];
+            char[] arrBlock = new char[(int) Math.min(INT_READ_BLOCK_SIZE + intFindLen - 1, lngEnd - lngFrom)];
+            long lngBlockStart = lngFrom;
+            while (lngBlockStart + intFindLen <= lngEnd) {
+                long lngBlockEnd = Math.min(lngEnd, lngBlockStart + arrBlock.length);
+                int intBlockLen = (int) (lngBlockEnd - lngBlockStart);
+                this.getChars(lngBlockStart, lngBlockEnd, arrBlock, 0);
+                int intLast = intBlockLen - intFindLen;
+                for (int i = 0; i <= intLast; i++) {
+                    if (arrBlock[i] != chFirst) {
+                        continue;
+                    }
+                    int j = 1;
+                    while (j < intFindLen && arrBlock[i + j] == arrFind[j]) {
+                        j++;
+                    }
+                    if (j == intFindLen) {
+                        return lngBlockStart + i;
+                    }
+                }
+                lngBlockStart += intLast + 1;
+            }
+            return -1;
+        }
+
+        // -------------------------------------------------------------------------------------
+        // Add pieces of range [lngStart, lngEnd) to list.
+        private void addPieces(List<Piece> lstPieces, long lngStart, long lngEnd) {
+
+            if (lngStart >= lngEnd) {
+                return;
+            }
+            int intPiece = this.findPiece(lngStart);
+            long lngPos = lngStart;
+            while (lngPos < lngEnd) {
+                Piece piece = this.arrPieces[intPiece];
+                long lngPieceStart = this.arrStarts[intPiece];
+                long lngTo = Math.min(lngEnd, lngPieceStart + piece.lngLength);
+                addPiece(lstPieces, piece.sub(lngPos - lngPieceStart, lngTo - lngPieceStart));
+                lngPos = lngTo;
+                intPiece++;
+            }
+        }
+
+        // -------------------------------------------------------------------------------------
+        private int findPiece(long lngPos) {
+
+            int intIdx = Arrays.binarySearch(this.arrStarts, lngPos);
+            if (intIdx < 0) {
+                intIdx = -intIdx - 2;
+            }
+            return intIdx;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+}
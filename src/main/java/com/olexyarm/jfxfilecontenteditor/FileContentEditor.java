@@ -14,32 +14,43 @@
  */
 package com.olexyarm.jfxfilecontenteditor;
 
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
 import java.nio.charset.CodingErrorAction;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileTime;
 import java.time.LocalDate;
 import java.util.concurrent.TimeUnit;
 import javafx.beans.InvalidationListener;
 import javafx.beans.Observable;
 import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.LongProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.SimpleBooleanProperty;
-import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
+import javafx.concurrent.ScheduledService;
 import javafx.concurrent.Service;
 import javafx.concurrent.Task;
+import javafx.concurrent.WorkerStateEvent;
+import javafx.event.EventHandler;
 import javafx.scene.Cursor;
+import javafx.scene.control.Alert.AlertType;
 import javafx.scene.control.Control;
 import javafx.scene.control.Skin;
 import javafx.scene.text.Font;
@@ -50,30 +61,66 @@ public class FileContentEditor extends Control {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(FileContentEditor.class);
     private static final int INT_PROGRESS_BAR_STEPS = 10;
+    private static final int INT_BYTES_IN_MB = 1024 * 1024;
+    private static final int INT_FILE_MAPPED_LOAD_REGION_SIZE = 64 * INT_BYTES_IN_MB;
+    private static final int INT_FILE_LOAD_CHARS_BUFFER_SIZE = 1024 * 1024;
+    private static final int INT_FILE_LOAD_SHOW_SIZE_MIN = 64 * 1024;
+    private static final int INT_FOLLOW_READ_SIZE_MAX = 16 * 1024 * 1024;
+    // Spliced text is kept in one String, bigger change is loaded as whole file.
+    private static final int INT_RELOAD_SPLICE_CHARS_MAX = 32 * 1024 * 1024;
+    private static final int INT_FILE_SAVE_CHARS_BUFFER_SIZE = 64 * 1024;
 
     private Path pathFile;
     private String strFilePath;
     private String strFileName;
     private String strFileExt;
     private String strFileDir;
-    private int intPosFoundFromCursor;
+    private long lngPosFoundFromCursor;
     private boolean booBinary;
     private String strCharsetNameRead;
+    // Charset is detected on open until it is selected by user.
+    private boolean booCharsetDetect = true;
     private String strCharsetNameWrite;
 
     private final BooleanProperty bpHboxStateVisibility = new SimpleBooleanProperty();
     private final BooleanProperty bpFileModified = new SimpleBooleanProperty(false);
     private final StringProperty objStrPropFileState = new SimpleStringProperty();
 
-    private final StringProperty spFileContent = new SimpleStringProperty();
+    private FileContentDocument document;
+    private FileContentFinder finder;
+    private final ObjectProperty<FileContentDocument> opDocument = new SimpleObjectProperty<>();
     private final ObjectProperty<Cursor> cursorProperty = new SimpleObjectProperty<>(Cursor.DEFAULT);
-    private final IntegerProperty objIntPropCaretPosition = new SimpleIntegerProperty();
+    private final LongProperty objLngPropCaretPosition = new SimpleLongProperty();
+    // Position requested before file is loaded, it is set when Document is loaded.
+    private long lngGoToLinePending = 0;
+    private long lngGoToColumnPending = 0;
 
     private final ObjectProperty objectPropTaskFileLoad = new SimpleObjectProperty();
-    private Task<String> taskFileLoad;
+    private Task<FileContentDocument> taskFileLoad;
+
+    private final ObjectProperty objectPropTaskFind = new SimpleObjectProperty();
+    private Task<Integer> taskFind;
 
     private final ObjectProperty objectPropServiceFileSave = new SimpleObjectProperty();
     private Service<String> serviceFileSave;
+    // Document and its version which are saved by last save, edits made while file is saving keep file modified.
+    private FileContentDocument documentSaved;
+    private long lngVersionSaved = -1;
+
+    // Size of file content which is in Document (loaded, saved or followed), followed file is read from this position.
+    private volatile long lngFileSizeLoaded = 0;
+    private ScheduledService<String> serviceFollow;
+
+    // Binary mode: bytes are viewed from disk by hex view, changed bytes are written in place.
+    private FileContentBinary binary;
+    private final ObjectProperty<FileContentBinary> opBinary = new SimpleObjectProperty<>();
+    private final LongProperty objLngPropBinaryCaret = new SimpleLongProperty();
+    private final LongProperty objLngPropBinaryAnchor = new SimpleLongProperty();
+    private Task<Long> taskFindBinary;
+
+    // Fingerprint of file when it was loaded or saved, it is compared with file when editor gets focus.
+    private volatile FileContentFingerprint fingerprintFile;
+    private boolean booFileCheckRunning = false;
 
     private Font font;
     private final ObjectProperty opFont = new SimpleObjectProperty();
@@ -88,13 +135,15 @@ public class FileContentEditor extends Control {
         setId(strId);
         this.pathFile = pathFile;
         this.parseFilePath(strId, pathFile);
-        this.intPosFoundFromCursor = 0;
-        this.objIntPropCaretPosition.set(this.intPosFoundFromCursor);
+        this.lngPosFoundFromCursor = 0;
+        this.objLngPropCaretPosition.set(this.lngPosFoundFromCursor);
         this.booBinary = false;
         this.font = Font.getDefault();
+        this.setDocument(new FileContentDocument(""));
 
         this.strCharsetNameRead = "utf-8";
-        this.strCharsetNameWrite = "utf-8";
+        // New file is saved in charset from Settings, opened file is saved in charset it was read with.
+        this.strCharsetNameWrite = Settings.STR_CHARSET_CURRENT == null ? Settings.STR_CHARSET_DEFAULT : Settings.STR_CHARSET_CURRENT;
         if (pathFile != null) {
             this.requestFocus();
             this.setFocusTraversable(true);
@@ -145,22 +194,122 @@ public class FileContentEditor extends Control {
             LOGGER.error("Could not open file null.");
             return;
         }
+        this.setFollow(false);
 
         this.bpHboxStateVisibility.set(true);
 
+        if (this.booCharsetDetect && Settings.BOO_CHARSET_DETECT_ENABLED && !this.booBinary) {
+            this.detectCharset();
+        }
+        this.strCharsetNameWrite = this.strCharsetNameRead;
+        if (!this.booBinary && isBinaryFile(this.pathFile, this.strCharsetNameRead)) {
+            LOGGER.info("File is binary, it is opened in binary mode."
+                    + " Id=\"" + this.getId() + "\""
+                    + " pathFile=\"" + this.pathFile + "\"");
+            this.booBinary = true;
+        }
+        if (this.booBinary) {
+            this.openBinary();
+            return;
+        }
+
         this.taskFileLoad = new Task<>() {
+            // Length of loaded content shown last time.
+            private long lngLengthShown = 0;
+
+            // Loaded part of file is published as value of Task, so view shows it while the rest is loading.
+            // It is published when loaded length is doubled, line index is copied not more than twice of its final size.
+            private void showLoaded(FileContentStorage storage, FileContentArrayLineIndex lineIndex) {
+
+                if (this.isShowDue(storage.length())) {
+                    this.updateValue(new FileContentDocument(storage, lineIndex.copy()));
+                }
+            }
+
+            // Large file: line checkpoints are shared with shown Document, they are not copied.
+            private void showLoaded(FileContentStorage storage, FileContentSparseLineIndex lineIndex) {
+
+                if (this.isShowDue(storage.length())) {
+                    this.updateValue(new FileContentDocument(storage, lineIndex.share()));
+                }
+            }
+
+            private boolean isShowDue(long lngLength) {
+
+                if (lngLength < INT_FILE_LOAD_SHOW_SIZE_MIN || lngLength < this.lngLengthShown * 2) {
+                    return false;
+                }
+                this.lngLengthShown = lngLength;
+                return true;
+            }
+
+            // Large file mode: file is decoded once to find blocks and line starts, content stays on disk.
+            private FileContentDocument loadLargeFile(Charset charset, final long lngFileSize, final long lngUpdateProgressBytesStep) throws Exception {
+
+                long lngTimeStart = System.nanoTime();
+                final FileContentPagedStorage storage;
+                // Large file keeps line checkpoints only, line starts between them are found when they are viewed.
+                final FileContentSparseLineIndex lineIndex;
+                // Fingerprint is built by the same pass over file, file changed while loading is detected later.
+                final FileContentFingerprint.Builder fingerprintBuilder;
+                try {
+                    storage = new FileContentPagedStorage(pathFile, charset, (long) Settings.INT_LARGE_FILE_CACHE_SIZE * INT_BYTES_IN_MB);
+                    lineIndex = new FileContentSparseLineIndex(storage);
+                    fingerprintBuilder = new FileContentFingerprint.Builder(lngFileSize, Files.getLastModifiedTime(pathFile).toMillis());
+                    boolean booLoaded = storage.load(lineIndex, fingerprintBuilder, new FileContentPagedStorage.LoadListener() {
+                        private long lngBytesReadProgress = 0;
+
+                        @Override
+                        public boolean loaded(long lngBytesRead) {
+                            if (lngUpdateProgressBytesStep == 0 || lngBytesRead - this.lngBytesReadProgress >= lngUpdateProgressBytesStep) {
+                                this.lngBytesReadProgress = lngBytesRead;
+                                updateProgress(lngBytesRead, lngFileSize);
+                                updateMessage("Large File Loading bytes=" + lngBytesRead);
+                            }
+                            showLoaded(storage, lineIndex);
+                            return !isCancelled();
+                        }
+                    });
+                    if (!booLoaded) {
+                        updateMessage("Cancelled");
+                    }
+                } catch (Throwable t) {
+                    updateMessage("Large file loading failed with Charset \"" + charset + "\""
+                            + " (" + t.toString() + ").");
+                    LOGGER.error("Could not Open or Read large File."
+                            + " pathFile=\"" + pathFile + "\""
+                            + " Throwable=\"" + t.toString() + "\"");
+                    throw new Exception("Read large File failed." + " Throwable=\"" + t.toString() + "\"");
+                }
+                lineIndex.scanFinish();
+                long lngTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lngTimeStart);
+                if (!isCancelled()) {
+                    updateProgress(lngFileSize, lngFileSize);
+                    updateMessage("Large File Loaded (" + lngFileSize + " bytes).");
+                    lngFileSizeLoaded = lngFileSize;
+                    fingerprintFile = fingerprintBuilder.build();
+                }
+                LOGGER.info("Load large file time."
+                        + " Id=\"" + getId() + "\""
+                        + " pathFile=\"" + pathFile + "\""
+                        + " FileSize=" + lngFileSize
+                        + " Length=" + storage.length()
+                        + " LinesLoaded=" + lineIndex.getLineCount()
+                        + " TimeMs=" + lngTimeMs);
+                return new FileContentDocument(storage, lineIndex);
+            }
+
             @Override
-            protected String call() throws Exception {
+            protected FileContentDocument call() throws Exception {
                 // Read text file.
                 updateMessage("File loading started.");
-                int intLinesTotal = 0;
-                StringBuilder sb = new StringBuilder();
-// TODO: change charset to read bad files.
                 Charset charset = Charset.forName(strCharsetNameRead);
                 CharsetDecoder cd = charset.newDecoder();
                 cd.onMalformedInput(CodingErrorAction.REPLACE);
                 cd.onUnmappableCharacter(CodingErrorAction.REPLACE);
                 cd.replaceWith("?");
+                // ASCII bytes are copied without decoder, other bytes are decoded by cd.
+                FileContentAsciiDecoder decoder = new FileContentAsciiDecoder(cd);
 
                 LOGGER.debug("Using charset."
                         + " pathFile=\"" + pathFile + "\""
@@ -171,98 +320,181 @@ public class FileContentEditor extends Control {
                         + " cd.replacement()=\"" + cd.replacement() + "\""
                 );
 
-                try (BufferedReader reader = Files.newBufferedReader(FileContentEditor.this.pathFile, charset)) {
-                    String strLine;
-                    while ((strLine = reader.readLine()) != null) {
-                        intLinesTotal++;
-                    }
-                    LOGGER.debug("Read File to calculate number of lines."
-                            + " pathFile=\"" + pathFile + "\""
-                            + " intLinesTotal=" + intLinesTotal);
-                } catch (Throwable t) {
-                    updateMessage("File loading failed with Charset \"" + charset + "\""
-                            + " (" + t.toString() + ").");
-                    LOGGER.error("Could not Open or Read File to calculate number of lines."
-                            + " pathFile=\"" + pathFile + "\""
-                            + " Throwable=\"" + t.toString() + "\"");
-                    throw new Exception("Read File failed." + " Throwable=\"" + t.toString() + "\"");
-                }
-                /*
-                BufferedReader reader = new BufferedReader(new FileReader(FileContentEditor.this.file));
-                //Use Files.lines() to calculate total lines - used for progress
-                try (Stream<String> stream = Files.lines(FileContentEditor.this.pathFile)) {
-                    intLinesTotal = stream.count();
-                }
-                 */
-                updateProgress(0, intLinesTotal);
+                long lngFileSize = getFileSize();
+                updateProgress(0, lngFileSize);
 
-                int intUpdateProgressLinesStep = intLinesTotal / INT_PROGRESS_BAR_STEPS;
+                long lngUpdateProgressBytesStep = lngFileSize / INT_PROGRESS_BAR_STEPS;
                 LOGGER.debug("Loading file."
                         + " Id=\"" + getId() + "\""
                         + " pathFile=\"" + pathFile + "\""
-                        + " LinesTotal=" + intLinesTotal
-                        + " UpdateProgressLinesStep=" + intUpdateProgressLinesStep);
+                        + " FileSize=" + lngFileSize
+                        + " UpdateProgressBytesStep=" + lngUpdateProgressBytesStep);
+
+                if (lngFileSize >= (long) Settings.INT_LARGE_FILE_SIZE_MIN * INT_BYTES_IN_MB) {
+                    return this.loadLargeFile(charset, lngFileSize, lngUpdateProgressBytesStep);
+                }
 
-                //Load all lines one by one into a StringBuilder separated by System.lineSeparator() ("\n") - compatible with TextArea
-                String strLine;
-                StringBuilder sbFileContent = new StringBuilder();
-                long lngLinesLoaded = 0;
+                // Read file only once, progress is calculated from bytes consumed by decoder.
+                // Decoded chars are copied by chunks into storage as they are, original line terminators are kept.
+                // Content of big file is kept outside of heap, so heap does not grow with count of open files.
+                FileContentAppendStorage storage;
+                if (Settings.BOO_OFF_HEAP_ENABLED && lngFileSize >= (long) Settings.INT_OFF_HEAP_SIZE_MIN * INT_BYTES_IN_MB) {
+                    storage = new FileContentOffHeapStorage();
+                } else {
+                    storage = new FileContentChunkStorage();
+                }
+                // Line starts are recorded while loading, Document does not scan content again.
+                FileContentArrayLineIndex lineIndex = new FileContentArrayLineIndex();
                 long lngBytesReadTotal = 0;
-                int intLinesCounter = 0;
+                long lngBytesReadProgress = 0;
                 int intUpdateProgressCounter = 0;
-                try (BufferedReader reader = Files.newBufferedReader(pathFile, charset)) {
-                    while ((strLine = reader.readLine()) != null) {
-                        sbFileContent.append(strLine);
-                        sbFileContent.append(System.lineSeparator()); //"\n");
-                        int intBytesRead = strLine.length();
-                        lngBytesReadTotal += intBytesRead;
-                        ++lngLinesLoaded;
-                        ++intLinesCounter;
-                        if (intUpdateProgressLinesStep == 0 || intLinesCounter >= intUpdateProgressLinesStep) {
-                            intLinesCounter = 0;
-                            ++intUpdateProgressCounter;
-                            updateProgress(lngLinesLoaded, intLinesTotal);
-                            updateMessage("File Loading " + " steps=" + intUpdateProgressCounter * INT_PROGRESS_BAR_STEPS + " bytes=" + lngBytesReadTotal);
-                            // updateValue(sb.toString()); for testing - it works.
-                            LOGGER.debug("# Loading file progress."
-                                    + " Id=\"" + getId() + "\""
-                                    + " FileName=\"" + FileContentEditor.this.strFileName + "\""
-                                    + " UpdateProgressCounter=" + intUpdateProgressCounter
-                                    + " LinesLoaded=" + lngLinesLoaded
-                                    + " LinesTotal=" + intLinesTotal
-                                    + " BytesRead=" + intBytesRead
-                                    + " BytesReadTotal=" + lngBytesReadTotal);
+                long lngTimeStart = System.nanoTime();
+                boolean booMapped = lngFileSize >= (long) Settings.INT_FILE_MAPPED_LOAD_SIZE_MIN * INT_BYTES_IN_MB;
+                // Decoded bytes are hashed by blocks while loading, char position of every block is recorded.
+                FileContentFingerprint.Builder fingerprintBuilder;
+                try (FileChannel fileChannel = FileChannel.open(pathFile, StandardOpenOption.READ)) {
+                    fingerprintBuilder = new FileContentFingerprint.Builder(lngFileSize, Files.getLastModifiedTime(pathFile).toMillis());
+                    if (booMapped) {
+                        // Map file by regions and decode every region chunk by chunk into reusable CharBuffer.
+                        CharBuffer charBuffer = CharBuffer.allocate(INT_FILE_LOAD_CHARS_BUFFER_SIZE);
+                        long lngRegionPos = 0;
+                        loading:
+                        while (lngRegionPos < lngFileSize) {
+                            long lngRegionSize = Math.min(INT_FILE_MAPPED_LOAD_REGION_SIZE, lngFileSize - lngRegionPos);
+                            boolean booEndOfInput = lngRegionPos + lngRegionSize >= lngFileSize;
+                            MappedByteBuffer mbb = fileChannel.map(FileChannel.MapMode.READ_ONLY, lngRegionPos, lngRegionSize);
+                            CoderResult coderResult;
+                            do {
+                                // Decoder input is limited by block, so char position is known for every block.
+                                int intPosFrom = mbb.position();
+                                mbb.limit((int) Math.min(lngRegionSize, intPosFrom + FileContentFingerprint.INT_BLOCK_SIZE));
+                                coderResult = decoder.decode(mbb, charBuffer, booEndOfInput && mbb.limit() == lngRegionSize);
+                                appendChars(charBuffer, storage, lineIndex);
+                                fingerprintBuilder.decoded(mbb, intPosFrom, storage.length());
+                                this.showLoaded(storage, lineIndex);
+                                lngBytesReadTotal = lngRegionPos + mbb.position();
+                                if (lngUpdateProgressBytesStep == 0 || lngBytesReadTotal - lngBytesReadProgress >= lngUpdateProgressBytesStep) {
+                                    lngBytesReadProgress = lngBytesReadTotal;
+                                    ++intUpdateProgressCounter;
+                                    updateProgress(lngBytesReadTotal, lngFileSize);
+                                    updateMessage("File Loading " + " steps=" + intUpdateProgressCounter * INT_PROGRESS_BAR_STEPS + " bytes=" + lngBytesReadTotal);
+                                    LOGGER.debug("# Loading mapped file progress."
+                                            + " Id=\"" + getId() + "\""
+                                            + " FileName=\"" + FileContentEditor.this.strFileName + "\""
+                                            + " UpdateProgressCounter=" + intUpdateProgressCounter
+                                            + " LinesLoaded=" + lineIndex.getLineCount()
+                                            + " FileSize=" + lngFileSize
+                                            + " BytesReadTotal=" + lngBytesReadTotal);
+                                }
+                                if (isCancelled()) {
+                                    updateMessage("Cancelled");
+                                    break loading;
+                                }
+                            } while (coderResult.isOverflow() || mbb.limit() < lngRegionSize);
+                            if (booEndOfInput) {
+                                decoder.flush(charBuffer);
+                                appendChars(charBuffer, storage, lineIndex);
+                                fingerprintBuilder.decoded(mbb, mbb.position(), storage.length());
+                                break;
+                            }
+                            // Not decoded bytes at the end of region (partial character) are mapped again with next region.
+                            lngRegionPos += mbb.position();
                         }
-                        /*
-                        // For testing only !
-                        try {
-                            Thread.sleep(300);
-                        } catch (InterruptedException interrupted) {
+                    } else {
+                        // File is read by blocks, bytes of partial char at the end of block are moved to start of buffer.
+                        ByteBuffer byteBuffer = ByteBuffer.allocate(FileContentFingerprint.INT_BLOCK_SIZE);
+                        CharBuffer charBuffer = CharBuffer.allocate(INT_FILE_LOAD_CHARS_BUFFER_SIZE);
+                        long lngBytesRead = 0;
+                        boolean booEndOfInput = false;
+                        while (!booEndOfInput) {
+                            int intRead = fileChannel.read(byteBuffer);
+                            if (intRead < 0) {
+                                booEndOfInput = true;
+                            } else {
+                                lngBytesRead += intRead;
+                            }
+                            byteBuffer.flip();
+                            CoderResult coderResult;
+                            do {
+                                coderResult = decoder.decode(byteBuffer, charBuffer, booEndOfInput);
+                                appendChars(charBuffer, storage, lineIndex);
+                            } while (coderResult.isOverflow());
+                            if (booEndOfInput) {
+                                decoder.flush(charBuffer);
+                                appendChars(charBuffer, storage, lineIndex);
+                            }
+                            fingerprintBuilder.decoded(byteBuffer, 0, storage.length());
+                            byteBuffer.compact();
+                            this.showLoaded(storage, lineIndex);
+                            lngBytesReadTotal = lngBytesRead - byteBuffer.position();
+                            if (lngUpdateProgressBytesStep == 0 || lngBytesReadTotal - lngBytesReadProgress >= lngUpdateProgressBytesStep) {
+                                lngBytesReadProgress = lngBytesReadTotal;
+                                ++intUpdateProgressCounter;
+                                updateProgress(lngBytesReadTotal, lngFileSize);
+                                updateMessage("File Loading " + " steps=" + intUpdateProgressCounter * INT_PROGRESS_BAR_STEPS + " bytes=" + lngBytesReadTotal);
+                                // updateValue(sb.toString()); for testing - it works.
+                                LOGGER.debug("# Loading file progress."
+                                        + " Id=\"" + getId() + "\""
+                                        + " FileName=\"" + FileContentEditor.this.strFileName + "\""
+                                        + " UpdateProgressCounter=" + intUpdateProgressCounter
+                                        + " LinesLoaded=" + lineIndex.getLineCount()
+                                        + " FileSize=" + lngFileSize
+                                        + " BytesReadTotal=" + lngBytesReadTotal);
+                            }
+                            /*
+                            // For testing only !
+                            try {
+                                Thread.sleep(300);
+                            } catch (InterruptedException interrupted) {
+                                if (isCancelled()) {
+                                    updateMessage("Cancelled");
+                                    break;
+                                }
+                            }
+                             */
                             if (isCancelled()) {
                                 updateMessage("Cancelled");
                                 break;
                             }
                         }
-                         */
-                        if (isCancelled()) {
-                            updateMessage("Cancelled");
-                            break;
-                        }
                     }
                 } catch (Throwable t) {
-                    LOGGER.error("Could not Read File."
+                    updateMessage("File loading failed with Charset \"" + charset + "\""
+                            + " (" + t.toString() + ").");
+                    LOGGER.error("Could not Open or Read File."
                             + " pathFile=\"" + pathFile + "\""
+                            + " Mapped=" + booMapped
                             + " Throwable=\"" + t.toString() + "\"");
+                    throw new Exception("Read File failed." + " Throwable=\"" + t.toString() + "\"");
                 }
+                long lngTimeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lngTimeStart);
+                updateProgress(lngFileSize, lngFileSize);
                 updateMessage("File Loaded (" + lngBytesReadTotal + " bytes).");
+                lngFileSizeLoaded = lngBytesReadTotal;
+                if (!isCancelled()) {
+                    fingerprintFile = fingerprintBuilder.build();
+                }
                 LOGGER.debug("Loaded file."
                         + " Id=\"" + getId() + "\""
                         + " pathFile=\"" + pathFile + "\""
-                        + " intLinesTotal=" + intLinesTotal
-                        + " lngLinesLoaded=" + lngLinesLoaded
+                        + " lngFileSize=" + lngFileSize
+                        + " LinesLoaded=" + lineIndex.getLineCount()
+                        + " LineSeparators=\"" + lineIndex.getLineSeparatorsStat() + "\""
+                        + " Storage=\"" + storage + "\""
                         + " lngBytesReadTotal=" + lngBytesReadTotal);
-
-                return sbFileContent.toString();
+                // Load time is logged for both modes to compare mapped and reader loading of the same file.
+                LOGGER.info("Load file time."
+                        + " Id=\"" + getId() + "\""
+                        + " pathFile=\"" + pathFile + "\""
+                        + " Mapped=" + booMapped
+                        + " AsciiFastPath=" + (booMapped && decoder.isAsciiCompatible())
+                        + " FileSize=" + lngFileSize
+                        + " TimeMs=" + lngTimeMs
+                        + " MBps=" + (lngTimeMs == 0 ? 0 : lngFileSize * 1000 / INT_BYTES_IN_MB / lngTimeMs));
+
+                // Loaded content becomes original buffer of Document without copying.
+                lineIndex.scanFinish();
+                return new FileContentDocument(storage, lineIndex);
             }
         };
         this.objectPropTaskFileLoad.set(this.taskFileLoad);
@@ -272,10 +504,11 @@ public class FileContentEditor extends Control {
             LOGGER.debug("# openFile-Task starting."
                     + " Id=\"" + getId() + "\""
                     + " task=\"" + taskFileLoad + "\"");
-            new Thread(taskFileLoad).start();
+            FileContentIOExecutor.getShared().execute(taskFileLoad);
             LOGGER.debug("# openFile-Task started."
                     + " Id=\"" + getId() + "\""
-                    + " task=\"" + taskFileLoad + "\"");
+                    + " task=\"" + taskFileLoad + "\""
+                    + " IOExecutor=\"" + FileContentIOExecutor.getShared() + "\"");
         } else {
             LOGGER.debug("# FileContentEditor Skin is null.");
             this.skinProperty().addListener(new InvalidationListener() {
@@ -286,10 +519,11 @@ public class FileContentEditor extends Control {
                             + " Id=\"" + getId() + "\""
                             + " Observable=\"" + o + "\""
                             + " task=\"" + taskFileLoad + "\"");
-                    new Thread(taskFileLoad).start();
+                    FileContentIOExecutor.getShared().execute(taskFileLoad);
                     LOGGER.debug("# openFile-Task started."
                             + " Id=\"" + getId() + "\""
-                            + " task=\"" + taskFileLoad + "\"");
+                            + " task=\"" + taskFileLoad + "\""
+                            + " IOExecutor=\"" + FileContentIOExecutor.getShared() + "\"");
                 }
             });
         }
@@ -306,6 +540,501 @@ public class FileContentEditor extends Control {
         this.openFile();
     }
 
+    // -------------------------------------------------------------------------------------
+    // File is not read, only opened, hex view reads visible bytes.
+    private void openBinary() {
+
+        if (this.binary != null) {
+            this.binary.close();
+        }
+        try {
+            this.binary = new FileContentBinary(this.pathFile);
+        } catch (Throwable t) {
+            LOGGER.error("Could not open binary file."
+                    + " Id=\"" + this.getId() + "\""
+                    + " pathFile=\"" + this.pathFile + "\""
+                    + " Throwable=\"" + t.toString() + "\"");
+            this.binary = null;
+            this.objStrPropFileState.setValue("Could not open binary file (" + t.toString() + ").");
+            return;
+        }
+        this.fingerprintFile = null;
+        this.bpFileModified.set(false);
+        this.opBinary.set(this.binary);
+        this.objStrPropFileState.setValue("Binary File opened (" + this.binary.size() + " bytes"
+                + (this.binary.isReadOnly() ? ", read only" : "") + ").");
+        LOGGER.info("Opened binary file."
+                + " Id=\"" + this.getId() + "\""
+                + " Binary=\"" + this.binary + "\"");
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static boolean isBinaryFile(Path pathFile, String strCharsetName) {
+
+        // Text in UTF-16 and UTF-32 has zero bytes.
+        String strCharsetNameUpper = strCharsetName.toUpperCase();
+        if (strCharsetNameUpper.startsWith("UTF-16") || strCharsetNameUpper.startsWith("UTF-32")) {
+            return false;
+        }
+        try {
+            return FileContentBinary.isBinary(pathFile);
+        } catch (Throwable t) {
+            LOGGER.error("Could not check binary file."
+                    + " pathFile=\"" + pathFile + "\""
+                    + " Throwable=\"" + t.toString() + "\"");
+            return false;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Sample of file is small, it is read before load task starts.
+    private void detectCharset() {
+
+        FileContentCharsetDetector charsetDetector = new FileContentCharsetDetector(Settings.INT_CHARSET_DETECT_SAMPLE_SIZE * 1024);
+        String strCharsetName;
+        try {
+            strCharsetName = charsetDetector.detect(this.pathFile);
+        } catch (Throwable t) {
+            LOGGER.error("Could not detect charset."
+                    + " Id=\"" + this.getId() + "\""
+                    + " pathFile=\"" + this.pathFile + "\""
+                    + " Throwable=\"" + t.toString() + "\"");
+            return;
+        }
+        if (strCharsetName == null || !Charset.isSupported(strCharsetName)) {
+            // Only ASCII characters in sample, current charset fits.
+            return;
+        }
+        if (!strCharsetName.equalsIgnoreCase(this.strCharsetNameRead)) {
+            LOGGER.info("Charset detected."
+                    + " Id=\"" + this.getId() + "\""
+                    + " pathFile=\"" + this.pathFile + "\""
+                    + " CharsetOld=\"" + this.strCharsetNameRead + "\""
+                    + " Charset=\"" + strCharsetName + "\"");
+        }
+        this.strCharsetNameRead = strCharsetName;
+    }
+
+    public boolean isBinary() {
+        return this.booBinary;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Tab is closed, binary file with not saved changes and large file being saved are kept open for saving.
+    public void closeFile() {
+
+        this.setFollow(false);
+        if (this.binary != null && !this.binary.isChanged()) {
+            this.binary.close();
+        }
+        if (this.serviceFileSave == null || !this.serviceFileSave.isRunning()) {
+            // Running save reads content from storage.
+            closeStorage(this.document, null);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // File channel of large file storage is closed when Document is replaced by Document of other storage.
+    private static void closeStorage(FileContentDocument documentOld, FileContentDocument documentNew) {
+
+        if (documentOld == null) {
+            return;
+        }
+        FileContentStorage storageOld = documentOld.getStorageOriginal();
+        if (storageOld instanceof FileContentPagedStorage && (documentNew == null || documentNew.getStorageOriginal() != storageOld)) {
+            ((FileContentPagedStorage) storageOld).close();
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Changed bytes are written in place, file is copied before for Save As.
+    private boolean saveFileBinary(final Path pathFileSaveAs) {
+
+        final FileContentBinary binarySave = this.binary;
+        if (binarySave == null) {
+            return false;
+        }
+        if (pathFileSaveAs == null && binarySave.isReadOnly() && binarySave.isChanged()) {
+            this.objStrPropFileState.setValue("Binary file is read only.");
+            return false;
+        }
+        if (pathFileSaveAs != null) {
+            this.pathFile = pathFileSaveAs;
+            this.parseFilePath(this.getId(), this.pathFile);
+        }
+        final Task<Long> taskSave = new Task<>() {
+            @Override
+            protected Long call() throws Exception {
+                updateMessage("Binary File Save started.");
+                long lngBytesWritten = binarySave.save(pathFileSaveAs);
+                updateMessage("Binary File Save finished (" + lngBytesWritten + " bytes changed).");
+                return lngBytesWritten;
+            }
+        };
+        taskSave.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                bpFileModified.set(binarySave.isChanged());
+                objStrPropFileState.setValue(taskSave.getMessage());
+                bpHboxStateVisibility.set(true);
+            }
+        });
+        taskSave.setOnFailed(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                Throwable t = taskSave.getException();
+                LOGGER.error("Could not save binary file."
+                        + " Id=\"" + getId() + "\""
+                        + " pathFile=\"" + pathFile + "\""
+                        + " Throwable=\"" + t + "\"");
+                objStrPropFileState.setValue("Binary File Save failed (" + t + ").");
+                bpHboxStateVisibility.set(true);
+            }
+        });
+        FileContentIOExecutor.getShared().execute(taskSave);
+        return true;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Bytes are searched from caret in background thread, search continues from other end of file.
+    public Task<Long> startFindBinaryTask(final byte[] arrPattern, final boolean booForward) {
+
+        this.cancelFindTask();
+        final FileContentBinary binaryFind = this.binary;
+        final long lngSize = binaryFind == null ? 0 : binaryFind.size();
+        final long lngFrom = this.objLngPropBinaryCaret.get() + (booForward ? 1 : 0);
+        this.taskFindBinary = new Task<Long>() {
+            @Override
+            protected Long call() throws Exception {
+                if (binaryFind == null) {
+                    return -1L;
+                }
+                this.updateMessage("Searching in " + strFilePath);
+                FileContentBinary.FindListener findListener = new FileContentBinary.FindListener() {
+                    @Override
+                    public boolean searched(long lngBytesSearched) {
+                        updateProgress(Math.min(lngBytesSearched, lngSize), lngSize);
+                        updateMessage("Searching in " + strFilePath + ", searched " + lngBytesSearched + " bytes");
+                        return !isCancelled();
+                    }
+                };
+                long lngPos = binaryFind.find(arrPattern, lngFrom, booForward, findListener);
+                if (lngPos < 0 && !this.isCancelled()) {
+                    lngPos = binaryFind.find(arrPattern, booForward ? 0 : lngSize, booForward, findListener);
+                }
+                this.updateProgress(lngSize, lngSize);
+                return lngPos;
+            }
+        };
+        this.objectPropTaskFind.set(this.taskFindBinary);
+
+        FileContentIOExecutor.getShared().execute(this.taskFindBinary);
+        return this.taskFindBinary;
+    }
+
+    // Found bytes are selected, caret is at the first byte.
+    public void selectBinary(long lngPos, long lngLen) {
+
+        this.objLngPropBinaryAnchor.set(lngPos + lngLen);
+        this.objLngPropBinaryCaret.set(lngPos);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Follow mode: file size is checked periodically, only appended bytes are read and appended to Document,
+    // caret is kept at the end of Document.
+    public boolean isFollow() {
+        return this.serviceFollow != null;
+    }
+
+    public void setFollow(boolean booFollow) {
+
+        if (booFollow == this.isFollow()) {
+            return;
+        }
+        if (!booFollow) {
+            this.serviceFollow.cancel();
+            this.serviceFollow = null;
+            LOGGER.info("Follow File stopped."
+                    + " Id=\"" + this.getId() + "\""
+                    + " pathFile=\"" + this.pathFile + "\"");
+            return;
+        }
+        if (this.pathFile == null) {
+            LOGGER.info("Could not follow file not saved yet."
+                    + " Id=\"" + this.getId() + "\"");
+            return;
+        }
+        final Path pathFileFollow = this.pathFile;
+        final Charset charset = Charset.forName(this.strCharsetNameRead);
+        this.serviceFollow = new ScheduledService<String>() {
+            // Decoder keeps state between reads, bytes of not complete char are kept for next read.
+            private final CharsetDecoder cd = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                    .replaceWith("?");
+            private ByteBuffer byteBufferRemaining = ByteBuffer.allocate(0);
+            private long lngFilePosRead = -1;
+
+            @Override
+            protected Task<String> createTask() {
+                return new Task<String>() {
+                    @Override
+                    protected String call() throws Exception {
+                        return readAppended();
+                    }
+                };
+            }
+
+            private String readAppended() throws IOException {
+
+                if (this.lngFilePosRead != lngFileSizeLoaded) {
+                    // File was loaded or saved since last read.
+                    this.lngFilePosRead = lngFileSizeLoaded;
+                    this.byteBufferRemaining = ByteBuffer.allocate(0);
+                    this.cd.reset();
+                }
+                try (FileChannel fileChannel = FileChannel.open(pathFileFollow, StandardOpenOption.READ)) {
+                    long lngFileSize = fileChannel.size();
+                    if (lngFileSize < this.lngFilePosRead) {
+                        throw new IOException("File is truncated from " + this.lngFilePosRead + " to " + lngFileSize + " bytes.");
+                    }
+                    if (lngFileSize == this.lngFilePosRead) {
+                        return "";
+                    }
+                    int intReadSize = (int) Math.min(INT_FOLLOW_READ_SIZE_MAX, lngFileSize - this.lngFilePosRead);
+                    ByteBuffer byteBuffer = ByteBuffer.allocate(this.byteBufferRemaining.remaining() + intReadSize);
+                    byteBuffer.put(this.byteBufferRemaining);
+                    long lngReadPos = this.lngFilePosRead;
+                    while (byteBuffer.hasRemaining()) {
+                        int intRead = fileChannel.read(byteBuffer, lngReadPos);
+                        if (intRead < 0) {
+                            break;
+                        }
+                        lngReadPos += intRead;
+                    }
+                    byteBuffer.flip();
+                    CharBuffer charBuffer = CharBuffer.allocate((int) (byteBuffer.remaining() * this.cd.maxCharsPerByte()) + 1);
+                    this.cd.decode(byteBuffer, charBuffer, false);
+                    this.byteBufferRemaining = ByteBuffer.allocate(byteBuffer.remaining());
+                    this.byteBufferRemaining.put(byteBuffer);
+                    this.byteBufferRemaining.flip();
+                    this.lngFilePosRead = lngReadPos;
+                    lngFileSizeLoaded = lngReadPos;
+                    // Followed file is not checked by hash, appended content is in Document.
+                    fingerprintFile = new FileContentFingerprint(lngReadPos, Files.getLastModifiedTime(pathFileFollow).toMillis(),
+                            FileContentFingerprint.LNG_HASH_UNKNOWN);
+                    charBuffer.flip();
+                    return charBuffer.toString();
+                }
+            }
+        };
+        this.serviceFollow.setPeriod(javafx.util.Duration.millis(Settings.INT_FOLLOW_INTERVAL));
+        this.serviceFollow.setRestartOnFailure(false);
+        this.serviceFollow.setExecutor(FileContentIOExecutor.getShared());
+        final ScheduledService<String> serviceFollowFinal = this.serviceFollow;
+        this.serviceFollow.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                String strAppended = serviceFollowFinal.getValue();
+                if (strAppended == null || strAppended.isEmpty() || serviceFollow != serviceFollowFinal) {
+                    return;
+                }
+                // Appended content is part of file, modified state of Document is not changed.
+                boolean booModified = bpFileModified.get();
+                document.append(strAppended);
+                bpFileModified.set(booModified);
+                objLngPropCaretPosition.set(document.length());
+            }
+        });
+        this.serviceFollow.setOnFailed(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                Throwable t = serviceFollowFinal.getException();
+                LOGGER.error("Follow File failed."
+                        + " Id=\"" + getId() + "\""
+                        + " pathFile=\"" + pathFileFollow + "\""
+                        + " Throwable=\"" + t + "\"");
+                objStrPropFileState.setValue("Follow File stopped: " + t);
+                bpHboxStateVisibility.set(true);
+                if (serviceFollow == serviceFollowFinal) {
+                    serviceFollow = null;
+                }
+            }
+        });
+        this.serviceFollow.start();
+        LOGGER.info("Follow File started."
+                + " Id=\"" + this.getId() + "\""
+                + " pathFile=\"" + this.pathFile + "\""
+                + " FileSizeLoaded=" + this.lngFileSizeLoaded
+                + " IntervalMs=" + Settings.INT_FOLLOW_INTERVAL);
+        this.objLngPropCaretPosition.set(this.document.length());
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Fingerprint of saved file is built from bytes written by save, only time of file is read.
+    // Char positions are kept only when file is decoded to the same chars as Document has.
+    private FileContentFingerprint buildFingerprintSaved(FileContentFingerprint.Builder fingerprintBuilder, Path path, boolean booCharsKnown) {
+
+        try {
+            FileContentFingerprint fingerprint = fingerprintBuilder.build(Files.getLastModifiedTime(path).toMillis());
+            if (!booCharsKnown) {
+                fingerprint = new FileContentFingerprint(fingerprint.getSize(), fingerprint.getModified(), fingerprint.getHash());
+            }
+            LOGGER.debug("Built saved file fingerprint."
+                    + " Id=\"" + this.getId() + "\""
+                    + " pathFile=\"" + path + "\""
+                    + " Fingerprint=\"" + fingerprint + "\"");
+            return fingerprint;
+        } catch (Throwable t) {
+            LOGGER.error("Could not build saved file fingerprint."
+                    + " Id=\"" + this.getId() + "\""
+                    + " pathFile=\"" + path + "\""
+                    + " Throwable=\"" + t.toString() + "\"");
+            return null;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // File is checked in background when editor gets focus, size and time are compared first,
+    // content is hashed only when file could be rewritten with the same content.
+    public void checkFileChanged() {
+
+        if (this.pathFile == null || this.fingerprintFile == null || this.booFileCheckRunning || this.isFollow()) {
+            return;
+        }
+        if ((this.taskFileLoad != null && !this.taskFileLoad.isDone())
+                || (this.serviceFileSave != null && this.serviceFileSave.isRunning())) {
+            return;
+        }
+        this.booFileCheckRunning = true;
+        final Path pathFileCheck = this.pathFile;
+        final FileContentFingerprint fingerprint = this.fingerprintFile;
+        final Task<FileContentFingerprint> taskCheck = new Task<>() {
+            @Override
+            protected FileContentFingerprint call() throws Exception {
+                return fingerprint.current(pathFileCheck);
+            }
+        };
+        taskCheck.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                try {
+                    fileChecked(pathFileCheck, fingerprint, taskCheck.getValue());
+                } finally {
+                    booFileCheckRunning = false;
+                }
+            }
+        });
+        taskCheck.setOnFailed(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                booFileCheckRunning = false;
+                Throwable t = taskCheck.getException();
+                LOGGER.error("Could not check file."
+                        + " Id=\"" + getId() + "\""
+                        + " pathFile=\"" + pathFileCheck + "\""
+                        + " Throwable=\"" + t + "\"");
+                objStrPropFileState.setValue("Could not check file: " + t);
+                bpHboxStateVisibility.set(true);
+            }
+        });
+        FileContentIOExecutor.getShared().execute(taskCheck);
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void fileChecked(Path pathFileCheck, FileContentFingerprint fingerprint, FileContentFingerprint fingerprintNow) {
+
+        if (fingerprintNow == fingerprint || this.fingerprintFile != fingerprint || !pathFileCheck.equals(this.pathFile)) {
+            return;
+        }
+        if (fingerprint.isSameContent(fingerprintNow)) {
+            LOGGER.info("File time is changed, content is the same."
+                    + " Id=\"" + this.getId() + "\""
+                    + " pathFile=\"" + pathFileCheck + "\""
+                    + " Fingerprint=\"" + fingerprintNow + "\"");
+            this.fingerprintFile = fingerprintNow;
+            return;
+        }
+        LOGGER.info("File is changed outside of editor."
+                + " Id=\"" + this.getId() + "\""
+                + " pathFile=\"" + pathFileCheck + "\""
+                + " FingerprintLoaded=\"" + fingerprint + "\""
+                + " FingerprintNow=\"" + fingerprintNow + "\"");
+        // Fingerprint is replaced before dialog, so focus returned after dialog does not ask again.
+        this.fingerprintFile = fingerprintNow;
+        String strMessage = "The File was changed outside of editor.\nFilePath=" + pathFileCheck;
+        if (this.bpFileModified.get()) {
+            strMessage += "\nChanges made in editor will be lost on reload.";
+        }
+        if (Utils.showMessage(AlertType.CONFIRMATION, "File Changed", strMessage, "Do you want to reload file?", "Reload", "Keep")) {
+            this.reloadFile(fingerprint);
+        } else {
+            // Document is not the same as file now, saving it will overwrite file.
+            this.bpFileModified.set(true);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Not modified Document is reloaded by changed blocks of file, they are spliced into Document.
+    // Whole file is loaded when Document is modified or positions of blocks are not known.
+    private void reloadFile(final FileContentFingerprint fingerprint) {
+
+        final Charset charset = Charset.forName(this.strCharsetNameRead);
+        final FileContentDocument documentReload = this.document;
+        if (this.bpFileModified.get() || documentReload.length() != fingerprint.getChars() || !fingerprint.canSplice(charset)) {
+            this.openFile();
+            return;
+        }
+        final Path pathFileReload = this.pathFile;
+        final long lngVersion = documentReload.getVersion();
+        final long lngTimeStart = System.nanoTime();
+        final Task<FileContentFingerprint.Splice> taskReload = new Task<>() {
+            @Override
+            protected FileContentFingerprint.Splice call() throws Exception {
+                // Splice bigger than half of file is not faster than loading.
+                long lngSpliceSizeMax = Math.max(fingerprint.getSize() / 2, 2L * FileContentFingerprint.INT_BLOCK_SIZE);
+                return fingerprint.readChanged(pathFileReload, charset, lngSpliceSizeMax, INT_RELOAD_SPLICE_CHARS_MAX);
+            }
+        };
+        taskReload.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                FileContentFingerprint.Splice splice = taskReload.getValue();
+                if (splice == null || document != documentReload || documentReload.getVersion() != lngVersion) {
+                    LOGGER.info("File could not be reloaded by blocks, loading whole file."
+                            + " Id=\"" + getId() + "\""
+                            + " pathFile=\"" + pathFileReload + "\"");
+                    openFile();
+                    return;
+                }
+                documentReload.splice(splice.getCharPos(), splice.getCharLenRemove(), splice.getText());
+                bpFileModified.set(false);
+                fingerprintFile = splice.getFingerprint();
+                lngFileSizeLoaded = splice.getFingerprint().getSize();
+                objLngPropCaretPosition.set(splice.getCharPos());
+                LOGGER.info("File reloaded by blocks."
+                        + " Id=\"" + getId() + "\""
+                        + " pathFile=\"" + pathFileReload + "\""
+                        + " CharPos=" + splice.getCharPos()
+                        + " CharsRemoved=" + splice.getCharLenRemove()
+                        + " CharsInserted=" + splice.getText().length()
+                        + " Fingerprint=\"" + splice.getFingerprint() + "\""
+                        + " TimeMs=" + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lngTimeStart));
+            }
+        });
+        taskReload.setOnFailed(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                LOGGER.error("Could not reload file by blocks."
+                        + " Id=\"" + getId() + "\""
+                        + " pathFile=\"" + pathFileReload + "\""
+                        + " Throwable=\"" + taskReload.getException() + "\"");
+                openFile();
+            }
+        });
+        FileContentIOExecutor.getShared().execute(taskReload);
+    }
+
     // -------------------------------------------------------------------------------------
     public boolean saveFile(Path pathFileSaveAs) {
         // Parameters:
@@ -314,6 +1043,9 @@ public class FileContentEditor extends Control {
 
         LOGGER.debug("Saving File.");
         this.bpHboxStateVisibility.set(true);
+        if (this.booBinary) {
+            return this.saveFileBinary(pathFileSaveAs);
+        }
 
         if (pathFileSaveAs == null) {
             String strReason = canSaveFile(this.getId(), this.pathFile);
@@ -329,105 +1061,156 @@ public class FileContentEditor extends Control {
             this.parseFilePath(this.getId(), this.pathFile);
         }
 
-        if (Settings.BOO_BACKUP_FILES_EABLED) {
-//Old            renameFileToBackupReverted(strTabID, fileToSave);
-            renameFileToBackup(this.getId(), this.pathFile);
-        }
-
+        // Save Document as it is now, editing could continue while file is saving.
+        final FileContentDocument.Snapshot documentSnapshot = this.document.snapshot();
+        this.documentSaved = this.document;
+        this.lngVersionSaved = documentSnapshot.getVersion();
+        final String strCharsetNameSave = this.strCharsetNameWrite;
         this.serviceFileSave = new Service<>() {
             @Override
             protected Task<String> createTask() {
                 return new Task<String>() {
                     @Override
-                    protected String call() throws InterruptedException {
+                    protected String call() throws Exception {
                         LOGGER.debug("File Save started."
                                 + " pathFile=\"" + pathFile + "\"");
                         updateMessage("File Save started.");
-                        String strText = spFileContent.getValue();
-                        if (strText == null) {
-                            LOGGER.info("Saving null string."
-                                    + " pathFile=\"" + pathFile + "\"");
-                            strText = "";
-                        }
-                        int intLen = strText.length();
-                        updateProgress(0, intLen);
+                        FileContentDocument.Snapshot snapshot = documentSnapshot;
+                        long lngLen = snapshot.length();
+                        updateProgress(0, lngLen);
                         LOGGER.info("File saving."
                                 + " Id=\"" + getId() + "\""
                                 + " pathFile=\"" + pathFile + "\""
-                                + " intLen=" + intLen);
-                        //int intSteps = intLen / INT_PROGRESS_BAR_STEPS + 1;
-                        int intStep = intLen / INT_PROGRESS_BAR_STEPS;
-                        int intFrom = 0;
+                                + " lngLen=" + lngLen);
+                        long lngStep = Math.max(lngLen / INT_PROGRESS_BAR_STEPS, INT_FILE_SAVE_CHARS_BUFFER_SIZE);
+                        long lngFrom = 0;
+                        long lngProgress = 0;
+                        long lngBytesWritten = 0;
                         LOGGER.debug("Saving file."
                                 + " Id=\"" + getId() + "\""
                                 + " pathFile=\"" + pathFile + "\""
-                                + " intLen=" + intLen
-                                + " intStep=" + intStep);
-                        Charset charset = Charset.forName(Settings.STR_CHARSET_CURRENT);
-                        try (BufferedWriter writer = Files.newBufferedWriter(pathFile, charset)) {
-                            //writer.write(s, 0, s.length());
-                            if (intStep == 0) {
-                                writer.write(strText, 0, intLen);
-                            } else {
-                                while (intFrom <= intLen - intStep) {
-                                    writer.write(strText, intFrom, intStep);
-                                    intFrom += intStep;
-                                    updateProgress(intFrom, intLen);
+                                + " lngLen=" + lngLen
+                                + " lngStep=" + lngStep);
+                        Charset charset = Charset.forName(strCharsetNameSave);
+                        CharsetEncoder ce = charset.newEncoder();
+                        // Chars which could not be encoded are replaced here, so it is known that file chars are not Document chars.
+                        ce.onMalformedInput(CodingErrorAction.REPORT);
+                        ce.onUnmappableCharacter(CodingErrorAction.REPORT);
+                        byte[] arrReplacement = ce.replacement();
+                        boolean booCharsReplaced = false;
+                        // File is written to temp file in the same directory and moved over target file when complete,
+                        // so failed save never leaves half-written target file.
+                        Path pathFileTemp;
+                        try {
+                            pathFileTemp = createFileTemp(pathFile);
+                        } catch (Throwable t) {
+                            LOGGER.error("Could not create temp file."
+                                    + " Id=\"" + getId() + "\""
+                                    + " pathFile=\"" + pathFile + "\""
+                                    + " Throwable=\"" + t.toString() + "\"");
+                            updateMessage("File Save failed.");
+                            throw new Exception("Save File failed." + " Throwable=\"" + t.toString() + "\"");
+                        }
+                        FileContentFingerprint.Builder fingerprintBuilder = new FileContentFingerprint.Builder();
+                        try (FileChannel fileChannel = FileChannel.open(pathFileTemp,
+                                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                            // Document snapshot is read by chunks into one reusable CharBuffer and encoded into one direct ByteBuffer.
+                            // Bytes are written by fingerprint blocks, so char position is known for every block.
+                            CharBuffer charBuffer = CharBuffer.allocate(INT_FILE_SAVE_CHARS_BUFFER_SIZE);
+                            ByteBuffer byteBuffer = ByteBuffer.allocateDirect(FileContentFingerprint.INT_BLOCK_SIZE);
+                            while (true) {
+                                long lngTo = Math.min(lngLen, lngFrom + charBuffer.remaining());
+                                snapshot.getChars(lngFrom, lngTo, charBuffer.array(), charBuffer.arrayOffset() + charBuffer.position());
+                                charBuffer.position(charBuffer.position() + (int) (lngTo - lngFrom));
+                                lngFrom = lngTo;
+                                boolean booEndOfInput = lngFrom >= lngLen;
+                                charBuffer.flip();
+                                CoderResult coderResult;
+                                do {
+                                    coderResult = ce.encode(charBuffer, byteBuffer, booEndOfInput);
+                                    if (coderResult.isError()) {
+                                        booCharsReplaced = true;
+                                        charBuffer.position(charBuffer.position() + coderResult.length());
+                                        if (byteBuffer.remaining() < arrReplacement.length) {
+                                            lngBytesWritten += writeBytes(fileChannel, byteBuffer, fingerprintBuilder, -1);
+                                        }
+                                        byteBuffer.put(arrReplacement);
+                                        continue;
+                                    }
+                                    lngBytesWritten += writeBytes(fileChannel, byteBuffer, fingerprintBuilder,
+                                            booCharsReplaced ? -1 : lngFrom - charBuffer.remaining());
+                                } while (coderResult.isOverflow() || coderResult.isError());
+                                // Not encoded chars (first char of surrogate pair) are encoded with next chunk.
+                                charBuffer.compact();
+                                if (lngFrom - lngProgress >= lngStep) {
+                                    lngProgress = lngFrom;
+                                    updateProgress(lngFrom, lngLen);
+                                    updateMessage("File Saving, bytes=" + lngBytesWritten);
                                     LOGGER.debug("Saving file."
                                             + " Id=\"" + getId() + "\""
                                             + " pathFile=\"" + pathFile + "\""
-                                            + " intLen=" + intLen
-                                            + " intFrom=" + intFrom);
-                                    /*
-                                    // For testing only !
-                                    try {
-                                        Thread.sleep(300);
-                                    } catch (InterruptedException interrupted) {
-                                        if (isCancelled()) {
-                                            updateMessage("Cancelled");
-                                            break;
-                                        }
-                                    }
-                                     */
+                                            + " lngLen=" + lngLen
+                                            + " lngFrom=" + lngFrom
+                                            + " BytesWritten=" + lngBytesWritten);
                                 }
-                                int intRest = intLen - intFrom;
-                                if (intRest != 0) {
-                                    writer.write(strText, intFrom, intRest);
+                                if (booEndOfInput) {
+                                    break;
                                 }
                             }
+                            CoderResult coderResult;
+                            do {
+                                coderResult = ce.flush(byteBuffer);
+                                lngBytesWritten += writeBytes(fileChannel, byteBuffer, fingerprintBuilder, booCharsReplaced ? -1 : lngLen);
+                            } while (coderResult.isOverflow());
+                            fileChannel.force(true);
                         } catch (Throwable t) {
                             LOGGER.error("Could not save file."
                                     + " Id=\"" + getId() + "\""
                                     + " pathFile=\"" + pathFile + "\""
+                                    + " pathFileTemp=\"" + pathFileTemp + "\""
                                     + " Throwable=\"" + t.toString() + "\"");
+                            deleteFileTemp(getId(), pathFileTemp);
+                            updateMessage("File Save failed.");
+                            throw new Exception("Save File failed." + " Throwable=\"" + t.toString() + "\"");
                         }
-                        /*
-                        try (BufferedWriter writer = new BufferedWriter(new FileWriter(strFilePath))) {
-                            writer.write(strText);
-                        } catch (Exception e) {
-                            LOGGER.error("Could not save file."
+                        if (Settings.BOO_BACKUP_FILES_EABLED) {
+                            // Backup is link to (or copy of) current file, target file stays in place until it is replaced.
+                            backupFile(getId(), pathFile);
+                        }
+                        try {
+                            moveFileTemp(getId(), pathFileTemp, pathFile);
+                        } catch (Throwable t) {
+                            LOGGER.error("Could not move temp file to file."
                                     + " Id=\"" + getId() + "\""
                                     + " pathFile=\"" + pathFile + "\""
-                                    + " Exception=\"" + e.toString() + "\"");
-                            return null;
+                                    + " pathFileTemp=\"" + pathFileTemp + "\""
+                                    + " Throwable=\"" + t.toString() + "\"");
+                            deleteFileTemp(getId(), pathFileTemp);
+                            updateMessage("File Save failed.");
+                            throw new Exception("Save File failed." + " Throwable=\"" + t.toString() + "\"");
                         }
-                         */
-                        updateProgress(intLen, intLen);
-                        updateMessage("File Save finished (" + intLen + " bytes).");
-                        LOGGER.debug("File Save finished(" + intLen + " bytes)."
-                                + " pathFile=\"" + pathFile + "\"");
+                        lngFileSizeLoaded = lngBytesWritten;
+                        fingerprintFile = buildFingerprintSaved(fingerprintBuilder, pathFile, !booCharsReplaced);
+                        updateProgress(lngLen, lngLen);
+                        updateMessage("File Save finished (" + lngBytesWritten + " bytes).");
+                        LOGGER.debug("File Save finished(" + lngBytesWritten + " bytes)."
+                                + " pathFile=\"" + pathFile + "\""
+                                + " Chars=" + lngLen);
                         return "OK";
                     }
                 };
             }
         };
 
+        // Save and backup go through the same bounded executor as file loading.
+        this.serviceFileSave.setExecutor(FileContentIOExecutor.getShared());
         this.objectPropServiceFileSave.set(this.serviceFileSave);
 
         this.serviceFileSave.reset();
         LOGGER.info("Saving file."
                 + " Id=\"" + this.getId() + "\""
-                + " pathFile=\"" + this.pathFile + "\"");
+                + " pathFile=\"" + this.pathFile + "\""
+                + " IOExecutor=\"" + FileContentIOExecutor.getShared() + "\"");
         this.serviceFileSave.start();
 
         if (pathFileSaveAs != null) {
@@ -441,107 +1224,199 @@ public class FileContentEditor extends Control {
             tab.setTooltip(tltp);
              */
         }
-        this.bpFileModified.set(false);
         return true;
     }
 
     // -------------------------------------------------------------------------------------
-    public int find(String strTextFind) {
+    // Document is edited after snapshot of last save was taken.
+    public boolean isEditedSinceSave() {
+        return this.document != this.documentSaved || this.document.getVersion() != this.lngVersionSaved;
+    }
+
+    // -------------------------------------------------------------------------------------
+    public int find(FileContentSearchPattern pattern) {
+        return this.find(pattern, true);
+    }
+
+    public int findPrevious(FileContentSearchPattern pattern) {
+        return this.find(pattern, false);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Count of matches, it builds find index, so it could be called in background thread before find.
+    public int count(FileContentSearchPattern pattern) {
 
-        if (strTextFind == null || strTextFind.isEmpty()) {
+        if (pattern == null) {
             return -1;
         }
-        if (this.spFileContent == null) {
-            return -1;
+        return this.finder.count(pattern);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Find index is built by Task in background thread, previous find Task is cancelled.
+    // Progress and count of found matches are posted to Task while searching.
+    public Task<Integer> startFindTask(final FileContentSearchPattern pattern) {
+
+        this.cancelFindTask();
+        final FileContentFinder finderTask = this.finder;
+        final long lngLen = this.document.length();
+        this.taskFind = new Task<Integer>() {
+            @Override
+            protected Integer call() throws Exception {
+                this.updateMessage("Searching in " + strFilePath);
+                int intCount = finderTask.count(pattern, new FileContentFinder.ProgressListener() {
+                    @Override
+                    public void progress(long lngSearched, int intFound) {
+                        // Task coalesces updates, so FX thread gets only latest values.
+                        updateProgress(lngSearched, lngLen);
+                        updateMessage("Searching in " + strFilePath + ", found " + intFound);
+                    }
+                });
+                this.updateProgress(lngLen, lngLen);
+                return intCount;
+            }
+        };
+        this.objectPropTaskFind.set(this.taskFind);
+
+        FileContentIOExecutor.getShared().execute(this.taskFind);
+        return this.taskFind;
+    }
+
+    public void cancelFindTask() {
+
+        if (this.taskFind != null && this.taskFind.isRunning()) {
+            this.taskFind.cancel();
         }
-        String strText = this.spFileContent.getValue();
-        if (strText == null || strText.isEmpty()) {
+        if (this.taskFindBinary != null && this.taskFindBinary.isRunning()) {
+            this.taskFindBinary.cancel();
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    private int find(FileContentSearchPattern pattern, boolean booForward) {
+
+        if (pattern == null) {
             return -1;
         }
-        // Count all findings.
-        int intTextFindLen = strTextFind.length();
-        int intPosLast = 0;
-        int intCount = 0;
-        int intPosFirst = -1;
-        while (intPosLast != -1) {
-            intPosLast = strText.indexOf(strTextFind, intPosLast);
-            if (intPosLast != -1) {
-                if (intPosFirst == -1) {
-                    // Save position of first text found.
-                    intPosFirst = intPosLast;
-                }
-                intCount++;
-                intPosLast += intTextFindLen;
-            }
+        if (this.document.length() == 0) {
+            return -1;
         }
+        // Matches are taken from find index, it is built once for pattern and updated on edits.
+        int intCount = this.finder.count(pattern);
         if (intCount == 0) {
             return 0;
         }
-        if (intCount == 1) {
-            this.intPosFoundFromCursor = intPosFirst;
+        long lngPosCursor = this.objLngPropCaretPosition.getValue();
+        long lngPosFound;
+        if (booForward) {
+            lngPosFound = this.finder.findNext(pattern, lngPosCursor + 1);
         } else {
-            // Find text from cursor position.
-            int intTextLen = strText.length();
-            int intPosCursor = this.objIntPropCaretPosition.getValue();
-            int intPosFindStart;
-            if (intPosCursor < intTextLen - intTextFindLen) {
-                intPosFindStart = intPosCursor + 1;
-            } else {
-                intPosFindStart = 0;
-            }
-            this.intPosFoundFromCursor = strText.indexOf(strTextFind, intPosFindStart);
-            if (this.intPosFoundFromCursor < 0) {
-                intPosFindStart = 0;
-                this.intPosFoundFromCursor = strText.indexOf(strTextFind, intPosFindStart);
-            }
-            if (this.intPosFoundFromCursor < 0) {
-                this.intPosFoundFromCursor = 0;
-            }
+            lngPosFound = this.finder.findPrevious(pattern, lngPosCursor);
         }
+        this.lngPosFoundFromCursor = lngPosFound;
         LOGGER.debug("Text findings."
                 + " Id=\"" + this.getId() + "\""
-                + " TextFind=\"" + strTextFind + "\""
+                + " " + pattern
                 + " Count=\"" + intCount + "\""
-                + " PosFoundFromCursor=\"" + this.intPosFoundFromCursor + "\"");
+                + " Forward=" + booForward
+                + " PosFoundFromCursor=\"" + this.lngPosFoundFromCursor + "\"");
 
-        this.objIntPropCaretPosition.set(this.intPosFoundFromCursor);
+        this.objLngPropCaretPosition.set(this.lngPosFoundFromCursor);
         return intCount;
     }
 
     // -------------------------------------------------------------------------------------
-    public int replace(String strTextFind, String strTextReplace) {
+    public int getFindMatchNumber(FileContentSearchPattern pattern) {
+        // Number (starts from 1) of match at caret position.
+        return this.finder.getMatchNumber(pattern, this.objLngPropCaretPosition.get());
+    }
+
+    // -------------------------------------------------------------------------------------
+    public int replace(FileContentSearchPattern pattern, String strTextReplace) {
 
-        if (strTextFind == null || strTextFind.isEmpty()) {
+        if (pattern == null) {
             return -1;
         }
         if (strTextReplace == null || strTextReplace.isEmpty()) {
             return -1;
         }
-        if (this.spFileContent == null) {
+        if (this.document.length() == 0) {
             return -1;
         }
-        String strFileContent = this.spFileContent.getValue();
-        if (strFileContent == null || strFileContent.isEmpty()) {
+        long lngPos = this.finder.findNext(pattern, this.lngPosFoundFromCursor);
+        if (lngPos < 0) {
+
+            return 1;
+        }
+        // Only found text is changed, the rest of Document is not copied.
+        this.document.replace(lngPos, this.finder.getMatchEnd(pattern, lngPos) - lngPos, strTextReplace);
+        this.objLngPropCaretPosition.set(this.lngPosFoundFromCursor);
+        return 1;
+    }
+
+    // -------------------------------------------------------------------------------------
+    public int replaceAll(FileContentSearchPattern pattern, String strTextReplace) {
+
+        if (pattern == null) {
             return -1;
         }
-        int intFileContentLen = strFileContent.length();
+        if (strTextReplace == null) {
+            strTextReplace = "";
+        }
+        // All matches are replaced by one Document edit, it is one undo step.
+        // Replace text is literal, regex groups are not substituted.
+        long lngTimeStart = System.currentTimeMillis();
+        int intCount = this.document.replaceAll(this.finder.getMatchStarts(pattern), this.finder.getMatchEnds(pattern), strTextReplace);
+        LOGGER.debug("Replaced all."
+                + " Id=\"" + this.getId() + "\""
+                + " " + pattern
+                + " TextReplace=\"" + strTextReplace + "\""
+                + " Count=" + intCount
+                + " Time=" + (System.currentTimeMillis() - lngTimeStart));
+        return intCount;
+    }
 
-        int intTextFindLen = strTextFind.length();
-        int intPos = strFileContent.indexOf(strTextFind, this.intPosFoundFromCursor);
-        if (intPos < 0) {
+    // -------------------------------------------------------------------------------------
+    public String getLineSeparator() {
+        return this.document.getLineSeparator();
+    }
 
-            return 1;
+    // -------------------------------------------------------------------------------------
+    public boolean goToLine(long lngLine) {
+        return this.goToLine(lngLine, 0);
+    }
+
+    // Column is offset in line, it is limited by line length.
+    public boolean goToLine(long lngLine, long lngColumn) {
+
+        if (this.taskFileLoad != null && !this.taskFileLoad.isDone()) {
+            this.lngGoToLinePending = lngLine;
+            this.lngGoToColumnPending = lngColumn;
+            return true;
         }
-        StringBuilder sb = new StringBuilder();
-        sb.append(strFileContent.substring(0, intPos));
-        sb.append(strTextReplace);
-        if (intFileContentLen > intPos + intTextFindLen) {
-            sb.append(strFileContent.substring(intPos + intTextFindLen));
+        // Line numbers start from 1.
+        int intLineCount = this.document.getLineCount();
+        if (lngLine < 1 || lngLine > intLineCount) {
+            LOGGER.info("Line number is out of range."
+                    + " Id=\"" + this.getId() + "\""
+                    + " Line=" + lngLine
+                    + " LineCount=" + intLineCount);
+            return false;
         }
-        String strTextUpdated = sb.toString();
-        this.spFileContent.set(strTextUpdated);
-        this.objIntPropCaretPosition.set(this.intPosFoundFromCursor);
-        return 1;
+        long lngLineStart = this.document.getLineStart((int) (lngLine - 1));
+        long lngLineEnd = this.document.length();
+        if (lngLine < intLineCount) {
+            // Caret is kept before line terminator.
+            lngLineEnd = this.document.getLineStart((int) lngLine) - 1;
+        }
+        this.objLngPropCaretPosition.set(lngLineStart + Math.max(0, Math.min(lngColumn, lngLineEnd - lngLineStart)));
+        return true;
+    }
+
+    // -------------------------------------------------------------------------------------
+    public long getCaretLine() {
+        // Line number (starts from 1) of caret.
+        return this.document.getLineOfOffset(this.objLngPropCaretPosition.get()) + 1;
     }
 
     // -------------------------------------------------------------------------------------
@@ -619,6 +1494,40 @@ public class FileContentEditor extends Control {
         }
     }
 
+    // -------------------------------------------------------------------------------------
+    private static void appendChars(CharBuffer charBuffer, FileContentAppendStorage storage, FileContentArrayLineIndex lineIndex) {
+
+        // Copy decoded chars into storage and record line starts, buffer is cleared for next decoding.
+        charBuffer.flip();
+        char[] arrChars = charBuffer.array();
+        int intFrom = charBuffer.arrayOffset() + charBuffer.position();
+        int intTo = intFrom + charBuffer.remaining();
+        storage.append(arrChars, intFrom, intTo);
+        lineIndex.scan(arrChars, intFrom, intTo);
+        charBuffer.clear();
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Written bytes are hashed for fingerprint of saved file, file is not read again after save.
+    // Bytes are written after whole chars, lngCharPos chars are encoded in total (-1 if not known).
+    private static int writeBytes(FileChannel fileChannel, ByteBuffer byteBuffer,
+            FileContentFingerprint.Builder fingerprintBuilder, long lngCharPos) throws IOException {
+
+        if (lngCharPos < 0) {
+            fingerprintBuilder.written(byteBuffer, 0);
+        } else {
+            // Loader decodes these bytes to the same chars, so saved file could be reloaded by blocks.
+            fingerprintBuilder.decoded(byteBuffer, 0, lngCharPos);
+        }
+        byteBuffer.flip();
+        int intBytes = byteBuffer.remaining();
+        while (byteBuffer.hasRemaining()) {
+            fileChannel.write(byteBuffer);
+        }
+        byteBuffer.clear();
+        return intBytes;
+    }
+
     // -------------------------------------------------------------------------------------
     private static String canSaveFile(String strId, Path pathFile) {
 
@@ -669,7 +1578,50 @@ public class FileContentEditor extends Control {
     }
 
     // -------------------------------------------------------------------------------------
-    private static void renameFileToBackup(String strTabId, Path pathFile) {
+    private static Path createFileTemp(Path pathFile) throws IOException {
+
+        Path pathDir = pathFile.toAbsolutePath().getParent();
+        Path pathFileTemp = Files.createTempFile(pathDir, "." + pathFile.getFileName() + ".", ".tmp");
+        // Temp file is created with owner only permissions, keep permissions of existing file.
+        if (Files.exists(pathFile)) {
+            try {
+                Files.setPosixFilePermissions(pathFileTemp, Files.getPosixFilePermissions(pathFile));
+            } catch (UnsupportedOperationException e) {
+                // Not POSIX File System.
+            }
+        }
+        return pathFileTemp;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static void moveFileTemp(String strTabId, Path pathFileTemp, Path pathFile) throws IOException {
+
+        try {
+            Files.move(pathFileTemp, pathFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            LOGGER.debug("Atomic move is not supported."
+                    + " TabId=\"" + strTabId + "\""
+                    + " pathFile=\"" + pathFile + "\""
+                    + " Exception=\"" + e.toString() + "\"");
+            Files.move(pathFileTemp, pathFile, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static void deleteFileTemp(String strTabId, Path pathFileTemp) {
+
+        try {
+            Files.deleteIfExists(pathFileTemp);
+        } catch (Throwable t) {
+            LOGGER.error("Could not delete temp file."
+                    + " TabId=\"" + strTabId + "\""
+                    + " pathFileTemp=\"" + pathFileTemp + "\""
+                    + " Throwable=\"" + t.toString() + "\"");
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static void backupFile(String strTabId, Path pathFile) {
 
         if (pathFile == null) {
             LOGGER.error("Could not create *bak File for null File."
@@ -794,18 +1746,27 @@ public class FileContentEditor extends Control {
             //fileBackupOld = fileBackup;
             pathFileBackupOld = pathFileBackup;
         }
+        // Hard link keeps old content when temp file is moved over File, copy is used if links are not supported.
         try {
-            //file.renameTo(fileBackup);
-            Files.move(pathFile, pathFileBackup);
+            Files.createLink(pathFileBackup, pathFile);
         } catch (Throwable t) {
-            LOGGER.error("Could not rename File to *.bak File."
+            LOGGER.debug("Could not link File to *.bak File, copy it."
                     + " TabId=\"" + strTabId + "\""
                     + " pathFile=\"" + pathFile + "\""
                     + " pathFileBackup=\"" + pathFileBackup + "\""
                     + " Throwable=\"" + t.toString() + "\"");
-            return;
+            try {
+                Files.copy(pathFile, pathFileBackup, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            } catch (Throwable tc) {
+                LOGGER.error("Could not copy File to *.bak File."
+                        + " TabId=\"" + strTabId + "\""
+                        + " pathFile=\"" + pathFile + "\""
+                        + " pathFileBackup=\"" + pathFileBackup + "\""
+                        + " Throwable=\"" + tc.toString() + "\"");
+                return;
+            }
         }
-        LOGGER.debug("Renamed *.bak File."
+        LOGGER.debug("Created *.bak File."
                 + " TabId=\"" + strTabId + "\""
                 + " pathFile=\"" + pathFile + "\""
                 + " pathFileBackup=\"" + pathFileBackup + "\"");
@@ -846,8 +1807,28 @@ public class FileContentEditor extends Control {
         return this.bpFileModified;
     }
 
-    public StringProperty getFileContent() {
-        return this.spFileContent;
+    public FileContentDocument getDocument() {
+        return this.document;
+    }
+
+    public void setDocument(FileContentDocument document) {
+        if (this.finder != null) {
+            this.finder.dispose();
+        }
+        // Document is replaced on open and reload of file.
+        closeStorage(this.document, document);
+        this.document = document;
+        this.finder = new FileContentFinder(document, (long) Settings.INT_FIND_PARALLEL_SIZE_MIN * INT_BYTES_IN_MB);
+        this.opDocument.set(document);
+        if (this.lngGoToLinePending > 0) {
+            long lngLine = this.lngGoToLinePending;
+            this.lngGoToLinePending = 0;
+            this.goToLine(lngLine, this.lngGoToColumnPending);
+        }
+    }
+
+    public ObjectProperty<FileContentDocument> getOpDocument() {
+        return this.opDocument;
     }
 
     // -------------------------------------------------------------------------------------
@@ -857,6 +1838,7 @@ public class FileContentEditor extends Control {
 
     public void setCharsetNameRead(String strCharsetNameRead) {
         this.strCharsetNameRead = strCharsetNameRead;
+        this.booCharsetDetect = false;
     }
 
     public String getCharsetNameWrite() {
@@ -885,14 +1867,30 @@ public class FileContentEditor extends Control {
         return this.cursorProperty;
     }
 
-    public IntegerProperty getIntCaretPosition() {
-        return this.objIntPropCaretPosition;
+    public LongProperty getLngCaretPosition() {
+        return this.objLngPropCaretPosition;
     }
 
     public ObjectProperty getOpTaskFileLoad() {
         return this.objectPropTaskFileLoad;
     }
 
+    public ObjectProperty getOpTaskFind() {
+        return this.objectPropTaskFind;
+    }
+
+    public ObjectProperty<FileContentBinary> getOpBinary() {
+        return this.opBinary;
+    }
+
+    public LongProperty getLngBinaryCaret() {
+        return this.objLngPropBinaryCaret;
+    }
+
+    public LongProperty getLngBinaryAnchor() {
+        return this.objLngPropBinaryAnchor;
+    }
+
     public ObjectProperty getOpServiceFileSave() {
         return this.objectPropServiceFileSave;
     }
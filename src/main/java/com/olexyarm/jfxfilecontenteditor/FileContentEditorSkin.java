@@ -15,15 +15,12 @@
 package com.olexyarm.jfxfilecontenteditor;
 
 import java.util.concurrent.ExecutionException;
-import javafx.beans.InvalidationListener;
-import javafx.beans.Observable;
 import javafx.beans.property.BooleanProperty;
-import javafx.beans.property.IntegerProperty;
+import javafx.beans.property.LongProperty;
 import javafx.beans.property.ObjectProperty;
 import javafx.beans.property.ReadOnlyBooleanProperty;
-import javafx.beans.property.ReadOnlyIntegerProperty;
 import javafx.beans.property.ReadOnlyObjectProperty;
-import javafx.beans.property.SimpleIntegerProperty;
+import javafx.beans.property.SimpleLongProperty;
 import javafx.beans.property.SimpleObjectProperty;
 import javafx.beans.property.SimpleStringProperty;
 import javafx.beans.property.StringProperty;
@@ -36,10 +33,12 @@ import javafx.concurrent.WorkerStateEvent;
 import javafx.event.EventHandler;
 import javafx.event.EventType;
 import javafx.geometry.Insets;
+import javafx.scene.control.ContextMenu;
 import javafx.scene.control.Label;
+import javafx.scene.control.MenuItem;
 import javafx.scene.control.ProgressBar;
 import javafx.scene.control.SkinBase;
-import javafx.scene.control.TextArea;
+import javafx.scene.control.SeparatorMenuItem;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.Priority;
 import javafx.scene.layout.VBox;
@@ -57,15 +56,19 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
     private final String strFileName;
 
     private final VBox vbox;
-    private final TextArea textArea;
-    private final StringProperty spFileContent;
-    private final InvalidationListener invalidationListenerFileContent;
+    private final FileContentView fileContentView;
+    private final FileContentDocument.EditListener editListenerFileContent;
+    private boolean booEditListenerFileContentEnabled = true;
 
-    private final ReadOnlyIntegerProperty caretPositionProperty;
+    private FileContentDocument document;
+    private final ObjectProperty<FileContentDocument> opDocument = new SimpleObjectProperty<>();
+    private final ChangeListener<FileContentDocument> changeListenerDocument;
+
+    private final LongProperty caretPositionProperty;
     private final ChangeListener<Number> caretChangeListener;
 
-    private final IntegerProperty objIntPropCaretPosition = new SimpleIntegerProperty();
-    private final ChangeListener<Number> objIntPropCaretPositionChangeListener;
+    private final LongProperty objLngPropCaretPosition = new SimpleLongProperty();
+    private final ChangeListener<Number> objLngPropCaretPositionChangeListener;
 
     private final ReadOnlyBooleanProperty focusedProperty;
     private final ChangeListener<Boolean> focusedPropertyChangeListener;
@@ -79,6 +82,11 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
     private final ObjectProperty objectPropTaskFileLoad = new SimpleObjectProperty();
     private final ChangeListener<Task> changeListenerTaskFileLoad;
     private Task taskFileLoad;
+    // Part of file is shown while it is loading, loaded Document continues it.
+    private boolean booDocumentLoadingShown = false;
+
+    private final ObjectProperty objectPropTaskFind = new SimpleObjectProperty();
+    private final ChangeListener<Task> changeListenerTaskFind;
 
     private final ObjectProperty objectPropServiceFileSave = new SimpleObjectProperty();
     private final ChangeListener<Service> changeListenerService;
@@ -87,6 +95,11 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
     private final StringProperty objStrPropFileState = new SimpleStringProperty();
     private final ChangeListener<String> changeListenerFileStatus;
 
+    // Binary file is shown in hex view in place of text view.
+    private FileContentHexView hexView;
+    private final ObjectProperty<FileContentBinary> opBinary = new SimpleObjectProperty<>();
+    private final ChangeListener<FileContentBinary> changeListenerBinary;
+
     private Font font;
     private final ObjectProperty opFont = new SimpleObjectProperty();
     private final ChangeListener<Font> changeListenerObjPropFont;
@@ -102,7 +115,6 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
 
         this.strId = control.getId();
         this.strFileName = control.getFileName();
-        this.spFileContent = control.getFileContent();
 
         LOGGER.debug("FileContentEditorSkin constructor start."
                 + " Id=\"" + this.strId + "\""
@@ -111,9 +123,8 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
         // ---------- initGraphics - begin -----------------------------------------------------
         this.vbox = new VBox();
 
-        this.textArea = new TextArea();
-        this.textArea.setPromptText("Enter Text here.");
-        this.textArea.textProperty().bindBidirectional(this.spFileContent);
+        this.fileContentView = new FileContentView();
+        this.fileContentView.setContextMenu(this.createContextMenu());
         this.font = control.getFont();
         if (this.font == null) {
             LOGGER.debug("Font is not set, use default."
@@ -121,9 +132,9 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
                     + " font=\"" + this.font + "\"");
             this.font = Font.getDefault();
         }
-        this.textArea.setFont(font);
+        this.fileContentView.setFont(font);
 
-        VBox.setVgrow(this.textArea, Priority.ALWAYS);
+        VBox.setVgrow(this.fileContentView, Priority.ALWAYS);
 
         this.hboxState = new HBox();
         Insets insHboxPadd = new Insets(5, 5, 5, 20);
@@ -141,10 +152,10 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
 
         this.hboxState.getChildren().addAll(this.lblFileState, this.lblFileName, this.progressBar);
 
-        this.vbox.getChildren().addAll(this.textArea, this.hboxState);
+        this.vbox.getChildren().addAll(this.fileContentView, this.hboxState);
 
         this.getChildren().addAll(this.vbox);
-        this.textArea.requestFocus();
+        this.fileContentView.requestFocus();
 
         // ---------- initGraphics - end -------------------------------------------------------
         // ---------- registerListeners - begin ------------------------------------------------
@@ -160,26 +171,31 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
         };
         this.bpHboxStateVisibility.addListener(HboxStateVisibilityChangeListener);
 
-        this.invalidationListenerFileContent = new InvalidationListener() {
+        this.editListenerFileContent = new FileContentDocument.EditListener() {
             @Override
-            public void invalidated(Observable o) {
+            public void edited(long lngPos, long lngLenRemoved, long lngLenInserted) {
+                if (!booEditListenerFileContentEnabled) {
+                    return;
+                }
                 control.getFileModified().set(true);
                 if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("The FileContent binding is invalid."
+                    LOGGER.debug("The FileContent is edited."
                             + " Id=\"" + strId + "\""
                             + " FileName=\"" + strFileName + "\""
-                            + " Observable=\"" + o + "\"");
+                            + " Pos=" + lngPos
+                            + " LenRemoved=" + lngLenRemoved
+                            + " LenInserted=" + lngLenInserted);
                 }
             }
         };
 
         // -------------------------------------------------------------------------------------
-        this.caretPositionProperty = this.textArea.caretPositionProperty();
+        this.caretPositionProperty = this.fileContentView.caretPositionProperty();
         this.caretChangeListener = new ChangeListener<Number>() {
             @Override
             public void changed(ObservableValue<? extends Number> observable, Number oldNumberValue, Number newNumberValue) {
                 bpHboxStateVisibility.set(false);
-                objIntPropCaretPosition.set(newNumberValue.intValue());
+                objLngPropCaretPosition.set(newNumberValue.longValue());
                 LOGGER.debug("caretChangeListener."
                         + " Id=\"" + strId + "\""
                         + " FileName=\"" + strFileName + "\""
@@ -189,40 +205,61 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
         };
         this.caretPositionProperty.addListener(this.caretChangeListener);
 
-        this.objIntPropCaretPositionChangeListener = new ChangeListener<Number>() {
+        this.objLngPropCaretPositionChangeListener = new ChangeListener<Number>() {
             @Override
             public void changed(ObservableValue<? extends Number> observable, Number oldNumberValue, Number newNumberValue) {
-                int intCaretPositionNew = newNumberValue.intValue();
-                textArea.positionCaret(intCaretPositionNew);
-                textArea.requestFocus();
-                LOGGER.debug("objIntPropCaretPositionChangeListener."
+                long lngCaretPositionNew = newNumberValue.longValue();
+                if (lngCaretPositionNew == caretPositionProperty.get()) {
+                    // Caret is moved by view itself (selection keeps its anchor), only moves from outside are set to view.
+                    return;
+                }
+                fileContentView.positionCaret(lngCaretPositionNew);
+                fileContentView.requestFocus();
+                LOGGER.debug("objLngPropCaretPositionChangeListener."
                         + " Id=\"" + strId + "\""
                         + " FileName=\"" + strFileName + "\""
                         + " observable=" + observable
                         + " oldNumberValue=" + oldNumberValue + " newNumberValue=" + newNumberValue);
             }
         };
-        this.objIntPropCaretPosition.addListener(objIntPropCaretPositionChangeListener);
-        control.getIntCaretPosition().bindBidirectional(this.objIntPropCaretPosition);
+        this.objLngPropCaretPosition.addListener(objLngPropCaretPositionChangeListener);
+        control.getLngCaretPosition().bindBidirectional(this.objLngPropCaretPosition);
 
         // -------------------------------------------------------------------------------------
         this.focusedPropertyChangeListener = new ChangeListener<Boolean>() {
             @Override
             public void changed(ObservableValue<? extends Boolean> observable, Boolean oldValue, Boolean newValue) {
                 bpHboxStateVisibility.set(false);
-                int intCaretPosition = caretPositionProperty.getValue();
+                long lngCaretPosition = caretPositionProperty.getValue();
                 LOGGER.debug("focusedPropertyChangeListener."
                         + " Id=\"" + strId + "\""
                         + " FileName=\"" + strFileName + "\""
-                        + " CaretPosition=\"" + intCaretPosition + "\""
+                        + " CaretPosition=\"" + lngCaretPosition + "\""
                         + " observable=" + observable
                         + " oldValue=" + oldValue + " newValue=" + newValue);
+                // File could be changed outside of editor while other tab or application was active.
+                if (newValue) {
+                    control.checkFileChanged();
+                }
             }
         };
-        this.focusedProperty = this.textArea.focusedProperty();
+        this.focusedProperty = this.fileContentView.focusedProperty();
         this.focusedProperty.addListener(this.focusedPropertyChangeListener);
 
-        this.textArea.textProperty().addListener(this.invalidationListenerFileContent);
+        // -------------------------------------------------------------------------------------
+        this.opDocument.bind(control.getOpDocument());
+        this.changeListenerDocument = new ChangeListener<FileContentDocument>() {
+            @Override
+            public void changed(ObservableValue<? extends FileContentDocument> observable, FileContentDocument oldValue, FileContentDocument newValue) {
+                LOGGER.debug("changeListenerDocument."
+                        + " Id=\"" + strId + "\""
+                        + " oldValue=\"" + oldValue + "\""
+                        + " newValue=\"" + newValue + "\"");
+                setDocument(newValue);
+            }
+        };
+        this.opDocument.addListener(this.changeListenerDocument);
+        this.setDocument(this.opDocument.getValue());
 
         // -------------------------------------------------------------------------------------
         this.objectPropTaskFileLoad.bind(control.getOpTaskFileLoad());
@@ -243,6 +280,45 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
 
         this.processTask();
 
+        // -------------------------------------------------------------------------------------
+        // Find Task progress is shown in state box, handlers are added so Task owner keeps its own On handlers.
+        this.objectPropTaskFind.bind(control.getOpTaskFind());
+        this.changeListenerTaskFind = new ChangeListener<Task>() {
+            @Override
+            public void changed(ObservableValue<? extends Task> observable, Task oldValue, Task newValue) {
+                LOGGER.debug("changeListenerTaskFind Got Task."
+                        + " Id=\"" + strId + "\""
+                        + " oldValue=\"" + oldValue + "\"" + " newValue=\"" + newValue + "\"");
+                if (newValue == null) {
+                    return;
+                }
+                final Task taskFind = newValue;
+                EventHandler<WorkerStateEvent> eventHandlerFindDone = new EventHandler<WorkerStateEvent>() {
+                    @Override
+                    public void handle(WorkerStateEvent event) {
+                        if (progressBar.progressProperty().isBound() && objectPropTaskFind.getValue() == taskFind) {
+                            progressBar.progressProperty().unbind();
+                            lblFileState.textProperty().unbind();
+                            bpHboxStateVisibility.set(false);
+                        }
+                        LOGGER.debug("Find Task done."
+                                + " Id=\"" + strId + "\""
+                                + " eventType=\"" + event.getEventType() + "\"");
+                    }
+                };
+                taskFind.addEventHandler(WorkerStateEvent.WORKER_STATE_SUCCEEDED, eventHandlerFindDone);
+                taskFind.addEventHandler(WorkerStateEvent.WORKER_STATE_FAILED, eventHandlerFindDone);
+                taskFind.addEventHandler(WorkerStateEvent.WORKER_STATE_CANCELLED, eventHandlerFindDone);
+
+                progressBar.progressProperty().unbind();
+                lblFileState.textProperty().unbind();
+                progressBar.progressProperty().bind(taskFind.progressProperty());
+                lblFileState.textProperty().bind(taskFind.messageProperty());
+                bpHboxStateVisibility.set(true);
+            }
+        };
+        this.objectPropTaskFind.addListener(this.changeListenerTaskFind);
+
         // -------------------------------------------------------------------------------------
         this.objectPropServiceFileSave.bindBidirectional(control.getOpServiceFileSave());
         this.changeListenerService = new ChangeListener<Service>() {
@@ -277,7 +353,7 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
                 serviceFileSave.onScheduledProperty().set(new EventHandler<WorkerStateEvent>() {
                     @Override
                     public void handle(WorkerStateEvent event) {
-                        textArea.textProperty().removeListener(invalidationListenerFileContent);
+                        // Edit listener stays on, content edited while file is saving is marked modified.
                         caretPositionProperty.removeListener(caretChangeListener);
                         focusedProperty.removeListener(focusedPropertyChangeListener);
 
@@ -312,11 +388,11 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
                 serviceFileSave.onFailedProperty().set(new EventHandler<WorkerStateEvent>() {
                     @Override
                     public void handle(WorkerStateEvent event) {
-                        textArea.textProperty().addListener(invalidationListenerFileContent);
                         caretPositionProperty.addListener(caretChangeListener);
                         focusedProperty.addListener(focusedPropertyChangeListener);
 
-                        control.getFileModified().set(false);
+                        // File is not saved, content stays modified.
+                        control.getFileModified().set(true);
                         EventType eventType = event.getEventType();
                         LOGGER.debug("onFailedProperty serviceFileSave."
                                 + " Id=\"" + strId + "\""
@@ -328,11 +404,11 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
                 serviceFileSave.onSucceededProperty().set(new EventHandler<WorkerStateEvent>() {
                     @Override
                     public void handle(WorkerStateEvent event) {
-                        textArea.textProperty().addListener(invalidationListenerFileContent);
                         caretPositionProperty.addListener(caretChangeListener);
                         focusedProperty.addListener(focusedPropertyChangeListener);
 
-                        control.getFileModified().set(false);
+                        // Content edited while file was saving is not in file.
+                        control.getFileModified().set(control.isEditedSinceSave());
                         ReadOnlyObjectProperty<Worker.State> stateProperty = serviceFileSave.stateProperty();
                         Worker.State state = stateProperty.getValue();
                         String stateName = state.name();
@@ -386,18 +462,36 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
                         + " newValue=\"" + newValue + "\""
                 );
                 font = newValue;
-                textArea.setFont(font);
+                fileContentView.setFont(font);
+                if (hexView != null) {
+                    hexView.setFont(font);
+                }
             }
         };
         this.opFont.addListener(this.changeListenerObjPropFont);
 
+        // -------------------------------------------------------------------------------------
+        this.opBinary.bind(control.getOpBinary());
+        this.changeListenerBinary = new ChangeListener<FileContentBinary>() {
+            @Override
+            public void changed(ObservableValue<? extends FileContentBinary> observable, FileContentBinary oldValue, FileContentBinary newValue) {
+                LOGGER.debug("changeListenerBinary."
+                        + " Id=\"" + strId + "\""
+                        + " oldValue=\"" + oldValue + "\""
+                        + " newValue=\"" + newValue + "\"");
+                setBinary(newValue);
+            }
+        };
+        this.opBinary.addListener(this.changeListenerBinary);
+        this.setBinary(this.opBinary.getValue());
+
         // -------------------------------------------------------------------------------------
         LOGGER.debug("FileContentEditorSkin constructor finish."
                 + " Id=\"" + strId + "\""
                 + " FileName=\"" + strFileName + "\"");
         /* 
         // For test only
-        this.textArea.setOnKeyTyped(new EventHandler<Event>() {
+        this.fileContentView.setOnKeyTyped(new EventHandler<Event>() {
             @Override
             public void handle(Event event) {
                 EventType eventType = event.getEventType();
@@ -406,11 +500,53 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
             }
         });
          */
-        // TODO: add this: this.textArea.contextMenuProperty()
     }
 
     // -------------------------------------------------------------------------------------
     // Methods
+    // -------------------------------------------------------------------------------------
+    private void setDocument(FileContentDocument documentNew) {
+
+        if (this.document != null) {
+            this.document.removeEditListener(this.editListenerFileContent);
+        }
+        this.document = documentNew;
+        if (this.document == null) {
+            return;
+        }
+        this.document.addEditListener(this.editListenerFileContent);
+        this.fileContentView.setDocument(this.document, this.booDocumentLoadingShown);
+        this.booDocumentLoadingShown = false;
+        this.fileContentView.editableProperty().set(true);
+    }
+
+    // -------------------------------------------------------------------------------------
+    private ContextMenu createContextMenu() {
+
+        MenuItem menuItemUndo = new MenuItem("Undo");
+        menuItemUndo.setOnAction(e -> fileContentView.undo());
+        MenuItem menuItemRedo = new MenuItem("Redo");
+        menuItemRedo.setOnAction(e -> fileContentView.redo());
+        MenuItem menuItemCut = new MenuItem("Cut");
+        menuItemCut.setOnAction(e -> fileContentView.cut());
+        MenuItem menuItemCopy = new MenuItem("Copy");
+        menuItemCopy.setOnAction(e -> fileContentView.copy());
+        MenuItem menuItemPaste = new MenuItem("Paste");
+        menuItemPaste.setOnAction(e -> fileContentView.paste());
+        MenuItem menuItemDelete = new MenuItem("Delete");
+        menuItemDelete.setOnAction(e -> fileContentView.deleteSelection());
+        MenuItem menuItemSelectAll = new MenuItem("Select All");
+        menuItemSelectAll.setOnAction(e -> fileContentView.selectAll());
+
+        ContextMenu contextMenu = new ContextMenu(menuItemUndo, menuItemRedo, new SeparatorMenuItem(),
+                menuItemCut, menuItemCopy, menuItemPaste, menuItemDelete, new SeparatorMenuItem(), menuItemSelectAll);
+        contextMenu.setOnShowing(e -> {
+            menuItemUndo.setDisable(document == null || !document.canUndo());
+            menuItemRedo.setDisable(document == null || !document.canRedo());
+        });
+        return contextMenu;
+    }
+
     // -------------------------------------------------------------------------------------
     private void processTask() {
 
@@ -431,11 +567,27 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
                     + " stateName=\"" + stateName + "\""
             );
 
+            // Loaded part of file is shown read-only, editing is enabled when file is loaded.
+            this.taskFileLoad.valueProperty().addListener(new ChangeListener<FileContentDocument>() {
+                @Override
+                public void changed(ObservableValue<? extends FileContentDocument> observable, FileContentDocument oldValue, FileContentDocument newValue) {
+                    if (newValue == null) {
+                        return;
+                    }
+                    fileContentView.setDocument(newValue, booDocumentLoadingShown);
+                    fileContentView.editableProperty().set(false);
+                    booDocumentLoadingShown = true;
+                    LOGGER.debug("Showing loading Document."
+                            + " Id=\"" + strId + "\""
+                            + " Length=" + newValue.length());
+                }
+            });
+
             this.taskFileLoad.onScheduledProperty().set(new EventHandler<WorkerStateEvent>() {
                 @Override
                 public void handle(WorkerStateEvent event) {
                     EventType eventType = event.getEventType();
-                    textArea.textProperty().removeListener(invalidationListenerFileContent);
+                    booEditListenerFileContentEnabled = false;
                     LOGGER.debug("onScheduledProperty."
                             + " Id=\"" + strId + "\""
                             + " eventType=\"" + eventType + "\""
@@ -461,8 +613,10 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
                     String strErrMsg = lblFileState.textProperty().getValue()
                             + "\nFile=" + lblFileName.getText()
                             + "\nTry to Open File with different Charset or Open File Binary.";
-                    textArea.setText(strErrMsg);
-                    textArea.setEditable(false);
+                    // Error message is shown in view only, Document of control stays empty.
+                    fileContentView.setDocument(new FileContentDocument(strErrMsg));
+                    fileContentView.editableProperty().set(false);
+                    booDocumentLoadingShown = false;
                     lblFileState.textProperty().unbind();
                     control.getFileModified().set(false);
                     EventType eventType = event.getEventType();
@@ -481,23 +635,23 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
                     Worker.State state = stateProperty.getValue();
                     String stateName = state.name();
                     EventType eventType = event.getEventType();
-                    String strText;
-                    int intTextLen = 0;
+                    FileContentDocument documentLoaded;
+                    long lngTextLen = 0;
                     try {
-                        strText = (String) taskFileLoad.get();
+                        documentLoaded = (FileContentDocument) taskFileLoad.get();
                     } catch (InterruptedException | ExecutionException ex) {
                         LOGGER.error("onSucceededProperty."
                                 + " Id=\"" + strId + "\""
                                 + " Exception=\"" + ex.toString() + "\"");
-                        strText = "";
+                        documentLoaded = new FileContentDocument("");
                     }
                     // TODO: filter text!!!
                     int intTextLogLimit = 500;
                     String strTextPart = "";
-                    if (strText != null) {
-                        intTextLen = strText.length();
-                        int intTrim = Math.min(intTextLen, intTextLogLimit);
-                        strTextPart = strText.substring(0, intTrim) + "\n...";
+                    if (documentLoaded != null) {
+                        lngTextLen = documentLoaded.length();
+                        long lngTrim = Math.min(lngTextLen, intTextLogLimit);
+                        strTextPart = documentLoaded.getText(0, lngTrim) + "\n...";
                     }
                     LOGGER.debug("onSucceededProperty got File content."
                             + " Id=\"" + strId + "\""
@@ -505,21 +659,21 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
                             + " stateProperty=\"" + stateProperty + "\""
                             + " state=\"" + state + "\""
                             + " stateName=\"" + stateName + "\""
-                            + "\nintTextLen=\"" + intTextLen + "\""
+                            + "\nlngTextLen=\"" + lngTextLen + "\""
                             + "\nstrText=\"" + strTextPart + "\""
                     );
                     event.consume();
-                    textArea.setText(strText);
-                    textArea.textProperty().addListener(invalidationListenerFileContent);
+                    control.setDocument(documentLoaded);
+                    booEditListenerFileContentEnabled = true;
                     String strMsg = taskFileLoad.getMessage();
                     lblFileState.textProperty().unbind();
                     control.getFileModified().set(false);
-                    LOGGER.debug("onSucceededProperty set text to textArea."
+                    LOGGER.debug("onSucceededProperty set Document to view."
                             + " Id=\"" + strId + "\""
                             + " eventType=\"" + eventType + "\""
                             + " event=\"" + event + "\""
                             + "\nstrMsg=\"" + strMsg + "\""
-                            + "\nintTextLen=\"" + intTextLen + "\""
+                            + "\nlngTextLen=\"" + lngTextLen + "\""
                     + "\nstrText=\"" + strTextPart + "\""
                     );
                 }
@@ -527,26 +681,67 @@ public class FileContentEditorSkin extends SkinBase<FileContentEditor> {
         }
     }
 
+    // -------------------------------------------------------------------------------------
+    private void setBinary(FileContentBinary binary) {
+
+        if (binary == null) {
+            return;
+        }
+        if (this.hexView == null) {
+            this.hexView = new FileContentHexView();
+            this.hexView.setFont(this.font);
+            this.hexView.setEditListener(new FileContentHexView.EditListener() {
+                @Override
+                public void edited(long lngPos) {
+                    control.getFileModified().set(true);
+                    if (LOGGER.isDebugEnabled()) {
+                        LOGGER.debug("The binary FileContent is edited."
+                                + " Id=\"" + strId + "\""
+                                + " Pos=" + lngPos);
+                    }
+                }
+            });
+            this.hexView.caretPositionProperty().bindBidirectional(this.control.getLngBinaryCaret());
+            this.hexView.anchorProperty().bindBidirectional(this.control.getLngBinaryAnchor());
+            VBox.setVgrow(this.hexView, Priority.ALWAYS);
+            this.vbox.getChildren().set(0, this.hexView);
+        }
+        this.hexView.setBinary(binary);
+        this.hexView.editableProperty().set(!binary.isReadOnly());
+        this.hexView.requestFocus();
+    }
+
     // -------------------------------------------------------------------------------------
     @Override
     public void dispose() {
 
-        this.textArea.textProperty().unbind();
+        this.opDocument.removeListener(this.changeListenerDocument);
+        this.opDocument.unbind();
+        if (this.document != null) {
+            this.document.removeEditListener(this.editListenerFileContent);
+        }
         this.bpHboxStateVisibility.unbind();
         this.hboxState.managedProperty().unbind();
-        this.control.getIntCaretPosition().unbind();
+        this.control.getLngCaretPosition().unbindBidirectional(this.objLngPropCaretPosition);
         this.objectPropTaskFileLoad.unbind();
+        this.objectPropTaskFind.removeListener(this.changeListenerTaskFind);
+        this.objectPropTaskFind.unbind();
         this.progressBar.progressProperty().unbind();
         this.lblFileState.textProperty().unbind();
         this.objectPropServiceFileSave.unbind();
         this.opFont.unbind();
 
         this.caretPositionProperty.removeListener(this.caretChangeListener);
-        this.objIntPropCaretPosition.removeListener(objIntPropCaretPositionChangeListener);
+        this.objLngPropCaretPosition.removeListener(objLngPropCaretPositionChangeListener);
         this.focusedProperty.removeListener(this.focusedPropertyChangeListener);
-        this.textArea.textProperty().removeListener(this.invalidationListenerFileContent);
         this.objectPropServiceFileSave.removeListener(this.changeListenerService);
         this.opFont.removeListener(this.changeListenerObjPropFont);
+        this.opBinary.removeListener(this.changeListenerBinary);
+        this.opBinary.unbind();
+        if (this.hexView != null) {
+            this.hexView.caretPositionProperty().unbindBidirectional(this.control.getLngBinaryCaret());
+            this.hexView.anchorProperty().unbindBidirectional(this.control.getLngBinaryAnchor());
+        }
 
         super.dispose();
 
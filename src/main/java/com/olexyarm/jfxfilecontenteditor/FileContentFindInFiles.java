@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.io.IOException;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Search of pattern in many documents: Documents of open tabs and files of directory tree.
+// Files are mapped and decoded in virtual threads without opening editors,
+// number of files read at the same time is limited, so disk is not oversubscribed.
+public class FileContentFindInFiles {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileContentFindInFiles.class);
+
+    private static final int INT_HITS_PER_FILE_MAX = 1000;
+    private static final int INT_LINE_TEXT_LENGTH_MAX = 200;
+    private static final int INT_FILE_MAPPED_REGION_SIZE = 256 * 1024 * 1024;
+    private static final int INT_CHARS_BUFFER_SIZE = 64 * 1024;
+
+    private final FileContentSearchPattern pattern;
+    private final int intThreads;
+    private final long lngFileSizeMax;
+
+    // -------------------------------------------------------------------------------------
+    public interface ResultListener {
+
+        // Called from search threads for every file with matches.
+        void found(Result result);
+
+        // Called from search threads after file is searched.
+        default void searched(Path pathFile, int intFilesSearched) {
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentFindInFiles(FileContentSearchPattern pattern, int intThreads, long lngFileSizeMax) {
+
+        this.pattern = pattern;
+        this.intThreads = Math.max(1, intThreads);
+        this.lngFileSizeMax = lngFileSizeMax;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    public FileContentSearchPattern getPattern() {
+        return this.pattern;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Search in Document of open tab, snapshot should be taken on FX thread, search could be done in any thread.
+    // Returns null if nothing found.
+    public Result searchDocument(Path pathFile, String strTabId, FileContentDocument.Snapshot snapshot) {
+
+        FileContentLineIndex lineIndex = FileContentArrayLineIndex.build(snapshot);
+        return this.search(pathFile, strTabId, snapshot, lineIndex);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Search in file without editor, file is mapped by regions and decoded into storage.
+    // Returns null if nothing found or file is binary.
+    public Result searchFile(Path pathFile, Charset charset) throws IOException {
+
+        long lngFileSize = Files.size(pathFile);
+        if (lngFileSize == 0) {
+            return null;
+        }
+        CharsetDecoder cd = charset.newDecoder();
+        cd.onMalformedInput(CodingErrorAction.REPLACE);
+        cd.onUnmappableCharacter(CodingErrorAction.REPLACE);
+        boolean booBinaryCheck = !charset.name().startsWith("UTF-16") && !charset.name().startsWith("UTF-32");
+
+        FileContentChunkStorage storage = new FileContentChunkStorage();
+        FileContentArrayLineIndex lineIndex = new FileContentArrayLineIndex();
+        try (FileChannel fileChannel = FileChannel.open(pathFile, StandardOpenOption.READ)) {
+            CharBuffer charBuffer = CharBuffer.allocate(INT_CHARS_BUFFER_SIZE);
+            long lngRegionPos = 0;
+            while (true) {
+                long lngRegionSize = Math.min(INT_FILE_MAPPED_REGION_SIZE, lngFileSize - lngRegionPos);
+                boolean booEndOfInput = lngRegionPos + lngRegionSize >= lngFileSize;
+                MappedByteBuffer mbb = fileChannel.map(FileChannel.MapMode.READ_ONLY, lngRegionPos, lngRegionSize);
+                if (lngRegionPos == 0 && booBinaryCheck && FileContentBinary.isBinary(mbb)) {
+                    LOGGER.debug("Skipped binary file."
+                            + " pathFile=\"" + pathFile + "\"");
+                    return null;
+                }
+                CoderResult coderResult;
+                do {
+                    coderResult = cd.decode(mbb, charBuffer, booEndOfInput);
+                    appendChars(charBuffer, storage, lineIndex);
+                } while (coderResult.isOverflow());
+                if (booEndOfInput) {
+                    while (cd.flush(charBuffer).isOverflow()) {
+                        appendChars(charBuffer, storage, lineIndex);
+                    }
+                    appendChars(charBuffer, storage, lineIndex);
+                    break;
+                }
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Search cancelled.");
+                }
+                // Not decoded bytes at the end of region (partial character) are mapped again with next region.
+                lngRegionPos += mbb.position();
+            }
+        }
+        lineIndex.scanFinish();
+        FileContentDocument document = new FileContentDocument(storage, lineIndex);
+        return this.search(pathFile, null, document.snapshot(), lineIndex);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Search in files of directory tree, hidden directories and files from setPathsSkip (open tabs) are skipped.
+    // Every file is searched in own virtual thread, at most intThreads files are searched at the same time.
+    // Charset of every file is detected as on file open, charsetDefault is used for files with only ASCII sample.
+    // Returns number of searched files.
+    public int searchDirectory(Path pathDir, final Set<Path> setPathsSkip, final Charset charsetDefault,
+            final ResultListener resultListener) throws IOException, InterruptedException {
+
+        final FileContentCharsetDetector charsetDetector = new FileContentCharsetDetector(Settings.INT_CHARSET_DETECT_SAMPLE_SIZE * 1024);
+        final Semaphore semaphore = new Semaphore(this.intThreads);
+        final AtomicInteger intFilesSearched = new AtomicInteger();
+        final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        long lngTimeStart = System.nanoTime();
+        try {
+            Files.walkFileTree(pathDir, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path pathSubDir, BasicFileAttributes attrs) {
+                    if (!pathSubDir.equals(pathDir) && pathSubDir.getFileName().toString().startsWith(".")) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(final Path pathFile, BasicFileAttributes attrs) {
+                    if (!attrs.isRegularFile() || attrs.size() > lngFileSizeMax
+                            || setPathsSkip.contains(pathFile.toAbsolutePath().normalize())) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    try {
+                        semaphore.acquire();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return FileVisitResult.TERMINATE;
+                    }
+                    executor.submit(new Runnable() {
+                        @Override
+                        public void run() {
+                            try {
+                                Charset charset = detectCharset(charsetDetector, pathFile, charsetDefault);
+                                Result result = searchFile(pathFile, charset);
+                                if (result != null) {
+                                    resultListener.found(result);
+                                }
+                            } catch (CancellationException e) {
+                                return;
+                            } catch (Throwable t) {
+                                LOGGER.debug("Could not search in file."
+                                        + " pathFile=\"" + pathFile + "\""
+                                        + " Throwable=\"" + t.toString() + "\"");
+                            } finally {
+                                semaphore.release();
+                            }
+                            resultListener.searched(pathFile, intFilesSearched.incrementAndGet());
+                        }
+                    });
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path pathFile, IOException e) {
+                    LOGGER.debug("Could not visit file."
+                            + " pathFile=\"" + pathFile + "\""
+                            + " IOException=\"" + e.toString() + "\"");
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException("Search cancelled.");
+            }
+            executor.shutdown();
+            while (!executor.awaitTermination(1, TimeUnit.SECONDS)) {
+                LOGGER.debug("Waiting for search in files."
+                        + " pathDir=\"" + pathDir + "\""
+                        + " FilesSearched=" + intFilesSearched.get());
+            }
+        } finally {
+            // Cancelled search interrupts all file threads.
+            executor.shutdownNow();
+        }
+        LOGGER.info("Search in files time."
+                + " pathDir=\"" + pathDir + "\""
+                + " " + this.pattern
+                + " Threads=" + this.intThreads
+                + " FilesSearched=" + intFilesSearched.get()
+                + " TimeMs=" + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - lngTimeStart));
+        return intFilesSearched.get();
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------------------
+    private static Charset detectCharset(FileContentCharsetDetector charsetDetector, Path pathFile, Charset charsetDefault) {
+
+        String strCharsetName;
+        try {
+            strCharsetName = charsetDetector.detect(pathFile);
+        } catch (Throwable t) {
+            LOGGER.debug("Could not detect charset."
+                    + " pathFile=\"" + pathFile + "\""
+                    + " Throwable=\"" + t.toString() + "\"");
+            return charsetDefault;
+        }
+        if (strCharsetName == null || !Charset.isSupported(strCharsetName)) {
+            // Only ASCII characters in sample, default charset fits.
+            return charsetDefault;
+        }
+        return Charset.forName(strCharsetName);
+    }
+
+    // -------------------------------------------------------------------------------------
+    private Result search(Path pathFile, String strTabId, final FileContentDocument.Snapshot snapshot,
+            final FileContentLineIndex lineIndex) {
+
+        final List<Hit> lstHits = new ArrayList<>();
+        final AtomicInteger intCount = new AtomicInteger();
+        this.pattern.findAll(snapshot, 0, snapshot.length(), new FileContentSearchPattern.MatchListener() {
+            @Override
+            public void found(long lngStart, long lngEnd) {
+                if (intCount.incrementAndGet() <= INT_HITS_PER_FILE_MAX) {
+                    lstHits.add(createHit(snapshot, lineIndex, lngStart, lngEnd));
+                }
+            }
+        });
+        if (intCount.get() == 0) {
+            return null;
+        }
+        return new Result(pathFile, strTabId, lstHits, intCount.get());
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static Hit createHit(FileContentDocument.Snapshot snapshot, FileContentLineIndex lineIndex, long lngStart, long lngEnd) {
+
+        int intLine = lineIndex.getLineOfOffset(lngStart);
+        long lngLineStart = lineIndex.getLineStart(intLine);
+        long lngLineEnd = snapshot.length();
+        if (intLine + 1 < lineIndex.getLineCount()) {
+            lngLineEnd = lineIndex.getLineStart(intLine + 1);
+        }
+        int intTextLen = (int) Math.min(INT_LINE_TEXT_LENGTH_MAX, lngLineEnd - lngLineStart);
+        char[] arrText = new char[intTextLen];
+        snapshot.getChars(lngLineStart, lngLineStart + intTextLen, arrText, 0);
+        while (intTextLen > 0 && (arrText[intTextLen - 1] == '\n' || arrText[intTextLen - 1] == '\r')) {
+            intTextLen--;
+        }
+        return new Hit(lngStart, lngEnd, intLine + 1, lngStart - lngLineStart, new String(arrText, 0, intTextLen));
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static void appendChars(CharBuffer charBuffer, FileContentChunkStorage storage, FileContentArrayLineIndex lineIndex) {
+
+        charBuffer.flip();
+        char[] arrChars = charBuffer.array();
+        int intFrom = charBuffer.arrayOffset() + charBuffer.position();
+        int intTo = intFrom + charBuffer.remaining();
+        storage.append(arrChars, intFrom, intTo);
+        lineIndex.scan(arrChars, intFrom, intTo);
+        charBuffer.clear();
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Matches found in one file, only first INT_HITS_PER_FILE_MAX matches are kept.
+    public static final class Result {
+
+        private final Path pathFile;
+        private final String strTabId;
+        private final List<Hit> lstHits;
+        private final int intCount;
+
+        private Result(Path pathFile, String strTabId, List<Hit> lstHits, int intCount) {
+
+            this.pathFile = pathFile;
+            this.strTabId = strTabId;
+            this.lstHits = Collections.unmodifiableList(lstHits);
+            this.intCount = intCount;
+        }
+
+        public Path getPathFile() {
+            return this.pathFile;
+        }
+
+        // Id of tab for open Document, null for file.
+        public String getTabId() {
+            return this.strTabId;
+        }
+
+        public List<Hit> getHits() {
+            return this.lstHits;
+        }
+
+        public int getCount() {
+            return this.intCount;
+        }
+
+        @Override
+        public String toString() {
+            String strCount = "" + this.intCount;
+            if (this.intCount > this.lstHits.size()) {
+                strCount = this.lstHits.size() + " of " + this.intCount;
+            }
+            return this.pathFile + " (" + strCount + ")";
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Match with line number (starts from 1), column in line and text of line.
+    public static final class Hit {
+
+        private final long lngStart;
+        private final long lngEnd;
+        private final int intLine;
+        private final long lngColumn;
+        private final String strLineText;
+
+        private Hit(long lngStart, long lngEnd, int intLine, long lngColumn, String strLineText) {
+
+            this.lngStart = lngStart;
+            this.lngEnd = lngEnd;
+            this.intLine = intLine;
+            this.lngColumn = lngColumn;
+            this.strLineText = strLineText;
+        }
+
+        public long getStart() {
+            return this.lngStart;
+        }
+
+        public long getEnd() {
+            return this.lngEnd;
+        }
+
+        public int getLine() {
+            return this.intLine;
+        }
+
+        public long getColumn() {
+            return this.lngColumn;
+        }
+
+        public String getLineText() {
+            return this.strLineText;
+        }
+
+        @Override
+        public String toString() {
+            return this.intLine + ": " + this.strLineText;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+}
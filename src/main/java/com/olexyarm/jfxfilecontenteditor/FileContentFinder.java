@@ -0,0 +1,468 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Sorted offsets of all matches of search pattern in Document.
+// Index is built once per pattern and Document version and updated on Document edits (literal patterns),
+// so repeated Find only searches in index. Index could be built in background thread while Document is edited.
+public class FileContentFinder {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileContentFinder.class);
+
+    private static final int INT_MATCHES_CAPACITY_MIN = 16;
+    private static final int INT_PARALLEL_CHUNK_SIZE_MIN = 1024 * 1024;
+    private static final int INT_PARALLEL_CHUNKS_PER_THREAD = 4;
+
+    private final FileContentDocument document;
+    private final FileContentDocument.EditListener editListener;
+    // Document of this length or longer is searched by chunks in parallel.
+    private final long lngParallelLengthMin;
+
+    // Index is immutable, it is replaced on edits.
+    private volatile Index index;
+
+    // -------------------------------------------------------------------------------------
+    public interface ProgressListener {
+
+        // Called from search threads while index is built.
+        void progress(long lngSearched, int intFound);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentFinder(FileContentDocument document, long lngParallelLengthMin) {
+
+        this.document = document;
+        this.lngParallelLengthMin = lngParallelLengthMin;
+        this.editListener = new FileContentDocument.EditListener() {
+            @Override
+            public void edited(long lngPos, long lngLenRemoved, long lngLenInserted) {
+                FileContentFinder.this.edited(lngPos, lngLenRemoved, lngLenInserted);
+            }
+        };
+        this.document.addEditListener(this.editListener);
+    }
+
+    // -------------------------------------------------------------------------------------
+    public void dispose() {
+
+        this.document.removeEditListener(this.editListener);
+        this.index = null;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    // Matches do not overlap, literal search continues after the end of match (the same as replace all).
+    public int count(FileContentSearchPattern pattern) {
+        return this.getIndex(pattern, null).intCount;
+    }
+
+    // Count with progress of index building.
+    public int count(FileContentSearchPattern pattern, ProgressListener progressListener) {
+        return this.getIndex(pattern, progressListener).intCount;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // First match starting at or after lngPos, search continues from the start of Document.
+    public long findNext(FileContentSearchPattern pattern, long lngPos) {
+
+        Index idx = this.getIndex(pattern, null);
+        if (idx.intCount == 0) {
+            return -1;
+        }
+        int intIdx = idx.findFirstAtOrAfter(lngPos);
+        if (intIdx == idx.intCount) {
+            intIdx = 0;
+        }
+        return idx.arrStarts[intIdx];
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Last match starting before lngPos, search continues from the end of Document.
+    public long findPrevious(FileContentSearchPattern pattern, long lngPos) {
+
+        Index idx = this.getIndex(pattern, null);
+        if (idx.intCount == 0) {
+            return -1;
+        }
+        int intIdx = idx.findFirstAtOrAfter(lngPos) - 1;
+        if (intIdx < 0) {
+            intIdx = idx.intCount - 1;
+        }
+        return idx.arrStarts[intIdx];
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Number (starts from 1) of match starting at lngPos, 0 if there is no such match.
+    public int getMatchNumber(FileContentSearchPattern pattern, long lngPos) {
+
+        Index idx = this.getIndex(pattern, null);
+        int intIdx = idx.findFirstAtOrAfter(lngPos);
+        if (intIdx < idx.intCount && idx.arrStarts[intIdx] == lngPos) {
+            return intIdx + 1;
+        }
+        return 0;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // End of match starting at lngPos, -1 if there is no such match.
+    public long getMatchEnd(FileContentSearchPattern pattern, long lngPos) {
+
+        Index idx = this.getIndex(pattern, null);
+        int intIdx = idx.findFirstAtOrAfter(lngPos);
+        if (intIdx < idx.intCount && idx.arrStarts[intIdx] == lngPos) {
+            return idx.getEnd(intIdx);
+        }
+        return -1;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Copy of all match start offsets.
+    public long[] getMatchStarts(FileContentSearchPattern pattern) {
+
+        Index idx = this.getIndex(pattern, null);
+        return Arrays.copyOf(idx.arrStarts, idx.intCount);
+    }
+
+    // Copy of all match end offsets.
+    public long[] getMatchEnds(FileContentSearchPattern pattern) {
+
+        Index idx = this.getIndex(pattern, null);
+        long[] arrEnds = new long[idx.intCount];
+        for (int i = 0; i < idx.intCount; i++) {
+            arrEnds[i] = idx.getEnd(i);
+        }
+        return arrEnds;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------------------
+    private Index getIndex(FileContentSearchPattern pattern, ProgressListener progressListener) {
+
+        FileContentDocument.Snapshot snapshot = this.document.snapshot();
+        Index idx = this.index;
+        if (idx != null && idx.pattern.equals(pattern) && idx.lngVersion == snapshot.getVersion()) {
+            return idx;
+        }
+        // Index is built without lock, Document could be edited meanwhile.
+        idx = this.build(snapshot, pattern, progressListener);
+        synchronized (this) {
+            if (this.document.snapshot().getVersion() == idx.lngVersion) {
+                this.index = idx;
+            }
+        }
+        return idx;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private Index build(FileContentDocument.Snapshot snapshot, FileContentSearchPattern pattern, ProgressListener progressListener) {
+
+        long lngTimeStart = System.currentTimeMillis();
+        long lngLen = snapshot.length();
+        int intParallelism = ForkJoinPool.getCommonPoolParallelism();
+        boolean booParallel = lngLen >= this.lngParallelLengthMin && lngLen >= 2L * INT_PARALLEL_CHUNK_SIZE_MIN && intParallelism > 1;
+        Progress progress = null;
+        if (progressListener != null) {
+            progress = new Progress(progressListener);
+        }
+        Index idx;
+        if (booParallel) {
+            idx = buildParallel(snapshot, pattern, intParallelism, progress);
+        } else {
+            idx = buildChunk(snapshot, pattern, 0, lngLen, null, progress);
+        }
+        LOGGER.debug("Built find index."
+                + " " + pattern
+                + " Count=" + idx.intCount
+                + " Version=" + idx.lngVersion
+                + " Length=" + lngLen
+                + " Parallel=" + booParallel
+                + " Time=" + (System.currentTimeMillis() - lngTimeStart));
+        return idx;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static Index buildChunk(FileContentDocument.Snapshot snapshot, FileContentSearchPattern pattern,
+            final long lngFrom, long lngTo, final AtomicBoolean booCancelled, final Progress progress) {
+
+        final Index idx = new Index(pattern, snapshot.getVersion());
+        pattern.findAll(snapshot, lngFrom, lngTo, new FileContentSearchPattern.MatchListener() {
+            private long lngSearched = lngFrom;
+            private int intFound = 0;
+
+            @Override
+            public void found(long lngStart, long lngEnd) {
+                idx.add(lngStart, lngEnd);
+            }
+
+            @Override
+            public void searched(long lngPos) {
+                if (progress != null && lngPos > this.lngSearched) {
+                    progress.add(lngPos - this.lngSearched, idx.intCount - this.intFound);
+                    this.lngSearched = lngPos;
+                    this.intFound = idx.intCount;
+                }
+            }
+
+            @Override
+            public boolean isCancelled() {
+                if (booCancelled != null) {
+                    return booCancelled.get();
+                }
+                return Thread.currentThread().isInterrupted();
+            }
+        });
+        return idx;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static Index buildParallel(final FileContentDocument.Snapshot snapshot, final FileContentSearchPattern pattern,
+            int intParallelism, final Progress progress) {
+
+        // Chunks are searched in common ForkJoinPool, chunk search reads match length - 1 chars after chunk,
+        // so matches crossing chunk end are found in that chunk. Chunk indexes are merged in order.
+        long lngLen = snapshot.length();
+        long lngChunks = Math.max(2, Math.min((long) intParallelism * INT_PARALLEL_CHUNKS_PER_THREAD, lngLen / INT_PARALLEL_CHUNK_SIZE_MIN));
+        long lngChunkSize = (lngLen + lngChunks - 1) / lngChunks;
+        final AtomicBoolean booCancelled = new AtomicBoolean(false);
+        List<ForkJoinTask<Index>> lstTasks = new ArrayList<>();
+        List<long[]> lstRanges = new ArrayList<>();
+        for (long lngFrom = 0; lngFrom < lngLen; lngFrom += lngChunkSize) {
+            final long lngChunkFrom = lngFrom;
+            // The last chunk ends at Document length, it could have empty regex match at the end.
+            final long lngChunkTo = Math.min(lngLen, lngFrom + lngChunkSize);
+            lstRanges.add(new long[]{lngChunkFrom, lngChunkTo});
+            lstTasks.add(ForkJoinPool.commonPool().submit(new Callable<Index>() {
+                @Override
+                public Index call() throws Exception {
+                    return buildChunk(snapshot, pattern, lngChunkFrom, lngChunkTo, booCancelled, progress);
+                }
+            }));
+        }
+
+        Index idx = new Index(pattern, snapshot.getVersion());
+        long lngMinStart = 0;
+        try {
+            for (int i = 0; i < lstTasks.size(); i++) {
+                Index idxChunk = lstTasks.get(i).get();
+                long lngChunkFrom = lstRanges.get(i)[0];
+                long lngChunkTo = lstRanges.get(i)[1];
+                if (lngMinStart > lngChunkFrom) {
+                    // Matches do not overlap, last match of previous chunk ends inside this chunk,
+                    // so this chunk is searched again after that match.
+                    idxChunk = buildChunk(snapshot, pattern, lngMinStart, lngChunkTo, booCancelled, null);
+                }
+                for (int j = 0; j < idxChunk.intCount; j++) {
+                    long lngStart = idxChunk.arrStarts[j];
+                    long lngEnd = idxChunk.getEnd(j);
+                    idx.add(lngStart, lngEnd);
+                    lngMinStart = lngEnd > lngStart ? lngEnd : lngStart + 1;
+                }
+            }
+        } catch (InterruptedException e) {
+            booCancelled.set(true);
+            for (ForkJoinTask<Index> task : lstTasks) {
+                task.cancel(true);
+            }
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Search cancelled.");
+        } catch (ExecutionException e) {
+            booCancelled.set(true);
+            Throwable t = e.getCause();
+            if (t instanceof RuntimeException) {
+                throw (RuntimeException) t;
+            }
+            throw new RuntimeException(t);
+        }
+        return idx;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private synchronized void edited(long lngPos, long lngLenRemoved, long lngLenInserted) {
+
+        Index idx = this.index;
+        if (idx == null) {
+            return;
+        }
+        FileContentDocument.Snapshot snapshot = this.document.snapshot();
+        if (!idx.pattern.isIncremental() || snapshot.getVersion() != idx.lngVersion + 1) {
+            // Index is rebuilt on next find.
+            this.index = null;
+            return;
+        }
+        this.index = idx.edited(snapshot, lngPos, lngLenRemoved, lngLenInserted);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Classes
+    // -------------------------------------------------------------------------------------
+    // Progress of index building summed over chunks.
+    private static final class Progress {
+
+        private final ProgressListener progressListener;
+        private final AtomicLong lngSearched = new AtomicLong();
+        private final AtomicInteger intFound = new AtomicInteger();
+
+        private Progress(ProgressListener progressListener) {
+            this.progressListener = progressListener;
+        }
+
+        private void add(long lngSearchedDelta, int intFoundDelta) {
+            this.progressListener.progress(this.lngSearched.addAndGet(lngSearchedDelta), this.intFound.addAndGet(intFoundDelta));
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static final class Index {
+
+        private final FileContentSearchPattern pattern;
+        private final long lngVersion;
+        private long[] arrStarts;
+        // Ends are kept for regex matches only, literal match length is length of pattern.
+        private long[] arrEnds;
+        private int intCount;
+
+        private Index(FileContentSearchPattern pattern, long lngVersion) {
+
+            this.pattern = pattern;
+            this.lngVersion = lngVersion;
+            this.arrStarts = new long[INT_MATCHES_CAPACITY_MIN];
+            if (!pattern.isIncremental()) {
+                this.arrEnds = new long[INT_MATCHES_CAPACITY_MIN];
+            }
+            this.intCount = 0;
+        }
+
+        private long getEnd(int intIdx) {
+
+            if (this.arrEnds == null) {
+                return this.arrStarts[intIdx] + this.pattern.getLength();
+            }
+            return this.arrEnds[intIdx];
+        }
+
+        private void add(long lngStart, long lngEnd) {
+
+            if (this.intCount == this.arrStarts.length) {
+                int intCapacity = this.intCount * 2;
+                this.arrStarts = Arrays.copyOf(this.arrStarts, intCapacity);
+                if (this.arrEnds != null) {
+                    this.arrEnds = Arrays.copyOf(this.arrEnds, intCapacity);
+                }
+            }
+            this.arrStarts[this.intCount] = lngStart;
+            if (this.arrEnds != null) {
+                this.arrEnds[this.intCount] = lngEnd;
+            }
+            this.intCount++;
+        }
+
+        private int findFirstAtOrAfter(long lngPos) {
+
+            int intLow = 0;
+            int intHigh = this.intCount;
+            while (intLow < intHigh) {
+                int intMid = (intLow + intHigh) >>> 1;
+                if (this.arrStarts[intMid] < lngPos) {
+                    intLow = intMid + 1;
+                } else {
+                    intHigh = intMid;
+                }
+            }
+            return intLow;
+        }
+
+        // New index of literal pattern after Document edit, snapshot is the Document after edit.
+        private Index edited(FileContentDocument.Snapshot snapshot, long lngPos, long lngLenRemoved, long lngLenInserted) {
+
+            // Literal match at s depends on chars [s - c, s + len + c), c is context length (whole word),
+            // and on the end of previous match (matches do not overlap). So matches ending before edit are kept,
+            // edited Document is searched after them until search position after edit is not inside any old match,
+            // old matches after that position are shifted.
+            int intLen = this.pattern.getLength();
+            int intContext = this.pattern.getContextLength();
+            long lngShift = lngLenInserted - lngLenRemoved;
+            long lngDocLen = snapshot.length();
+            int intFrom = this.findFirstAtOrAfter(lngPos - intLen + 1 - intContext);
+
+            final Index idx = new Index(this.pattern, snapshot.getVersion());
+            idx.arrStarts = new long[Math.max(INT_MATCHES_CAPACITY_MIN, this.intCount + 16)];
+            System.arraycopy(this.arrStarts, 0, idx.arrStarts, 0, intFrom);
+            idx.intCount = intFrom;
+            FileContentSearchPattern.MatchListener matchListener = new FileContentSearchPattern.MatchListener() {
+                @Override
+                public void found(long lngStart, long lngEnd) {
+                    idx.add(lngStart, lngEnd);
+                }
+            };
+            long lngSearchFrom = lngPos - intLen + 1 - intContext;
+            if (intFrom > 0) {
+                lngSearchFrom = Math.max(lngSearchFrom, this.arrStarts[intFrom - 1] + intLen);
+            }
+            long lngSearchTo = lngPos + lngLenInserted + intContext;
+            long lngWindow = intLen;
+            int intTo;
+            while (true) {
+                this.pattern.findAll(snapshot, lngSearchFrom, lngSearchTo, matchListener);
+                long lngNext = lngSearchTo;
+                if (idx.intCount > 0) {
+                    lngNext = Math.max(lngNext, idx.arrStarts[idx.intCount - 1] + intLen);
+                }
+                if (lngNext >= lngDocLen) {
+                    intTo = this.intCount;
+                    break;
+                }
+                // Position before edit, old match covering it would make old and new matches after it different.
+                long lngNextOld = lngNext - lngShift;
+                intTo = this.findFirstAtOrAfter(lngNextOld - intLen + 1);
+                if (intTo == this.intCount || this.arrStarts[intTo] >= lngNextOld) {
+                    break;
+                }
+                lngSearchFrom = lngNext;
+                lngWindow = Math.min(lngWindow * 2, INT_PARALLEL_CHUNK_SIZE_MIN);
+                lngSearchTo = lngNext + lngWindow;
+            }
+
+            int intTail = this.intCount - intTo;
+            if (idx.intCount + intTail > idx.arrStarts.length) {
+                idx.arrStarts = Arrays.copyOf(idx.arrStarts, idx.intCount + intTail);
+            }
+            for (int i = 0; i < intTail; i++) {
+                idx.arrStarts[idx.intCount + i] = this.arrStarts[intTo + i] + lngShift;
+            }
+            idx.intCount += intTail;
+            return idx;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+}
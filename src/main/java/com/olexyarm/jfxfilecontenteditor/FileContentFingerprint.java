@@ -0,0 +1,478 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.zip.CRC32C;
+
+// Fingerprint of file content loaded into or saved from editor: size, last modified time and hash of content.
+// File is checked by size and time first, content is read only when time is changed but size is the same.
+// Hash is kept for every block of file also, and when file is loaded position of char for every block is kept,
+// so changed file is reloaded by changed blocks only.
+public class FileContentFingerprint {
+
+    public static final long LNG_HASH_UNKNOWN = -1;
+    public static final int INT_BLOCK_SIZE = 64 * 1024;
+
+    private static final int INT_HASH_REGION_SIZE = 64 * 1024 * 1024;
+    private static final int INT_CHARS_BUFFER_SIZE = 64 * 1024;
+
+    private final long lngSize;
+    private final long lngModified;
+    private final long lngHash;
+    // Hash of every block of INT_BLOCK_SIZE bytes.
+    private final int[] arrBlockHash;
+    // For every block start i * INT_BLOCK_SIZE: the last position before it where file was decoded
+    // without partial char (byte and char positions), null when file was not loaded by blocks.
+    private final long[] arrSyncByte;
+    private final long[] arrSyncChar;
+    private final long lngChars;
+
+    // -------------------------------------------------------------------------------------
+    // Changed part of file: text replaces Document chars from position, fingerprint is fingerprint of file now.
+    public static class Splice {
+
+        private final long lngCharPos;
+        private final long lngCharLenRemove;
+        private final String strText;
+        private final FileContentFingerprint fingerprint;
+
+        private Splice(long lngCharPos, long lngCharLenRemove, String strText, FileContentFingerprint fingerprint) {
+            this.lngCharPos = lngCharPos;
+            this.lngCharLenRemove = lngCharLenRemove;
+            this.strText = strText;
+            this.fingerprint = fingerprint;
+        }
+
+        public long getCharPos() {
+            return this.lngCharPos;
+        }
+
+        public long getCharLenRemove() {
+            return this.lngCharLenRemove;
+        }
+
+        public String getText() {
+            return this.strText;
+        }
+
+        public FileContentFingerprint getFingerprint() {
+            return this.fingerprint;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Fingerprint is built while file is loaded, decoded bytes are hashed and char positions are recorded.
+    public static class Builder {
+
+        private final long lngSize;
+        private final long lngModified;
+        private final CRC32C crc = new CRC32C();
+        private final CRC32C crcBlock = new CRC32C();
+        private int[] arrBlockHash;
+        private long[] arrSyncByte;
+        private long[] arrSyncChar;
+        private long lngBytes = 0;
+        private long lngChars = 0;
+
+        public Builder(long lngSize, long lngModified) {
+
+            this.lngSize = lngSize;
+            this.lngModified = lngModified;
+            int intBlocks = getBlockCount(lngSize);
+            this.arrBlockHash = new int[intBlocks];
+            this.arrSyncByte = new long[intBlocks + 1];
+            this.arrSyncChar = new long[intBlocks + 1];
+            Arrays.fill(this.arrSyncByte, -1);
+        }
+
+        // Fingerprint of file being written: size and time are known when file is written.
+        public Builder() {
+            this(0, 0);
+        }
+
+        // Bytes from intPosFrom to position of buffer are decoded, lngCharPos chars are decoded in total.
+        public void decoded(ByteBuffer byteBuffer, int intPosFrom, long lngCharPos) {
+
+            this.written(byteBuffer, intPosFrom);
+            this.sync(this.lngBytes, lngCharPos);
+        }
+
+        // Bytes from intPosFrom to position of buffer are written to file, char positions are not known.
+        public void written(ByteBuffer byteBuffer, int intPosFrom) {
+
+            ByteBuffer byteBufferDecoded = byteBuffer.duplicate();
+            byteBufferDecoded.limit(byteBuffer.position());
+            byteBufferDecoded.position(intPosFrom);
+            while (byteBufferDecoded.hasRemaining()) {
+                int intBlockRemaining = (int) (INT_BLOCK_SIZE - this.lngBytes % INT_BLOCK_SIZE);
+                int intLen = Math.min(intBlockRemaining, byteBufferDecoded.remaining());
+                ByteBuffer byteBufferPart = byteBufferDecoded.slice(byteBufferDecoded.position(), intLen);
+                this.crc.update(byteBufferPart.duplicate());
+                this.crcBlock.update(byteBufferPart);
+                byteBufferDecoded.position(byteBufferDecoded.position() + intLen);
+                this.lngBytes += intLen;
+                if (this.lngBytes % INT_BLOCK_SIZE == 0) {
+                    this.addBlockHash();
+                }
+            }
+        }
+
+        public void sync(long lngBytePos, long lngCharPos) {
+
+            this.lngChars = Math.max(this.lngChars, lngCharPos);
+            int intBlock = (int) ((lngBytePos + INT_BLOCK_SIZE - 1) / INT_BLOCK_SIZE);
+            this.ensureSync(intBlock);
+            if (lngBytePos >= this.arrSyncByte[intBlock]) {
+                this.arrSyncByte[intBlock] = lngBytePos;
+                this.arrSyncChar[intBlock] = lngCharPos;
+            }
+        }
+
+        private void ensureSync(int intBlocks) {
+
+            int intLen = this.arrSyncByte.length;
+            if (intBlocks >= intLen) {
+                this.arrSyncByte = Arrays.copyOf(this.arrSyncByte, intBlocks + 1);
+                this.arrSyncChar = Arrays.copyOf(this.arrSyncChar, intBlocks + 1);
+                Arrays.fill(this.arrSyncByte, intLen, intBlocks + 1, -1);
+            }
+        }
+
+        // Block without own sync position gets position of previous block.
+        private FileContentFingerprint build(long lngSizeBuilt, long lngHash, int[] arrBlockHashBuilt, long lngCharsBuilt) {
+            return this.build(lngSizeBuilt, this.lngModified, lngHash, arrBlockHashBuilt, lngCharsBuilt);
+        }
+
+        private FileContentFingerprint build(long lngSizeBuilt, long lngModifiedBuilt, long lngHash, int[] arrBlockHashBuilt, long lngCharsBuilt) {
+
+            int intBlocks = getBlockCount(lngSizeBuilt);
+            this.ensureSync(intBlocks);
+            if (this.arrSyncByte[0] < 0) {
+                this.arrSyncByte[0] = 0;
+                this.arrSyncChar[0] = 0;
+            }
+            for (int i = 1; i <= intBlocks; i++) {
+                if (this.arrSyncByte[i] < 0) {
+                    this.arrSyncByte[i] = this.arrSyncByte[i - 1];
+                    this.arrSyncChar[i] = this.arrSyncChar[i - 1];
+                }
+            }
+            return new FileContentFingerprint(lngSizeBuilt, lngModifiedBuilt, lngHash, arrBlockHashBuilt,
+                    Arrays.copyOf(this.arrSyncByte, intBlocks + 1), Arrays.copyOf(this.arrSyncChar, intBlocks + 1), lngCharsBuilt);
+        }
+
+        private void addBlockHash() {
+
+            int intBlock = (int) ((this.lngBytes - 1) / INT_BLOCK_SIZE);
+            if (intBlock >= this.arrBlockHash.length) {
+                this.arrBlockHash = Arrays.copyOf(this.arrBlockHash, intBlock + 1);
+            }
+            this.arrBlockHash[intBlock] = (int) this.crcBlock.getValue();
+            this.crcBlock.reset();
+        }
+
+        // File could be changed while loading, fingerprint is built for bytes which are loaded.
+        public FileContentFingerprint build() {
+
+            if (this.lngBytes % INT_BLOCK_SIZE != 0) {
+                this.addBlockHash();
+            }
+            long lngHash = this.lngBytes == this.lngSize ? this.crc.getValue() : LNG_HASH_UNKNOWN;
+            return this.build(this.lngBytes, lngHash, Arrays.copyOf(this.arrBlockHash, getBlockCount(this.lngBytes)), this.lngChars);
+        }
+
+        // All bytes of written file are passed to builder, time is taken after file is written.
+        public FileContentFingerprint build(long lngModifiedWritten) {
+
+            if (this.lngBytes % INT_BLOCK_SIZE != 0) {
+                this.addBlockHash();
+            }
+            return this.build(this.lngBytes, lngModifiedWritten, this.crc.getValue(), Arrays.copyOf(this.arrBlockHash, getBlockCount(this.lngBytes)), this.lngChars);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentFingerprint(long lngSize, long lngModified, long lngHash) {
+
+        this(lngSize, lngModified, lngHash, null, null, null, -1);
+    }
+
+    private FileContentFingerprint(long lngSize, long lngModified, long lngHash, int[] arrBlockHash,
+            long[] arrSyncByte, long[] arrSyncChar, long lngChars) {
+
+        this.lngSize = lngSize;
+        this.lngModified = lngModified;
+        this.lngHash = lngHash;
+        this.arrBlockHash = arrBlockHash;
+        this.arrSyncByte = arrSyncByte;
+        this.arrSyncChar = arrSyncChar;
+        this.lngChars = lngChars;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    public static FileContentFingerprint read(Path path) throws IOException {
+
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        long lngSize = attrs.size();
+        int[] arrBlockHash = new int[getBlockCount(lngSize)];
+        long lngHash = hash(path, lngSize, arrBlockHash);
+        return new FileContentFingerprint(lngSize, attrs.lastModifiedTime().toMillis(), lngHash, arrBlockHash, null, null, -1);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Returns this fingerprint when file is not changed, otherwise fingerprint of file now.
+    // Hash is calculated only when size is the same, file with other size is changed anyway.
+    public FileContentFingerprint current(Path path) throws IOException {
+
+        BasicFileAttributes attrs = Files.readAttributes(path, BasicFileAttributes.class);
+        long lngSizeNow = attrs.size();
+        long lngModifiedNow = attrs.lastModifiedTime().toMillis();
+        if (lngSizeNow == this.lngSize && lngModifiedNow == this.lngModified) {
+            return this;
+        }
+        if (lngSizeNow != this.lngSize || this.lngHash == LNG_HASH_UNKNOWN) {
+            return new FileContentFingerprint(lngSizeNow, lngModifiedNow, LNG_HASH_UNKNOWN);
+        }
+        int[] arrBlockHashNow = new int[getBlockCount(lngSizeNow)];
+        long lngHashNow = hash(path, lngSizeNow, arrBlockHashNow);
+        return new FileContentFingerprint(lngSizeNow, lngModifiedNow, lngHashNow, arrBlockHashNow, null, null, -1);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // File is rewritten with the same content (touched), only time is changed.
+    public boolean isSameContent(FileContentFingerprint fingerprint) {
+
+        if (fingerprint == this) {
+            return true;
+        }
+        return fingerprint != null
+                && this.lngHash != LNG_HASH_UNKNOWN
+                && fingerprint.lngSize == this.lngSize
+                && fingerprint.lngHash == this.lngHash;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Partial reload is possible when char positions of blocks are known and decoder does not keep state
+    // between chars (byte order mark is read only at file start, shift sequences change state).
+    public boolean canSplice(Charset charset) {
+
+        if (this.arrSyncByte == null || this.lngHash == LNG_HASH_UNKNOWN) {
+            return false;
+        }
+        String strName = charset.name();
+        if (strName.equals("UTF-8") || strName.equals("UTF-16BE") || strName.equals("UTF-16LE")
+                || strName.equals("UTF-32BE") || strName.equals("UTF-32LE")) {
+            return true;
+        }
+        try {
+            return charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1.0f;
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // File is hashed by blocks, only bytes from the first changed block to the last changed block are decoded
+    // (to the end of file when size is changed). Returns null when whole file should be reloaded,
+    // also when changed bytes are more than lngSpliceSizeMax or decoded chars are more than intSpliceCharsMax.
+    public Splice readChanged(Path path, Charset charset, long lngSpliceSizeMax, int intSpliceCharsMax) throws IOException {
+
+        if (!this.canSplice(charset)) {
+            return null;
+        }
+        FileContentFingerprint fingerprintNow = read(path);
+        long lngSizeNow = fingerprintNow.lngSize;
+        int intBlocks = this.arrBlockHash.length;
+        int intBlocksNow = fingerprintNow.arrBlockHash.length;
+        int intBlockFirst = 0;
+        while (intBlockFirst < intBlocks && intBlockFirst < intBlocksNow
+                && this.arrBlockHash[intBlockFirst] == fingerprintNow.arrBlockHash[intBlockFirst]) {
+            intBlockFirst++;
+        }
+        if (intBlockFirst == intBlocks && intBlocks == intBlocksNow && lngSizeNow == this.lngSize) {
+            // Only time is changed.
+            return new Splice(0, 0, "", new FileContentFingerprint(lngSizeNow, fingerprintNow.lngModified, fingerprintNow.lngHash,
+                    fingerprintNow.arrBlockHash, this.arrSyncByte, this.arrSyncChar, this.lngChars));
+        }
+
+        // Changed bytes in file before and now: [lngByteFrom, lngByteTo) and [lngByteFrom, lngByteToNow).
+        long lngByteFrom = this.arrSyncByte[Math.min(intBlockFirst, intBlocks)];
+        long lngCharFrom = this.arrSyncChar[Math.min(intBlockFirst, intBlocks)];
+        long lngByteTo = this.lngSize;
+        long lngCharTo = this.lngChars;
+        int intSyncTo = intBlocks;
+        if (lngSizeNow == this.lngSize) {
+            int intBlockLast = intBlocks - 1;
+            while (intBlockLast > intBlockFirst && this.arrBlockHash[intBlockLast] == fingerprintNow.arrBlockHash[intBlockLast]) {
+                intBlockLast--;
+            }
+            long lngChangedEnd = Math.min(this.lngSize, (long) (intBlockLast + 1) * INT_BLOCK_SIZE);
+            for (int i = intBlockLast + 1; i <= intBlocks; i++) {
+                if (this.arrSyncByte[i] >= lngChangedEnd) {
+                    lngByteTo = this.arrSyncByte[i];
+                    lngCharTo = this.arrSyncChar[i];
+                    intSyncTo = i;
+                    break;
+                }
+            }
+        }
+        long lngByteToNow = lngByteTo + lngSizeNow - this.lngSize;
+        if (lngByteToNow - lngByteFrom > lngSpliceSizeMax) {
+            return null;
+        }
+
+        // Decode changed bytes by blocks and record char positions the same way as loader does.
+        Builder builder = new Builder(lngSizeNow, fingerprintNow.lngModified);
+        for (int i = 0; i <= intBlockFirst && i <= intBlocks; i++) {
+            builder.sync(this.arrSyncByte[i], this.arrSyncChar[i]);
+        }
+        StringBuilder sb = new StringBuilder();
+        CharsetDecoder cd = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                .replaceWith("?");
+        boolean booEndOfInput = lngByteToNow == lngSizeNow;
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer byteBuffer = ByteBuffer.allocate(INT_BLOCK_SIZE);
+            CharBuffer charBuffer = CharBuffer.allocate(INT_CHARS_BUFFER_SIZE);
+            long lngReadPos = lngByteFrom;
+            while (true) {
+                int intRead = 0;
+                if (lngReadPos < lngByteToNow) {
+                    byteBuffer.limit((int) Math.min(byteBuffer.capacity(), byteBuffer.position() + lngByteToNow - lngReadPos));
+                    intRead = fileChannel.read(byteBuffer, lngReadPos);
+                    if (intRead < 0) {
+                        return null;
+                    }
+                    lngReadPos += intRead;
+                }
+                boolean booLast = lngReadPos >= lngByteToNow;
+                byteBuffer.flip();
+                CoderResult coderResult;
+                do {
+                    coderResult = cd.decode(byteBuffer, charBuffer, booLast && booEndOfInput);
+                    charBuffer.flip();
+                    sb.append(charBuffer);
+                    charBuffer.clear();
+                } while (coderResult.isOverflow());
+                if (booLast && booEndOfInput) {
+                    cd.flush(charBuffer);
+                    charBuffer.flip();
+                    sb.append(charBuffer);
+                    charBuffer.clear();
+                }
+                if (sb.length() > intSpliceCharsMax) {
+                    return null;
+                }
+                builder.sync(lngReadPos - byteBuffer.remaining(), lngCharFrom + sb.length());
+                if (booLast) {
+                    break;
+                }
+                byteBuffer.compact();
+            }
+            if (byteBuffer.hasRemaining()) {
+                // Changed part ends inside of char, it could be decoded with next bytes differently.
+                return null;
+            }
+        }
+        long lngCharDelta = lngCharFrom + sb.length() - lngCharTo;
+        long lngByteDelta = lngSizeNow - this.lngSize;
+        for (int i = intSyncTo; i <= intBlocks; i++) {
+            if (this.arrSyncByte[i] >= lngByteTo) {
+                builder.sync(this.arrSyncByte[i] + lngByteDelta, this.arrSyncChar[i] + lngCharDelta);
+            }
+        }
+        return new Splice(lngCharFrom, lngCharTo - lngCharFrom, sb.toString(),
+                builder.build(lngSizeNow, fingerprintNow.lngHash, fingerprintNow.arrBlockHash, this.lngChars + lngCharDelta));
+    }
+
+    // -------------------------------------------------------------------------------------
+    // CRC32C is calculated by hardware instructions, file is mapped by regions.
+    private static long hash(Path path, long lngSize, int[] arrBlockHash) throws IOException {
+
+        CRC32C crc = new CRC32C();
+        CRC32C crcBlock = new CRC32C();
+        try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long lngPos = 0;
+            long lngSizeNow = Math.min(lngSize, fileChannel.size());
+            while (lngPos < lngSizeNow) {
+                long lngRegionSize = Math.min(INT_HASH_REGION_SIZE, lngSizeNow - lngPos);
+                MappedByteBuffer mbb = fileChannel.map(FileChannel.MapMode.READ_ONLY, lngPos, lngRegionSize);
+                crc.update(mbb.duplicate());
+                // Regions start at block boundary, every block is hashed separately.
+                while (mbb.hasRemaining()) {
+                    int intLen = Math.min(INT_BLOCK_SIZE, mbb.remaining());
+                    crcBlock.reset();
+                    crcBlock.update(mbb.slice(mbb.position(), intLen));
+                    arrBlockHash[(int) ((lngPos + mbb.position()) / INT_BLOCK_SIZE)] = (int) crcBlock.getValue();
+                    mbb.position(mbb.position() + intLen);
+                }
+                lngPos += lngRegionSize;
+            }
+        }
+        return crc.getValue();
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static int getBlockCount(long lngSize) {
+        return (int) ((lngSize + INT_BLOCK_SIZE - 1) / INT_BLOCK_SIZE);
+    }
+
+    // -------------------------------------------------------------------------------------
+    public long getSize() {
+        return this.lngSize;
+    }
+
+    public long getModified() {
+        return this.lngModified;
+    }
+
+    public long getHash() {
+        return this.lngHash;
+    }
+
+    public long getChars() {
+        return this.lngChars;
+    }
+
+    @Override
+    public String toString() {
+        return "Size=" + this.lngSize
+                + " Modified=" + this.lngModified
+                + " Hash=" + this.lngHash
+                + " Blocks=" + (this.arrBlockHash == null ? 0 : this.arrBlockHash.length)
+                + " Chars=" + this.lngChars;
+    }
+
+    // -------------------------------------------------------------------------------------
+}
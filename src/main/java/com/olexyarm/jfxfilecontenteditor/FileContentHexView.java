@@ -0,0 +1,620 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.beans.InvalidationListener;
+import javafx.beans.Observable;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.LongProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleLongProperty;
+import javafx.event.EventHandler;
+import javafx.geometry.Orientation;
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.ClosePath;
+import javafx.scene.shape.LineTo;
+import javafx.scene.shape.MoveTo;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.Text;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Virtualized hex and ASCII view of FileContentBinary: only visible rows of 16 bytes have Text nodes
+// and only their bytes are read, so file of any size is viewed without keeping it in heap.
+// Bytes are changed in place (overwrite mode), size of file is not changed.
+public final class FileContentHexView extends Region {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileContentHexView.class);
+
+    private static final int INT_ROW_BYTES = 16;
+    private static final int INT_OFFSET_DIGITS_MIN = 8;
+    private static final int INT_COPY_BYTES_MAX = 1024 * 1024;
+    private static final double DBL_TEXT_PADDING = 4;
+    private static final char[] ARR_HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+
+    private FileContentBinary binary;
+    private final EditListener editListenerDefault = new EditListener() {
+        @Override
+        public void edited(long lngPos) {
+        }
+    };
+    private EditListener editListener = this.editListenerDefault;
+
+    private final Pane paneText = new Pane();
+    private final Rectangle rectClip = new Rectangle();
+    private final ScrollBar scrollBarV = new ScrollBar();
+    private final Path pathSelection = new Path();
+    private final Path pathCaret = new Path();
+
+    private final List<Text> lstTextNodes = new ArrayList<>();
+    private byte[] arrRowsBytes = new byte[0];
+
+    private Font font = Font.font("Monospaced", Font.getDefault().getSize());
+    private double dblLineHeight;
+    private double dblCharWidth;
+    private int intOffsetDigits = INT_OFFSET_DIGITS_MIN;
+    private int intVisibleRows = 1;
+    private boolean booEnsureCaretVisible = false;
+
+    private final LongProperty lpCaretPosition = new SimpleLongProperty(0);
+    private final LongProperty lpAnchor = new SimpleLongProperty(0);
+    private final BooleanProperty bpEditable = new SimpleBooleanProperty(true);
+    // Caret is in ASCII column (typed chars are written) or in hex column (typed hex digits are written).
+    private boolean booCaretAscii = false;
+    private boolean booNibbleLow = false;
+
+    // -------------------------------------------------------------------------------------
+    public interface EditListener {
+
+        void edited(long lngPos);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentHexView() {
+
+        this.getStyleClass().add("fileContentHexView");
+        this.setFocusTraversable(true);
+        this.setCursor(Cursor.TEXT);
+
+        this.rectClip.setManaged(false);
+        this.paneText.setClip(this.rectClip);
+        this.paneText.setManaged(false);
+        this.pathSelection.setManaged(false);
+        this.pathSelection.setStroke(null);
+        this.pathSelection.getStyleClass().add("fileContentViewSelection");
+        this.pathCaret.setManaged(false);
+        this.pathCaret.setStrokeWidth(1.5);
+        this.pathCaret.setStroke(Color.BLACK);
+        this.paneText.getChildren().addAll(this.pathSelection, this.pathCaret);
+
+        this.scrollBarV.setOrientation(Orientation.VERTICAL);
+        this.scrollBarV.setManaged(false);
+        this.getChildren().addAll(this.paneText, this.scrollBarV);
+
+        InvalidationListener invalidationListenerLayout = new InvalidationListener() {
+            @Override
+            public void invalidated(Observable observable) {
+                requestLayout();
+            }
+        };
+        this.scrollBarV.valueProperty().addListener(invalidationListenerLayout);
+        this.lpAnchor.addListener(invalidationListenerLayout);
+        this.lpCaretPosition.addListener(new InvalidationListener() {
+            @Override
+            public void invalidated(Observable observable) {
+                booEnsureCaretVisible = true;
+                requestLayout();
+            }
+        });
+
+        this.updateFontMetrics();
+
+        this.addEventHandler(KeyEvent.KEY_PRESSED, new EventHandler<KeyEvent>() {
+            @Override
+            public void handle(KeyEvent keyEvent) {
+                keyPressed(keyEvent);
+            }
+        });
+        this.addEventHandler(KeyEvent.KEY_TYPED, new EventHandler<KeyEvent>() {
+            @Override
+            public void handle(KeyEvent keyEvent) {
+                keyTyped(keyEvent);
+            }
+        });
+        this.addEventHandler(MouseEvent.MOUSE_PRESSED, new EventHandler<MouseEvent>() {
+            @Override
+            public void handle(MouseEvent mouseEvent) {
+                if (mouseEvent.getButton() != MouseButton.PRIMARY) {
+                    return;
+                }
+                requestFocus();
+                moveCaretAt(mouseEvent.getX(), mouseEvent.getY(), mouseEvent.isShiftDown());
+                mouseEvent.consume();
+            }
+        });
+        this.addEventHandler(MouseEvent.MOUSE_DRAGGED, new EventHandler<MouseEvent>() {
+            @Override
+            public void handle(MouseEvent mouseEvent) {
+                if (mouseEvent.getButton() != MouseButton.PRIMARY) {
+                    return;
+                }
+                moveCaretAt(mouseEvent.getX(), mouseEvent.getY(), true);
+                mouseEvent.consume();
+            }
+        });
+        this.addEventHandler(ScrollEvent.SCROLL, new EventHandler<ScrollEvent>() {
+            @Override
+            public void handle(ScrollEvent scrollEvent) {
+                scrollBarV.setValue(clamp(scrollBarV.getValue() - scrollEvent.getDeltaY() / dblLineHeight, 0, scrollBarV.getMax()));
+                scrollEvent.consume();
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    public void setBinary(FileContentBinary binaryNew) {
+
+        this.binary = binaryNew;
+        this.lpAnchor.set(0);
+        this.lpCaretPosition.set(0);
+        this.booNibbleLow = false;
+        this.scrollBarV.setValue(0);
+        long lngSize = binaryNew == null ? 0 : binaryNew.size();
+        this.intOffsetDigits = Math.max(INT_OFFSET_DIGITS_MIN, (64 - Long.numberOfLeadingZeros(Math.max(1, lngSize - 1)) + 3) / 4);
+        this.bpEditable.set(binaryNew != null && !binaryNew.isReadOnly());
+        LOGGER.debug("Set Binary."
+                + " Binary=\"" + binaryNew + "\"");
+        this.requestLayout();
+    }
+
+    public FileContentBinary getBinary() {
+        return this.binary;
+    }
+
+    public void setEditListener(EditListener editListener) {
+        this.editListener = editListener == null ? this.editListenerDefault : editListener;
+    }
+
+    // View uses monospaced font of the same size as text view.
+    public void setFont(Font fontText) {
+
+        this.font = Font.font("Monospaced", fontText.getSize());
+        for (Text text : this.lstTextNodes) {
+            text.setFont(this.font);
+        }
+        this.updateFontMetrics();
+        this.requestLayout();
+    }
+
+    public LongProperty caretPositionProperty() {
+        return this.lpCaretPosition;
+    }
+
+    public LongProperty anchorProperty() {
+        return this.lpAnchor;
+    }
+
+    public BooleanProperty editableProperty() {
+        return this.bpEditable;
+    }
+
+    public long getSelectionStart() {
+        return Math.min(this.lpAnchor.get(), this.lpCaretPosition.get());
+    }
+
+    public long getSelectionEnd() {
+        return Math.max(this.lpAnchor.get(), this.lpCaretPosition.get());
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Selected bytes are copied as hex text.
+    public void copy() {
+
+        long lngStart = this.getSelectionStart();
+        int intLen = (int) Math.min(INT_COPY_BYTES_MAX, this.getSelectionEnd() - lngStart);
+        if (this.binary == null || intLen <= 0) {
+            return;
+        }
+        byte[] arrBytes = new byte[intLen];
+        try {
+            intLen = this.binary.read(lngStart, arrBytes, 0, intLen);
+        } catch (Throwable t) {
+            LOGGER.error("Could not read bytes."
+                    + " Pos=" + lngStart
+                    + " Throwable=\"" + t.toString() + "\"");
+            return;
+        }
+        StringBuilder sb = new StringBuilder(intLen * 3);
+        for (int i = 0; i < intLen; i++) {
+            if (i > 0) {
+                sb.append(' ');
+            }
+            appendHex(sb, arrBytes[i]);
+        }
+        ClipboardContent clipboardContent = new ClipboardContent();
+        clipboardContent.putString(sb.toString());
+        Clipboard.getSystemClipboard().setContent(clipboardContent);
+    }
+
+    // -------------------------------------------------------------------------------------
+    @Override
+    protected double computePrefWidth(double height) {
+        return 400;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return 300;
+    }
+
+    // -------------------------------------------------------------------------------------
+    @Override
+    protected void layoutChildren() {
+
+        double dblWidth = this.getWidth();
+        double dblHeight = this.getHeight();
+        double dblBarV = this.scrollBarV.prefWidth(-1);
+        double dblViewWidth = Math.max(0, dblWidth - dblBarV);
+
+        this.scrollBarV.resizeRelocate(dblViewWidth, 0, dblBarV, dblHeight);
+        this.paneText.resizeRelocate(0, 0, dblViewWidth, dblHeight);
+        this.rectClip.setWidth(dblViewWidth);
+        this.rectClip.setHeight(dblHeight);
+
+        long lngRows = this.getRowCount();
+        this.intVisibleRows = Math.max(1, (int) Math.floor(dblHeight / this.dblLineHeight));
+        this.scrollBarV.setMax(Math.max(0, lngRows - this.intVisibleRows));
+        this.scrollBarV.setVisibleAmount(this.intVisibleRows);
+        this.scrollBarV.setBlockIncrement(this.intVisibleRows);
+        this.scrollBarV.setUnitIncrement(1);
+
+        if (this.booEnsureCaretVisible) {
+            this.booEnsureCaretVisible = false;
+            long lngRow = this.lpCaretPosition.get() / INT_ROW_BYTES;
+            double dblTop = this.scrollBarV.getValue();
+            if (lngRow < dblTop) {
+                this.scrollBarV.setValue(lngRow);
+            } else if (lngRow >= dblTop + this.intVisibleRows) {
+                this.scrollBarV.setValue(Math.min(this.scrollBarV.getMax(), lngRow - this.intVisibleRows + 1));
+            }
+        }
+        this.renderRows();
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------------------
+    private void renderRows() {
+
+        long lngRows = this.getRowCount();
+        double dblTop = this.scrollBarV.getValue();
+        long lngFirst = (long) Math.floor(dblTop);
+        int intCount = (int) Math.max(0, Math.min(lngRows - lngFirst, this.intVisibleRows + 1));
+
+        while (this.lstTextNodes.size() < intCount) {
+            Text text = new Text();
+            text.setTextOrigin(VPos.TOP);
+            text.setFont(this.font);
+            text.setManaged(false);
+            text.getStyleClass().add("fileContentViewText");
+            this.lstTextNodes.add(text);
+            this.paneText.getChildren().add(this.paneText.getChildren().size() - 1, text);
+        }
+        while (this.lstTextNodes.size() > intCount) {
+            this.paneText.getChildren().remove(this.lstTextNodes.remove(this.lstTextNodes.size() - 1));
+        }
+
+        // Bytes of all visible rows are read at once.
+        int intBytes = intCount * INT_ROW_BYTES;
+        if (this.arrRowsBytes.length < intBytes) {
+            this.arrRowsBytes = new byte[intBytes];
+        }
+        int intRead = 0;
+        if (this.binary != null && intBytes > 0) {
+            try {
+                intRead = this.binary.read(lngFirst * INT_ROW_BYTES, this.arrRowsBytes, 0, intBytes);
+            } catch (Throwable t) {
+                LOGGER.error("Could not read bytes."
+                        + " Pos=" + lngFirst * INT_ROW_BYTES
+                        + " Throwable=\"" + t.toString() + "\"");
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < intCount; i++) {
+            long lngRowPos = (lngFirst + i) * INT_ROW_BYTES;
+            int intRowLen = Math.max(0, Math.min(INT_ROW_BYTES, intRead - i * INT_ROW_BYTES));
+            sb.setLength(0);
+            this.appendRow(sb, lngRowPos, i * INT_ROW_BYTES, intRowLen);
+            Text text = this.lstTextNodes.get(i);
+            String strRow = sb.toString();
+            if (!strRow.equals(text.getText())) {
+                text.setText(strRow);
+            }
+            text.setLayoutX(DBL_TEXT_PADDING);
+            text.setLayoutY((lngFirst + i - dblTop) * this.dblLineHeight);
+        }
+        this.renderSelection(lngFirst, intCount, dblTop);
+    }
+
+    private void appendRow(StringBuilder sb, long lngRowPos, int intFrom, int intLen) {
+
+        for (int d = this.intOffsetDigits - 1; d >= 0; d--) {
+            sb.append(ARR_HEX_DIGITS[(int) ((lngRowPos >>> (4 * d)) & 0xF)]);
+        }
+        sb.append("  ");
+        for (int i = 0; i < INT_ROW_BYTES; i++) {
+            if (i == INT_ROW_BYTES / 2) {
+                sb.append(' ');
+            }
+            if (i < intLen) {
+                appendHex(sb, this.arrRowsBytes[intFrom + i]);
+                sb.append(' ');
+            } else {
+                sb.append("   ");
+            }
+        }
+        sb.append(' ');
+        for (int i = 0; i < intLen; i++) {
+            int intByte = this.arrRowsBytes[intFrom + i] & 0xFF;
+            sb.append(intByte >= 0x20 && intByte < 0x7F ? (char) intByte : '.');
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Selection is drawn in both hex and ASCII columns, caret is drawn in column where it is.
+    private void renderSelection(long lngFirst, int intCount, double dblTop) {
+
+        this.pathSelection.getElements().clear();
+        long lngSelStart = this.getSelectionStart();
+        long lngSelEnd = this.getSelectionEnd();
+        for (int i = 0; i < intCount && lngSelStart < lngSelEnd; i++) {
+            long lngRowPos = (lngFirst + i) * INT_ROW_BYTES;
+            long lngFrom = Math.max(lngSelStart, lngRowPos);
+            long lngTo = Math.min(lngSelEnd, lngRowPos + INT_ROW_BYTES);
+            if (lngFrom >= lngTo) {
+                continue;
+            }
+            double dblY = (lngFirst + i - dblTop) * this.dblLineHeight;
+            int intFrom = (int) (lngFrom - lngRowPos);
+            int intTo = (int) (lngTo - lngRowPos);
+            this.addRect(this.getHexColumn(intFrom), this.getHexColumn(intTo - 1) + 2, dblY);
+            this.addRect(this.getAsciiColumn(intFrom), this.getAsciiColumn(intTo - 1) + 1, dblY);
+        }
+
+        this.pathCaret.getElements().clear();
+        long lngCaret = this.lpCaretPosition.get();
+        long lngRow = lngCaret / INT_ROW_BYTES;
+        if (lngRow < lngFirst || lngRow >= lngFirst + intCount) {
+            return;
+        }
+        int intByte = (int) (lngCaret - lngRow * INT_ROW_BYTES);
+        int intColumn = this.booCaretAscii ? this.getAsciiColumn(intByte) : this.getHexColumn(intByte) + (this.booNibbleLow ? 1 : 0);
+        double dblX = DBL_TEXT_PADDING + intColumn * this.dblCharWidth;
+        double dblY = (lngRow - dblTop) * this.dblLineHeight;
+        this.pathCaret.getElements().addAll(new MoveTo(dblX, dblY), new LineTo(dblX, dblY + this.dblLineHeight));
+    }
+
+    private void addRect(int intColumnFrom, int intColumnTo, double dblY) {
+
+        double dblX1 = DBL_TEXT_PADDING + intColumnFrom * this.dblCharWidth;
+        double dblX2 = DBL_TEXT_PADDING + intColumnTo * this.dblCharWidth;
+        double dblY2 = dblY + this.dblLineHeight;
+        this.pathSelection.getElements().addAll(new MoveTo(dblX1, dblY), new LineTo(dblX2, dblY),
+                new LineTo(dblX2, dblY2), new LineTo(dblX1, dblY2), new ClosePath());
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Row is: offset, two spaces, 16 hex bytes separated by space (extra space after 8 bytes), space, 16 chars.
+    private int getHexColumn(int intByte) {
+        return this.intOffsetDigits + 2 + 3 * intByte + (intByte >= INT_ROW_BYTES / 2 ? 1 : 0);
+    }
+
+    private int getAsciiColumn(int intByte) {
+        return this.intOffsetDigits + 2 + 3 * INT_ROW_BYTES + 2 + intByte;
+    }
+
+    private long getRowCount() {
+
+        long lngSize = this.binary == null ? 0 : this.binary.size();
+        return Math.max(1, (lngSize + INT_ROW_BYTES - 1) / INT_ROW_BYTES);
+    }
+
+    private long getSize() {
+        return this.binary == null ? 0 : this.binary.size();
+    }
+
+    private void updateFontMetrics() {
+
+        Text text = new Text("0000000000");
+        text.setFont(this.font);
+        this.dblLineHeight = Math.max(1, Math.ceil(text.getLayoutBounds().getHeight()));
+        this.dblCharWidth = Math.max(1, text.getLayoutBounds().getWidth() / 10);
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void moveCaret(long lngPos, boolean booSelect) {
+
+        lngPos = clamp(lngPos, 0, Math.max(0, this.getSize() - 1));
+        if (!booSelect) {
+            this.lpAnchor.set(lngPos);
+        }
+        this.booNibbleLow = false;
+        this.lpCaretPosition.set(lngPos);
+        this.booEnsureCaretVisible = true;
+        this.requestLayout();
+    }
+
+    private void moveCaretAt(double dblX, double dblY, boolean booSelect) {
+
+        long lngRow = (long) clamp(Math.floor(this.scrollBarV.getValue() + dblY / this.dblLineHeight), 0, this.getRowCount() - 1);
+        int intColumn = (int) Math.floor((dblX - DBL_TEXT_PADDING) / this.dblCharWidth);
+        int intByte;
+        if (intColumn >= this.getAsciiColumn(0) - 1) {
+            this.booCaretAscii = true;
+            intByte = intColumn - this.getAsciiColumn(0);
+        } else {
+            this.booCaretAscii = false;
+            intByte = 0;
+            while (intByte < INT_ROW_BYTES - 1 && intColumn > this.getHexColumn(intByte) + 1) {
+                intByte++;
+            }
+        }
+        intByte = Math.max(0, Math.min(INT_ROW_BYTES - 1, intByte));
+        this.moveCaret(lngRow * INT_ROW_BYTES + intByte, booSelect);
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void keyPressed(KeyEvent keyEvent) {
+
+        KeyCode keyCode = keyEvent.getCode();
+        boolean booShift = keyEvent.isShiftDown();
+        boolean booShortcut = keyEvent.isShortcutDown();
+        long lngCaret = this.lpCaretPosition.get();
+        long lngPage = (long) this.intVisibleRows * INT_ROW_BYTES;
+        switch (keyCode) {
+            case LEFT ->
+                this.moveCaret(lngCaret - 1, booShift);
+            case RIGHT ->
+                this.moveCaret(lngCaret + 1, booShift);
+            case UP ->
+                this.moveCaret(lngCaret - INT_ROW_BYTES, booShift);
+            case DOWN ->
+                this.moveCaret(lngCaret + INT_ROW_BYTES, booShift);
+            case PAGE_UP -> {
+                this.scrollBarV.setValue(clamp(this.scrollBarV.getValue() - this.intVisibleRows, 0, this.scrollBarV.getMax()));
+                this.moveCaret(lngCaret - lngPage, booShift);
+            }
+            case PAGE_DOWN -> {
+                this.scrollBarV.setValue(clamp(this.scrollBarV.getValue() + this.intVisibleRows, 0, this.scrollBarV.getMax()));
+                this.moveCaret(lngCaret + lngPage, booShift);
+            }
+            case HOME ->
+                this.moveCaret(booShortcut ? 0 : lngCaret - lngCaret % INT_ROW_BYTES, booShift);
+            case END ->
+                this.moveCaret(booShortcut ? this.getSize() - 1 : lngCaret - lngCaret % INT_ROW_BYTES + INT_ROW_BYTES - 1, booShift);
+            case TAB -> {
+                if (booShortcut) {
+                    return;
+                }
+                this.booCaretAscii = !this.booCaretAscii;
+                this.moveCaret(lngCaret, booShift);
+            }
+            case A -> {
+                if (!booShortcut) {
+                    return;
+                }
+                this.lpAnchor.set(this.getSize());
+                this.lpCaretPosition.set(0);
+            }
+            case C, INSERT -> {
+                if (!booShortcut) {
+                    return;
+                }
+                this.copy();
+            }
+            default -> {
+                return;
+            }
+        }
+        keyEvent.consume();
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Typed hex digit changes half of byte at caret, typed char in ASCII column changes whole byte.
+    private void keyTyped(KeyEvent keyEvent) {
+
+        String strChar = keyEvent.getCharacter();
+        if (!this.bpEditable.get() || this.binary == null || this.getSize() == 0
+                || strChar == null || strChar.isEmpty() || keyEvent.isShortcutDown() && !keyEvent.isAltDown()) {
+            return;
+        }
+        char ch = strChar.charAt(0);
+        long lngCaret = this.lpCaretPosition.get();
+        byte[] arrByte = new byte[1];
+        try {
+            this.binary.read(lngCaret, arrByte, 0, 1);
+        } catch (Throwable t) {
+            LOGGER.error("Could not read byte."
+                    + " Pos=" + lngCaret
+                    + " Throwable=\"" + t.toString() + "\"");
+            return;
+        }
+        if (this.booCaretAscii) {
+            if (ch < 0x20 || ch >= 0x7F) {
+                return;
+            }
+            this.binary.write(lngCaret, (byte) ch);
+            this.editListener.edited(lngCaret);
+            this.moveCaret(lngCaret + 1, false);
+        } else {
+            int intDigit = Character.digit(ch, 16);
+            if (intDigit < 0) {
+                return;
+            }
+            int intByte = arrByte[0] & 0xFF;
+            if (this.booNibbleLow) {
+                intByte = (intByte & 0xF0) | intDigit;
+            } else {
+                intByte = (intByte & 0x0F) | (intDigit << 4);
+            }
+            this.binary.write(lngCaret, (byte) intByte);
+            this.editListener.edited(lngCaret);
+            if (this.booNibbleLow) {
+                this.moveCaret(lngCaret + 1, false);
+            } else {
+                this.booNibbleLow = true;
+                this.requestLayout();
+            }
+        }
+        keyEvent.consume();
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static void appendHex(StringBuilder sb, byte bt) {
+
+        sb.append(ARR_HEX_DIGITS[(bt >> 4) & 0xF]);
+        sb.append(ARR_HEX_DIGITS[bt & 0xF]);
+    }
+
+    private static long clamp(long lngValue, long lngMin, long lngMax) {
+        return Math.max(lngMin, Math.min(lngMax, lngValue));
+    }
+
+    private static double clamp(double dblValue, double dblMin, double dblMax) {
+        return Math.max(dblMin, Math.min(dblMax, dblValue));
+    }
+
+    // -------------------------------------------------------------------------------------
+}
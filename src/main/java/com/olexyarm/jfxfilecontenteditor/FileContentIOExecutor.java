@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Shared executor of file load, save, backup and find tasks of all editors.
+// Every task gets own virtual thread, but only intThreads tasks do I/O at the same time,
+// others wait in order of submitting, so opening many files does not oversubscribe disk.
+public class FileContentIOExecutor implements Executor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileContentIOExecutor.class);
+
+    private static FileContentIOExecutor executorShared;
+
+    private final int intThreads;
+    private final Semaphore semaphore;
+    private final ExecutorService executorService;
+
+    private final AtomicInteger intQueued = new AtomicInteger();
+    private final AtomicInteger intActive = new AtomicInteger();
+    private final AtomicLong lngCompleted = new AtomicLong();
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentIOExecutor(int intThreads) {
+
+        this.intThreads = Math.max(1, intThreads);
+        this.semaphore = new Semaphore(this.intThreads, true);
+        this.executorService = Executors.newVirtualThreadPerTaskExecutor();
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Executor is created on first use with number of threads from Settings.
+    public static synchronized FileContentIOExecutor getShared() {
+
+        if (executorShared == null) {
+            executorShared = new FileContentIOExecutor(Settings.INT_IO_THREADS);
+            LOGGER.info("Created shared IO executor."
+                    + " Threads=" + executorShared.intThreads);
+        }
+        return executorShared;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    @Override
+    public void execute(final Runnable runnable) {
+
+        this.intQueued.incrementAndGet();
+        this.executorService.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    semaphore.acquire();
+                } catch (InterruptedException e) {
+                    intQueued.decrementAndGet();
+                    LOGGER.info("IO task cancelled while waiting."
+                            + " Queued=" + intQueued.get()
+                            + " Active=" + intActive.get());
+                    return;
+                }
+                intQueued.decrementAndGet();
+                intActive.incrementAndGet();
+                try {
+                    runnable.run();
+                } finally {
+                    intActive.decrementAndGet();
+                    lngCompleted.incrementAndGet();
+                    semaphore.release();
+                }
+            }
+        });
+        LOGGER.debug("IO task submitted."
+                + " Queued=" + this.intQueued.get()
+                + " Active=" + this.intActive.get()
+                + " Completed=" + this.lngCompleted.get());
+    }
+
+    // -------------------------------------------------------------------------------------
+    public int getThreads() {
+        return this.intThreads;
+    }
+
+    // Tasks waiting for free thread.
+    public int getQueueDepth() {
+        return this.intQueued.get();
+    }
+
+    // Tasks doing I/O now.
+    public int getActiveCount() {
+        return this.intActive.get();
+    }
+
+    public long getCompletedCount() {
+        return this.lngCompleted.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Threads=" + this.intThreads
+                + " Queued=" + this.intQueued.get()
+                + " Active=" + this.intActive.get()
+                + " Completed=" + this.lngCompleted.get();
+    }
+
+    // -------------------------------------------------------------------------------------
+}
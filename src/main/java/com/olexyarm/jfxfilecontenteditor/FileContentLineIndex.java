@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+// Lines of Document: line starts after "\n", "\r\n" or single "\r", line 0 starts at 0.
+// Index is updated by Document after every edit.
+public interface FileContentLineIndex {
+
+    int getLineCount();
+
+    long getLineStart(int intLine);
+
+    int getLineOfOffset(long lngPos);
+
+    void edited(FileContentDocument.Snapshot snapshot, long lngPos, long lngLenRemoved, long lngLenInserted);
+
+    String getLineSeparatorDetected();
+
+    String getLineSeparatorsStat();
+}
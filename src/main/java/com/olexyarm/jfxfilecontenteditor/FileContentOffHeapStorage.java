@@ -0,0 +1,204 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.util.Arrays;
+
+// Append-only storage of chunks in memory outside of Java heap, used for original content of large files,
+// so heap and GC pauses do not grow with size of open files. Edits are kept by Document on heap.
+// Like chunk storage, chunk is Latin-1 (byte per char) until the first other char is appended into it.
+// Every chunk is allocated in own automatic arena, it is released by GC after chunk is not used
+// (tab is closed or Latin-1 chunk is replaced), reader never gets released memory.
+public class FileContentOffHeapStorage implements FileContentAppendStorage {
+
+    public static final int INT_CHUNK_SIZE_DEFAULT = 64 * 1024;
+    // Latin-1 bytes are copied between segment and heap by blocks, access by single byte is slow.
+    private static final int INT_COPY_BLOCK_SIZE = 8 * 1024;
+
+    private final int intChunkSize;
+    private volatile MemorySegment[] arrChunks = new MemorySegment[0];
+    private volatile long lngLength;
+    private int intChunksUtf16;
+    private long lngChunksBytes;
+    // Used by appending thread only.
+    private final byte[] arrBytesAppend = new byte[INT_COPY_BLOCK_SIZE];
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentOffHeapStorage() {
+        this(INT_CHUNK_SIZE_DEFAULT);
+    }
+
+    public FileContentOffHeapStorage(int intChunkSize) {
+        this.intChunkSize = intChunkSize;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    @Override
+    public long length() {
+        return this.lngLength;
+    }
+
+    @Override
+    public char charAt(long lngPos) {
+
+        MemorySegment segment = this.arrChunks[(int) (lngPos / this.intChunkSize)];
+        long lngChunkPos = lngPos % this.intChunkSize;
+        if (segment.byteSize() == this.intChunkSize) {
+            return (char) (segment.get(ValueLayout.JAVA_BYTE, lngChunkPos) & 0xFF);
+        }
+        return segment.getAtIndex(ValueLayout.JAVA_CHAR_UNALIGNED, lngChunkPos);
+    }
+
+    @Override
+    public void getChars(long lngStart, long lngEnd, char[] arrDst, int intDstPos) {
+
+        MemorySegment[] arrChunksCurrent = this.arrChunks;
+        long lngPos = lngStart;
+        while (lngPos < lngEnd) {
+            int intChunk = (int) (lngPos / this.intChunkSize);
+            int intChunkPos = (int) (lngPos % this.intChunkSize);
+            int intCount = (int) Math.min(lngEnd - lngPos, this.intChunkSize - intChunkPos);
+            MemorySegment segment = arrChunksCurrent[intChunk];
+            if (segment.byteSize() == this.intChunkSize) {
+                byte[] arrBytes = new byte[Math.min(intCount, INT_COPY_BLOCK_SIZE)];
+                for (int i = 0; i < intCount; i += arrBytes.length) {
+                    int intBlockLen = Math.min(arrBytes.length, intCount - i);
+                    MemorySegment.copy(segment, ValueLayout.JAVA_BYTE, intChunkPos + i, arrBytes, 0, intBlockLen);
+                    for (int j = 0; j < intBlockLen; j++) {
+                        arrDst[intDstPos + i + j] = (char) (arrBytes[j] & 0xFF);
+                    }
+                }
+            } else {
+                MemorySegment.copy(segment, ValueLayout.JAVA_CHAR_UNALIGNED, (long) intChunkPos * Character.BYTES,
+                        arrDst, intDstPos, intCount);
+            }
+            intDstPos += intCount;
+            lngPos += intCount;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    @Override
+    public long append(char[] arrChars, int intFrom, int intTo) {
+
+        long lngStart = this.lngLength;
+        int intPos = intFrom;
+        while (intPos < intTo) {
+            int intChunk = (int) (this.lngLength / this.intChunkSize);
+            int intChunkPos = (int) (this.lngLength % this.intChunkSize);
+            int intCount = Math.min(intTo - intPos, this.intChunkSize - intChunkPos);
+            MemorySegment segment = this.chunkForAppend(intChunk);
+            if (segment.byteSize() == this.intChunkSize) {
+                int intLatin1 = this.copyLatin1(arrChars, intPos, segment, intChunkPos, intCount);
+                if (intLatin1 < intCount) {
+                    segment = this.chunkToUtf16(intChunk, segment, intChunkPos + intLatin1);
+                    MemorySegment.copy(arrChars, intPos + intLatin1, segment, ValueLayout.JAVA_CHAR_UNALIGNED,
+                            (long) (intChunkPos + intLatin1) * Character.BYTES, intCount - intLatin1);
+                }
+            } else {
+                MemorySegment.copy(arrChars, intPos, segment, ValueLayout.JAVA_CHAR_UNALIGNED,
+                        (long) intChunkPos * Character.BYTES, intCount);
+            }
+            intPos += intCount;
+            this.lngLength += intCount;
+        }
+        return lngStart;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Memory used by chunks outside of heap, for logging.
+    public long getChunksBytes() {
+        return this.lngChunksBytes;
+    }
+
+    public int getChunksUtf16() {
+        return this.intChunksUtf16;
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeap Length=" + this.lngLength
+                + " ChunkSize=" + this.intChunkSize
+                + " ChunksUtf16=" + this.intChunksUtf16
+                + " ChunksBytes=" + this.lngChunksBytes;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------------------
+    private MemorySegment chunkForAppend(int intChunk) {
+
+        // Chars are written into chunk before length is changed, readers see them after reading length.
+        MemorySegment[] arrChunksCurrent = this.arrChunks;
+        if (intChunk >= arrChunksCurrent.length) {
+            arrChunksCurrent = Arrays.copyOf(arrChunksCurrent, Math.max(intChunk + 1, arrChunksCurrent.length * 2));
+        }
+        if (arrChunksCurrent[intChunk] == null) {
+            arrChunksCurrent[intChunk] = Arena.ofAuto().allocate(this.intChunkSize);
+            this.lngChunksBytes += this.intChunkSize;
+            this.arrChunks = arrChunksCurrent;
+        }
+        return arrChunksCurrent[intChunk];
+    }
+
+    // Stored chars are copied into new UTF-16 chunk, reader of old Latin-1 chunk gets the same chars.
+    // Kind of chunk is known by its size, Latin-1 chunk has intChunkSize bytes, UTF-16 chunk has twice more.
+    private MemorySegment chunkToUtf16(int intChunk, MemorySegment segmentLatin1, int intLen) {
+
+        MemorySegment segment = Arena.ofAuto().allocate((long) this.intChunkSize * Character.BYTES);
+        for (int i = 0; i < intLen; i++) {
+            segment.setAtIndex(ValueLayout.JAVA_CHAR_UNALIGNED, i, (char) (segmentLatin1.get(ValueLayout.JAVA_BYTE, i) & 0xFF));
+        }
+        MemorySegment[] arrChunksCurrent = this.arrChunks;
+        arrChunksCurrent[intChunk] = segment;
+        this.arrChunks = arrChunksCurrent;
+        this.intChunksUtf16++;
+        // Latin-1 chunk is released by GC when readers do not use it.
+        this.lngChunksBytes += (long) this.intChunkSize * Character.BYTES - this.intChunkSize;
+        return segment;
+    }
+
+    // Returns number of copied chars, copy stops at the first char above Latin-1.
+    private int copyLatin1(char[] arrChars, int intFrom, MemorySegment segment, int intSegmentPos, int intCount) {
+
+        int i = 0;
+        while (i < intCount) {
+            int intBlockLen = Math.min(this.arrBytesAppend.length, intCount - i);
+            int j = 0;
+            for (; j < intBlockLen; j++) {
+                char ch = arrChars[intFrom + i + j];
+                if (ch > 0xFF) {
+                    break;
+                }
+                this.arrBytesAppend[j] = (byte) ch;
+            }
+            MemorySegment.copy(this.arrBytesAppend, 0, segment, ValueLayout.JAVA_BYTE, intSegmentPos + i, j);
+            i += j;
+            if (j < intBlockLen) {
+                break;
+            }
+        }
+        return i;
+    }
+
+    // -------------------------------------------------------------------------------------
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Storage of large file content which stays on disk. File is decoded once in background pass,
+// byte offset of every block of chars and line checkpoints are recorded, chars are not kept.
+// Blocks are read and decoded again when they are viewed or searched, decoded blocks are kept in LRU cache.
+// Like chunk storage, one thread loads blocks while other threads read already loaded blocks.
+// File channel stays open until storage is closed, after file is saved (moved over) it still reads content the Document was loaded from.
+public class FileContentPagedStorage implements FileContentStorage {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileContentPagedStorage.class);
+
+    public static final int INT_BLOCK_SIZE_DEFAULT = 64 * 1024;
+    private static final int INT_FILE_MAPPED_REGION_SIZE = 256 * 1024 * 1024;
+    private static final int INT_BLOCKS_CAPACITY_MIN = 1024;
+
+    private final Path pathFile;
+    private final FileChannel fileChannel;
+    private final Charset charset;
+    // Charset of blocks after the first one, it is set from BOM for charsets with byte order mark.
+    private Charset charsetBlocks;
+    private final int intBlockSize;
+    private final int intCacheBlocksMax;
+
+    // Block i has chars [arrBlockCharStarts[i], arrBlockCharStarts[i + 1])
+    // decoded from bytes [arrBlockByteStarts[i], arrBlockByteStarts[i + 1]).
+    private volatile long[] arrBlockCharStarts = new long[INT_BLOCKS_CAPACITY_MIN];
+    private volatile long[] arrBlockByteStarts = new long[INT_BLOCKS_CAPACITY_MIN];
+    private volatile int intBlockCount = 0;
+    private volatile long lngLength = 0;
+
+    private final LinkedHashMap<Integer, char[]> mapCache;
+    private long lngCacheHits = 0;
+    private long lngCacheMisses = 0;
+
+    // -------------------------------------------------------------------------------------
+    public interface LoadListener {
+
+        // Called after every block of file is decoded, returns false to stop loading.
+        boolean loaded(long lngBytesRead);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentPagedStorage(Path pathFile, Charset charset, long lngCacheSize) throws IOException {
+
+        this.pathFile = pathFile;
+        this.charset = charset;
+        this.charsetBlocks = charset;
+        this.intBlockSize = INT_BLOCK_SIZE_DEFAULT;
+        // Cache size is in bytes, char takes 2 bytes.
+        this.intCacheBlocksMax = (int) Math.max(2, Math.min(Integer.MAX_VALUE, lngCacheSize / 2 / this.intBlockSize));
+        this.mapCache = new LinkedHashMap<Integer, char[]>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, char[]> eldest) {
+                return this.size() > intCacheBlocksMax;
+            }
+        };
+        this.fileChannel = FileChannel.open(pathFile, StandardOpenOption.READ);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    @Override
+    public long length() {
+        return this.lngLength;
+    }
+
+    @Override
+    public char charAt(long lngPos) {
+
+        int intBlock = this.findBlock(lngPos);
+        char[] arrBlock = this.getBlock(intBlock);
+        return arrBlock[(int) (lngPos - this.arrBlockCharStarts[intBlock])];
+    }
+
+    @Override
+    public void getChars(long lngStart, long lngEnd, char[] arrDst, int intDstPos) {
+
+        long lngPos = lngStart;
+        int intBlock = this.findBlock(lngPos);
+        while (lngPos < lngEnd) {
+            char[] arrBlock = this.getBlock(intBlock);
+            long lngBlockStart = this.arrBlockCharStarts[intBlock];
+            int intBlockPos = (int) (lngPos - lngBlockStart);
+            int intCount = (int) Math.min(lngEnd - lngPos, arrBlock.length - intBlockPos);
+            System.arraycopy(arrBlock, intBlockPos, arrDst, intDstPos, intCount);
+            intDstPos += intCount;
+            lngPos += intCount;
+            intBlock++;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Background pass over file: blocks and line checkpoints are recorded, storage length grows while file is decoded.
+    // Decoded bytes are hashed into fingerprint by the same pass, file is not read again for fingerprint.
+    // Returns false if loading was stopped by listener.
+    public boolean load(FileContentSparseLineIndex lineIndex, FileContentFingerprint.Builder fingerprintBuilder, LoadListener loadListener) throws IOException {
+
+        long lngFileSize = this.fileChannel.size();
+        CharsetDecoder cd = this.newDecoder(this.charset);
+        CharBuffer charBuffer = CharBuffer.allocate(this.intBlockSize);
+        this.detectByteOrder();
+        this.setBlockStart(0, 0, 0);
+        long lngRegionPos = 0;
+        while (true) {
+            long lngRegionSize = Math.min(INT_FILE_MAPPED_REGION_SIZE, lngFileSize - lngRegionPos);
+            boolean booEndOfInput = lngRegionPos + lngRegionSize >= lngFileSize;
+            MappedByteBuffer mbb = this.fileChannel.map(FileChannel.MapMode.READ_ONLY, lngRegionPos, lngRegionSize);
+            CoderResult coderResult;
+            do {
+                // Decoder input is limited by fingerprint block, so char position is known for every block.
+                int intPosFrom = mbb.position();
+                mbb.limit((int) Math.min(lngRegionSize, intPosFrom + FileContentFingerprint.INT_BLOCK_SIZE));
+                coderResult = cd.decode(mbb, charBuffer, booEndOfInput && mbb.limit() == lngRegionSize);
+                fingerprintBuilder.decoded(mbb, intPosFrom, this.lngLength + charBuffer.position());
+                if (coderResult.isOverflow()) {
+                    // Block is full, it ends at the byte where decoder stopped.
+                    this.endBlock(charBuffer, lineIndex, lngRegionPos + mbb.position());
+                    if (!loadListener.loaded(lngRegionPos + mbb.position())) {
+                        return false;
+                    }
+                }
+            } while (coderResult.isOverflow() || mbb.limit() < lngRegionSize);
+            if (booEndOfInput) {
+                while (cd.flush(charBuffer).isOverflow()) {
+                    this.endBlock(charBuffer, lineIndex, lngRegionPos + mbb.position());
+                }
+                if (charBuffer.position() > 0) {
+                    this.endBlock(charBuffer, lineIndex, lngFileSize);
+                }
+                fingerprintBuilder.decoded(mbb, mbb.position(), this.lngLength);
+                loadListener.loaded(lngFileSize);
+                break;
+            }
+            // Not decoded bytes at the end of region (partial character) are mapped again with next region.
+            lngRegionPos += mbb.position();
+        }
+        LOGGER.debug("Loaded large file."
+                + " pathFile=\"" + this.pathFile + "\""
+                + " Charset=\"" + this.charset + "\""
+                + " CharsetBlocks=\"" + this.charsetBlocks + "\""
+                + " FileSize=" + lngFileSize
+                + " Length=" + this.lngLength
+                + " Blocks=" + this.intBlockCount);
+        return true;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // File channel is closed when Document is replaced or closed, blocks are not read after it.
+    public void close() {
+
+        try {
+            this.fileChannel.close();
+        } catch (IOException e) {
+            LOGGER.error("Could not close large file."
+                    + " pathFile=\"" + this.pathFile + "\""
+                    + " IOException=\"" + e.toString() + "\"");
+        }
+        synchronized (this) {
+            this.mapCache.clear();
+        }
+    }
+
+    public synchronized String getCacheStat() {
+        return "CacheBlocks=" + this.mapCache.size() + "/" + this.intCacheBlocksMax
+                + " Hits=" + this.lngCacheHits + " Misses=" + this.lngCacheMisses;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------------------
+    private void endBlock(CharBuffer charBuffer, FileContentSparseLineIndex lineIndex, long lngByteEnd) {
+
+        charBuffer.flip();
+        int intCount = charBuffer.remaining();
+        lineIndex.scan(charBuffer.array(), charBuffer.arrayOffset() + charBuffer.position(), charBuffer.arrayOffset() + charBuffer.limit());
+        charBuffer.clear();
+        if (intCount == 0) {
+            return;
+        }
+        this.setBlockStart(this.intBlockCount + 1, this.lngLength + intCount, lngByteEnd);
+        this.intBlockCount++;
+        this.lngLength += intCount;
+    }
+
+    // Start of block (end of previous block) is written before count and length are changed,
+    // readers see it after reading length.
+    private void setBlockStart(int intIndex, long lngCharStart, long lngByteStart) {
+
+        long[] arrCharStarts = this.arrBlockCharStarts;
+        long[] arrByteStarts = this.arrBlockByteStarts;
+        if (intIndex >= arrCharStarts.length) {
+            arrCharStarts = Arrays.copyOf(arrCharStarts, arrCharStarts.length * 2);
+            arrByteStarts = Arrays.copyOf(arrByteStarts, arrByteStarts.length * 2);
+        }
+        arrCharStarts[intIndex] = lngCharStart;
+        arrByteStarts[intIndex] = lngByteStart;
+        this.arrBlockCharStarts = arrCharStarts;
+        this.arrBlockByteStarts = arrByteStarts;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private int findBlock(long lngPos) {
+
+        long[] arrCharStarts = this.arrBlockCharStarts;
+        int intLow = 0;
+        int intHigh = this.intBlockCount - 1;
+        while (intLow < intHigh) {
+            int intMid = (intLow + intHigh + 1) >>> 1;
+            if (arrCharStarts[intMid] <= lngPos) {
+                intLow = intMid;
+            } else {
+                intHigh = intMid - 1;
+            }
+        }
+        return intLow;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private char[] getBlock(int intBlock) {
+
+        synchronized (this) {
+            char[] arrBlock = this.mapCache.get(intBlock);
+            if (arrBlock != null) {
+                this.lngCacheHits++;
+                return arrBlock;
+            }
+            this.lngCacheMisses++;
+        }
+        // Block is decoded outside of lock, the same block could be decoded by two threads at the same time.
+        char[] arrBlock = this.readBlock(intBlock);
+        synchronized (this) {
+            this.mapCache.put(intBlock, arrBlock);
+        }
+        return arrBlock;
+    }
+
+    private char[] readBlock(int intBlock) {
+
+        long[] arrCharStarts = this.arrBlockCharStarts;
+        long[] arrByteStarts = this.arrBlockByteStarts;
+        int intCharCount = (int) (arrCharStarts[intBlock + 1] - arrCharStarts[intBlock]);
+        long lngByteStart = arrByteStarts[intBlock];
+        int intByteCount = (int) (arrByteStarts[intBlock + 1] - lngByteStart);
+        ByteBuffer byteBuffer = ByteBuffer.allocate(intByteCount);
+        try {
+            while (byteBuffer.hasRemaining()) {
+                int intRead = this.fileChannel.read(byteBuffer, lngByteStart + byteBuffer.position());
+                if (intRead < 0) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Could not read block of large file."
+                    + " pathFile=\"" + this.pathFile + "\""
+                    + " Block=" + intBlock
+                    + " IOException=\"" + e.toString() + "\"");
+            throw new UncheckedIOException(e);
+        }
+        byteBuffer.flip();
+        char[] arrBlock = new char[intCharCount];
+        CharBuffer charBuffer = CharBuffer.wrap(arrBlock);
+        Charset charsetBlock = intBlock == 0 ? this.charset : this.charsetBlocks;
+        CharsetDecoder cd = this.newDecoder(charsetBlock);
+        cd.decode(byteBuffer, charBuffer, true);
+        cd.flush(charBuffer);
+        if (charBuffer.hasRemaining() || byteBuffer.hasRemaining()) {
+            // File was changed after it was loaded, the rest of block is filled with replacement.
+            LOGGER.error("Block of large file is decoded to different length."
+                    + " pathFile=\"" + this.pathFile + "\""
+                    + " Block=" + intBlock
+                    + " CharCount=" + intCharCount
+                    + " CharsDecoded=" + charBuffer.position());
+            Arrays.fill(arrBlock, charBuffer.position(), arrBlock.length, '?');
+        }
+        return arrBlock;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Decoder of UTF-16 and UTF-32 reads byte order from BOM of the first block only,
+    // other blocks are decoded with charset of known byte order.
+    private void detectByteOrder() throws IOException {
+
+        String strCharsetName = this.charset.name();
+        if (!strCharsetName.equals("UTF-16") && !strCharsetName.equals("UTF-32")) {
+            return;
+        }
+        ByteBuffer byteBuffer = ByteBuffer.allocate(4);
+        this.fileChannel.read(byteBuffer, 0);
+        byte[] arrBytes = byteBuffer.array();
+        boolean booUtf16 = strCharsetName.equals("UTF-16");
+        if (booUtf16) {
+            this.charsetBlocks = StandardCharsets.UTF_16BE;
+            if ((arrBytes[0] & 0xFF) == 0xFF && (arrBytes[1] & 0xFF) == 0xFE) {
+                this.charsetBlocks = StandardCharsets.UTF_16LE;
+            }
+        } else {
+            this.charsetBlocks = Charset.forName("UTF-32BE");
+            if ((arrBytes[0] & 0xFF) == 0xFF && (arrBytes[1] & 0xFF) == 0xFE && arrBytes[2] == 0 && arrBytes[3] == 0) {
+                this.charsetBlocks = Charset.forName("UTF-32LE");
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    private CharsetDecoder newDecoder(Charset charsetDecoder) {
+
+        // The same actions as file loader, so blocks are decoded the same way.
+        CharsetDecoder cd = charsetDecoder.newDecoder();
+        cd.onMalformedInput(CodingErrorAction.REPLACE);
+        cd.onUnmappableCharacter(CodingErrorAction.REPLACE);
+        cd.replaceWith("?");
+        return cd;
+    }
+
+    // -------------------------------------------------------------------------------------
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.util.Objects;
+import java.util.concurrent.CancellationException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Compiled find text with search mode (literal or regex, ignore case, whole word).
+// Literal text is searched with Boyer-Moore-Horspool skip, regex is searched on CharSequence view of Document.
+public final class FileContentSearchPattern {
+
+    private static final int INT_READ_BLOCK_SIZE = 1024 * 1024;
+    private static final int INT_SHIFT_TABLE_SIZE = 256;
+
+    // Chars before block are given to regex for "^", "\b" and look behind.
+    private static final int INT_REGEX_LOOK_BEHIND = 256;
+    // Regex search not matched at the end of window is continued from this number of chars before window end.
+    private static final int INT_REGEX_OVERLAP = 64 * 1024;
+    private static final int INT_REGEX_WINDOW_SIZE = 1024 * 1024 * 1024;
+    private static final int INT_REGEX_CACHE_SIZE = 64 * 1024;
+
+    private final String strText;
+    private final boolean booRegex;
+    private final boolean booIgnoreCase;
+    private final boolean booWholeWord;
+
+    private final Pattern pattern;
+    private final char[] arrFind;
+    private final int[] arrShift;
+
+    // -------------------------------------------------------------------------------------
+    public interface MatchListener {
+
+        void found(long lngStart, long lngEnd);
+
+        // Search reached lngPos, it is called once per block of chars.
+        default void searched(long lngPos) {
+        }
+
+        // Search is stopped when it returns true.
+        default boolean isCancelled() {
+            return Thread.currentThread().isInterrupted();
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    // Throws PatternSyntaxException for not valid regex.
+    public FileContentSearchPattern(String strText, boolean booRegex, boolean booIgnoreCase, boolean booWholeWord) {
+
+        if (strText == null || strText.isEmpty()) {
+            throw new IllegalArgumentException("Find text is null or empty.");
+        }
+        this.strText = strText;
+        this.booRegex = booRegex;
+        this.booIgnoreCase = booIgnoreCase;
+        this.booWholeWord = booWholeWord;
+
+        if (booRegex) {
+            int intFlags = Pattern.MULTILINE;
+            if (booIgnoreCase) {
+                intFlags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+            }
+            String strRegex = strText;
+            if (booWholeWord) {
+                strRegex = "\\b(?:" + strText + ")\\b";
+            }
+            this.pattern = Pattern.compile(strRegex, intFlags);
+            this.arrFind = null;
+            this.arrShift = null;
+        } else {
+            this.pattern = null;
+            int intLen = strText.length();
+            this.arrFind = new char[intLen];
+            for (int i = 0; i < intLen; i++) {
+                this.arrFind[i] = this.fold(strText.charAt(i));
+            }
+            // Shift by last char of window, chars with the same low byte share the smallest shift.
+            this.arrShift = new int[INT_SHIFT_TABLE_SIZE];
+            for (int i = 0; i < INT_SHIFT_TABLE_SIZE; i++) {
+                this.arrShift[i] = intLen;
+            }
+            for (int i = 0; i < intLen - 1; i++) {
+                this.arrShift[this.arrFind[i] & 0xFF] = intLen - 1 - i;
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    public String getText() {
+        return this.strText;
+    }
+
+    public boolean isRegex() {
+        return this.booRegex;
+    }
+
+    public boolean isIgnoreCase() {
+        return this.booIgnoreCase;
+    }
+
+    public boolean isWholeWord() {
+        return this.booWholeWord;
+    }
+
+    // Literal match depends only on its chars and chars around it (whole word), so it can be updated on edits.
+    public boolean isIncremental() {
+        return !this.booRegex;
+    }
+
+    // Number of chars around literal match it depends on.
+    public int getContextLength() {
+        return this.booWholeWord ? 1 : 0;
+    }
+
+    // Length of literal match.
+    public int getLength() {
+        return this.strText.length();
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Find all matches starting in [lngFrom, lngTo), chars up to match length after lngTo are read too.
+    // Search is stopped by CancellationException when MatchListener is cancelled.
+    public void findAll(FileContentDocument.Snapshot snapshot, long lngFrom, long lngTo, MatchListener matchListener) {
+
+        lngFrom = Math.max(0, lngFrom);
+        lngTo = Math.min(snapshot.length(), lngTo);
+        if (lngFrom > lngTo) {
+            return;
+        }
+        if (this.booRegex) {
+            this.findAllRegex(snapshot, lngFrom, lngTo, matchListener);
+        } else {
+            this.findAllLiteral(snapshot, lngFrom, lngTo, matchListener);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    @Override
+    public boolean equals(Object obj) {
+
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof FileContentSearchPattern)) {
+            return false;
+        }
+        FileContentSearchPattern other = (FileContentSearchPattern) obj;
+        return this.booRegex == other.booRegex
+                && this.booIgnoreCase == other.booIgnoreCase
+                && this.booWholeWord == other.booWholeWord
+                && this.strText.equals(other.strText);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.strText, this.booRegex, this.booIgnoreCase, this.booWholeWord);
+    }
+
+    @Override
+    public String toString() {
+        return "Text=\"" + this.strText + "\""
+                + " Regex=" + this.booRegex
+                + " IgnoreCase=" + this.booIgnoreCase
+                + " WholeWord=" + this.booWholeWord;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------------------
+    private void findAllLiteral(FileContentDocument.Snapshot snapshot, long lngFrom, long lngTo, MatchListener matchListener) {
+
+        int intLen = this.arrFind.length;
+        long lngDocLen = snapshot.length();
+        // Last char of last possible match.
+        long lngEnd = Math.min(lngDocLen, lngTo + intLen - 1);
+        // Block has one char before and one char after candidates for whole word check.
+        char[] arrBlock = new char[(int) Math.min(INT_READ_BLOCK_SIZE + intLen + 1, lngDocLen)];
+        long lngBlockStart = lngFrom;
+        while (lngBlockStart + intLen <= lngEnd) {
+            checkProgress(matchListener, lngBlockStart);
+            long lngReadFrom = Math.max(0, lngBlockStart - 1);
+            long lngCandidatesEnd = Math.min(lngEnd, lngBlockStart + INT_READ_BLOCK_SIZE + intLen - 1);
+            long lngReadTo = Math.min(lngDocLen, lngCandidatesEnd + 1);
+            int intBlockLen = (int) (lngReadTo - lngReadFrom);
+            snapshot.getChars(lngReadFrom, lngReadTo, arrBlock, 0);
+            int intLast = (int) (lngCandidatesEnd - lngReadFrom) - intLen;
+            int i = (int) (lngBlockStart - lngReadFrom);
+            while (i <= intLast) {
+                int j = intLen - 1;
+                while (j >= 0 && this.fold(arrBlock[i + j]) == this.arrFind[j]) {
+                    j--;
+                }
+                if (j < 0 && (!this.booWholeWord || isWholeWord(arrBlock, i, intLen, intBlockLen, lngReadFrom))) {
+                    matchListener.found(lngReadFrom + i, lngReadFrom + i + intLen);
+                    // Matches do not overlap, search continues after the end of match.
+                    i += intLen;
+                    continue;
+                }
+                i += this.arrShift[this.fold(arrBlock[i + intLen - 1]) & 0xFF];
+            }
+            lngBlockStart = lngReadFrom + i;
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void findAllRegex(FileContentDocument.Snapshot snapshot, long lngFrom, long lngTo, MatchListener matchListener) {
+
+        // Regex is matched on CharSequence view of Document window, windows are used only for Document
+        // longer than CharSequence max length.
+        long lngDocLen = snapshot.length();
+        // Next match must start at or after lngMinStart.
+        long lngMinStart = lngFrom;
+        long lngPos = lngFrom;
+        while (true) {
+            checkProgress(matchListener, lngPos);
+            long lngReadFrom = Math.max(0, lngPos - INT_REGEX_LOOK_BEHIND);
+            long lngReadTo = Math.min(lngDocLen, lngReadFrom + INT_REGEX_WINDOW_SIZE);
+            boolean booDocEnd = lngReadTo == lngDocLen;
+            Matcher matcher = this.pattern.matcher(new SnapshotChars(snapshot, lngReadFrom, (int) (lngReadTo - lngReadFrom), matchListener));
+            matcher.useTransparentBounds(true);
+            matcher.useAnchoringBounds(false);
+            matcher.region((int) (lngPos - lngReadFrom), (int) (lngReadTo - lngReadFrom));
+            long lngPosNext;
+            while (true) {
+                if (!matcher.find()) {
+                    if (!booDocEnd && matcher.hitEnd()) {
+                        // Match could start in the end of window and continue in next window.
+                        lngPosNext = Math.max(lngMinStart, lngReadTo - INT_REGEX_OVERLAP);
+                    } else {
+                        lngPosNext = lngReadTo;
+                    }
+                    break;
+                }
+                long lngStart = lngReadFrom + matcher.start();
+                long lngEnd = lngReadFrom + matcher.end();
+                // Empty match at the end of Document (like "$") starts at Document length.
+                if (lngStart > lngTo || (lngStart == lngTo && lngTo < lngDocLen)) {
+                    lngPosNext = lngTo;
+                    break;
+                }
+                if (!booDocEnd && matcher.hitEnd() && lngStart > lngPos) {
+                    // Match could be longer in next window, search again from its start.
+                    lngPosNext = lngStart;
+                    break;
+                }
+                if (lngStart >= lngMinStart) {
+                    matchListener.found(lngStart, lngEnd);
+                    lngMinStart = lngEnd > lngStart ? lngEnd : lngStart + 1;
+                }
+            }
+            if (booDocEnd) {
+                // The rest of Document is searched.
+                break;
+            }
+            lngPos = lngPosNext;
+            if (lngPos >= lngTo && lngTo < lngDocLen) {
+                break;
+            }
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    private char fold(char ch) {
+
+        if (!this.booIgnoreCase) {
+            return ch;
+        }
+        if (ch < 128) {
+            if (ch >= 'A' && ch <= 'Z') {
+                return (char) (ch + ('a' - 'A'));
+            }
+            return ch;
+        }
+        return Character.toLowerCase(Character.toUpperCase(ch));
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static boolean isWholeWord(char[] arrBlock, int intStart, int intLen, int intBlockLen, long lngBlockStart) {
+
+        if (lngBlockStart + intStart > 0 && isWordChar(arrBlock[intStart - 1])) {
+            return false;
+        }
+        int intEnd = intStart + intLen;
+        return intEnd >= intBlockLen || !isWordChar(arrBlock[intEnd]);
+    }
+
+    private static boolean isWordChar(char ch) {
+        return ch == '_' || Character.isLetterOrDigit(ch);
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static void checkProgress(MatchListener matchListener, long lngPos) {
+
+        matchListener.searched(lngPos);
+        if (matchListener.isCancelled()) {
+            throw new CancellationException("Search cancelled.");
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Classes
+    // -------------------------------------------------------------------------------------
+    // CharSequence of Document range, chars are read by blocks (regex reads mostly forward).
+    private static final class SnapshotChars implements CharSequence {
+
+        private final FileContentDocument.Snapshot snapshot;
+        private final MatchListener matchListener;
+        private final long lngOffset;
+        private final int intLength;
+        private final char[] arrCache;
+        private int intCacheStart = 0;
+        private int intCacheLen = 0;
+
+        private SnapshotChars(FileContentDocument.Snapshot snapshot, long lngOffset, int intLength, MatchListener matchListener) {
+
+            this.snapshot = snapshot;
+            this.matchListener = matchListener;
+            this.lngOffset = lngOffset;
+            this.intLength = intLength;
+            this.arrCache = new char[Math.min(INT_REGEX_CACHE_SIZE, intLength)];
+        }
+
+        @Override
+        public int length() {
+            return this.intLength;
+        }
+
+        @Override
+        public char charAt(int intIdx) {
+
+            int intCacheIdx = intIdx - this.intCacheStart;
+            if (intCacheIdx >= 0 && intCacheIdx < this.intCacheLen) {
+                return this.arrCache[intCacheIdx];
+            }
+            if (intIdx < 0 || intIdx >= this.intLength) {
+                throw new IndexOutOfBoundsException("Index " + intIdx + " is out of length " + this.intLength);
+            }
+            checkProgress(this.matchListener, this.lngOffset + intIdx);
+            // Keep some chars before index for backtracking.
+            this.intCacheStart = Math.max(0, Math.min(intIdx - this.arrCache.length / 4, this.intLength - this.arrCache.length));
+            this.intCacheLen = Math.min(this.arrCache.length, this.intLength - this.intCacheStart);
+            this.snapshot.getChars(this.lngOffset + this.intCacheStart, this.lngOffset + this.intCacheStart + this.intCacheLen, this.arrCache, 0);
+            return this.arrCache[intIdx - this.intCacheStart];
+        }
+
+        @Override
+        public CharSequence subSequence(int intStart, int intEnd) {
+            return this.snapshot.getText(this.lngOffset + intStart, this.lngOffset + intEnd);
+        }
+
+        @Override
+        public String toString() {
+            return this.snapshot.getText(this.lngOffset, this.lngOffset + this.intLength);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+}
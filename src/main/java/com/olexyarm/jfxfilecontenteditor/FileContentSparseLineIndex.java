@@ -0,0 +1,430 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.util.Arrays;
+
+// Line index of large file: only checkpoints are kept, a checkpoint for every INT_CHECKPOINT_DISTANCE chars
+// with count of line starts before it. Line starts between two checkpoints are found by scanning chars
+// when they are needed, line starts of the last scanned gap are cached.
+// Checkpoints after the last edit are kept with pending delta, like in array line index.
+public class FileContentSparseLineIndex implements FileContentLineIndex {
+
+    private static final int INT_CHECKPOINTS_CAPACITY_MIN = 1024;
+    private static final int INT_CHECKPOINT_DISTANCE = 64 * 1024;
+    private static final int INT_SCAN_BLOCK_SIZE = 64 * 1024;
+
+    // Chars of Document: storage until the first edit, snapshot of Document after edit.
+    // Storage grows while file is loading, length of indexed chars is kept separately.
+    private FileContentStorage storageChars;
+    private long lngLength = 0;
+
+    // Checkpoint i is at arrCheckPos[i], count of line starts before it (not counting line 0) is arrCheckLine[i].
+    // Real values are arrCheckPos[i] + lngDeltaPos and arrCheckLine[i] + intDeltaLine for i >= intDeltaFrom.
+    private long[] arrCheckPos;
+    private int[] arrCheckLine;
+    private int intCheckCount;
+    private int intDeltaFrom;
+    private long lngDeltaPos;
+    private int intDeltaLine;
+    // Checkpoint arrays are shared with copy made while file is loading, they are copied before edit.
+    private boolean booShared = false;
+
+    private int intLineCount;
+
+    // Line starts of one gap between checkpoints, found by the last scan.
+    private int intGapCheck = -1;
+    private long[] arrGapStarts = new long[64];
+    private int intGapStartCount = 0;
+
+    // Sequential scan state, line start at position is known when char at position is scanned.
+    private long lngScanPos = 0;
+    private char chScanPrev = 0;
+    private long lngCountLF = 0;
+    private long lngCountCRLF = 0;
+    private long lngCountCR = 0;
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentSparseLineIndex(FileContentStorage storageChars) {
+
+        this.storageChars = storageChars;
+        this.arrCheckPos = new long[INT_CHECKPOINTS_CAPACITY_MIN];
+        this.arrCheckLine = new int[INT_CHECKPOINTS_CAPACITY_MIN];
+        this.arrCheckPos[0] = 0;
+        this.arrCheckLine[0] = 0;
+        this.intCheckCount = 1;
+        this.intDeltaFrom = 1;
+        this.intLineCount = 1;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Index of chars scanned so far, it is used for Document shown while file is still loading.
+    // Checkpoints are not copied, they are shared until one of indexes is edited.
+    public FileContentSparseLineIndex share() {
+
+        FileContentSparseLineIndex lineIndex = new FileContentSparseLineIndex(this.storageChars);
+        lineIndex.arrCheckPos = this.arrCheckPos;
+        lineIndex.arrCheckLine = this.arrCheckLine;
+        lineIndex.intCheckCount = this.intCheckCount;
+        lineIndex.intDeltaFrom = this.intDeltaFrom;
+        lineIndex.lngDeltaPos = this.lngDeltaPos;
+        lineIndex.intDeltaLine = this.intDeltaLine;
+        lineIndex.booShared = true;
+        this.booShared = true;
+        lineIndex.lngLength = this.lngLength;
+        // Line start at the end of scanned chars is not known until next char is scanned.
+        lineIndex.intLineCount = this.intLineCount + (this.chScanPrev == '\n' || this.chScanPrev == '\r' ? 1 : 0);
+        lineIndex.lngScanPos = this.lngScanPos;
+        lineIndex.chScanPrev = this.chScanPrev;
+        lineIndex.lngCountLF = this.lngCountLF;
+        lineIndex.lngCountCRLF = this.lngCountCRLF;
+        lineIndex.lngCountCR = this.lngCountCR;
+        return lineIndex;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    @Override
+    public int getLineCount() {
+        return this.intLineCount;
+    }
+
+    @Override
+    public long getLineStart(int intLine) {
+
+        if (intLine < 0 || intLine >= this.intLineCount) {
+            throw new IndexOutOfBoundsException("Line " + intLine + " is out of lines count " + this.intLineCount);
+        }
+        if (intLine == 0) {
+            return 0;
+        }
+        // The last checkpoint with less line starts before it than line.
+        int intLow = 0;
+        int intHigh = this.intCheckCount - 1;
+        while (intLow < intHigh) {
+            int intMid = (intLow + intHigh + 1) >>> 1;
+            if (this.getLine(intMid) < intLine) {
+                intLow = intMid;
+            } else {
+                intHigh = intMid - 1;
+            }
+        }
+        this.scanGap(intLow);
+        return this.arrGapStarts[intLine - this.getLine(intLow) - 1];
+    }
+
+    // -------------------------------------------------------------------------------------
+    @Override
+    public int getLineOfOffset(long lngPos) {
+
+        int intCheck = this.findCheckpoint(lngPos);
+        this.scanGap(intCheck);
+        // Count of line starts in gap <= lngPos.
+        int intLow = 0;
+        int intHigh = this.intGapStartCount;
+        while (intLow < intHigh) {
+            int intMid = (intLow + intHigh) >>> 1;
+            if (this.arrGapStarts[intMid] <= lngPos) {
+                intLow = intMid + 1;
+            } else {
+                intHigh = intMid;
+            }
+        }
+        return this.getLine(intCheck) + intLow;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Scan next chars of content (index is built sequentially while file is loading).
+    public void scan(char[] arrChars, int intFrom, int intTo) {
+
+        if (intFrom < intTo && this.lngScanPos - this.getPos(this.intCheckCount - 1) >= INT_CHECKPOINT_DISTANCE) {
+            this.addCheckpoint(this.lngScanPos, this.intLineCount - 1);
+        }
+        char chPrev = this.chScanPrev;
+        int intStarts = 0;
+        for (int i = intFrom; i < intTo; i++) {
+            char ch = arrChars[i];
+            if (ch == '\n') {
+                if (chPrev == '\r') {
+                    this.lngCountCRLF++;
+                } else {
+                    this.lngCountLF++;
+                }
+            } else if (chPrev == '\r') {
+                this.lngCountCR++;
+            }
+            if (chPrev == '\n' || (chPrev == '\r' && ch != '\n')) {
+                intStarts++;
+            }
+            chPrev = ch;
+        }
+        this.chScanPrev = chPrev;
+        this.intLineCount += intStarts;
+        this.lngScanPos += intTo - intFrom;
+        this.lngLength = this.lngScanPos;
+    }
+
+    public void scanFinish() {
+
+        if (this.chScanPrev == '\r') {
+            this.lngCountCR++;
+        }
+        if (this.chScanPrev == '\n' || this.chScanPrev == '\r') {
+            this.intLineCount++;
+        }
+        this.chScanPrev = 0;
+    }
+
+    // Line separator of the most of lines found by scan, System.lineSeparator() for content without lines.
+    @Override
+    public String getLineSeparatorDetected() {
+
+        if (this.lngCountLF == 0 && this.lngCountCRLF == 0 && this.lngCountCR == 0) {
+            return System.lineSeparator();
+        }
+        if (this.lngCountCRLF >= this.lngCountLF && this.lngCountCRLF >= this.lngCountCR) {
+            return "\r\n";
+        }
+        if (this.lngCountLF >= this.lngCountCR) {
+            return "\n";
+        }
+        return "\r";
+    }
+
+    @Override
+    public String getLineSeparatorsStat() {
+        return "LF=" + this.lngCountLF + " CRLF=" + this.lngCountCRLF + " CR=" + this.lngCountCR
+                + " Checkpoints=" + this.intCheckCount;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Update index after Document edit, snapshot is the Document after edit.
+    @Override
+    public void edited(FileContentDocument.Snapshot snapshot, long lngPos, long lngLenRemoved, long lngLenInserted) {
+
+        if (this.booShared) {
+            this.arrCheckPos = Arrays.copyOf(this.arrCheckPos, Math.max(INT_CHECKPOINTS_CAPACITY_MIN, this.intCheckCount));
+            this.arrCheckLine = Arrays.copyOf(this.arrCheckLine, this.arrCheckPos.length);
+            this.booShared = false;
+        }
+        this.storageChars = snapshot;
+        this.lngLength = snapshot.length();
+        this.intGapCheck = -1;
+
+        // Line start at p depends only on chars p-1 and p, so line starts before checkpoint at or before lngPos
+        // are not changed. Checkpoints in removed chars are removed, gap from checkpoint before edit
+        // to the next checkpoint after edit is scanned again and gets new checkpoints.
+        int intFrom = this.findCheckpoint(lngPos);
+        int intTo = intFrom + 1;
+        while (intTo < this.intCheckCount && this.getPos(intTo) <= lngPos + lngLenRemoved) {
+            intTo++;
+        }
+        long lngShift = lngLenInserted - lngLenRemoved;
+        long lngLen = this.lngLength;
+        long lngPosFrom = this.getPos(intFrom);
+        int intLineFrom = this.getLine(intFrom);
+        boolean booLast = intTo == this.intCheckCount;
+        long lngPosTo = booLast ? lngLen + 1 : this.getPos(intTo) + lngShift;
+
+        long[] arrNewPos = new long[8];
+        int[] arrNewLine = new int[8];
+        int intNewCount = 0;
+        long lngScanFrom = lngPosFrom;
+        int intLine = intLineFrom;
+        while (lngScanFrom < lngPosTo) {
+            long lngScanTo = Math.min(lngPosTo, lngScanFrom + INT_CHECKPOINT_DISTANCE);
+            if (lngScanFrom > lngPosFrom && lngScanFrom < lngLen) {
+                if (intNewCount == arrNewPos.length) {
+                    arrNewPos = Arrays.copyOf(arrNewPos, intNewCount * 2);
+                    arrNewLine = Arrays.copyOf(arrNewLine, intNewCount * 2);
+                }
+                arrNewPos[intNewCount] = lngScanFrom;
+                arrNewLine[intNewCount] = intLine;
+                intNewCount++;
+            }
+            intLine += this.scanLineStarts(lngScanFrom, lngScanTo, false);
+            lngScanFrom = lngScanTo;
+        }
+        if (booLast) {
+            this.intLineCount = intLine + 1;
+        } else {
+            this.intLineCount += intLine - this.getLine(intTo);
+        }
+
+        // Checkpoints after edit keep stored values, only pending delta is changed.
+        this.moveDelta(intTo);
+        long lngDeltaPosNew = this.lngDeltaPos + lngShift;
+        int intDeltaLineNew = this.intDeltaLine + (booLast ? 0 : intLine - this.getLine(intTo));
+        int intRemoved = intTo - intFrom - 1;
+        int intShift = intNewCount - intRemoved;
+        if (intShift != 0) {
+            this.ensureCapacity(this.intCheckCount + intShift);
+            System.arraycopy(this.arrCheckPos, intTo, this.arrCheckPos, intTo + intShift, this.intCheckCount - intTo);
+            System.arraycopy(this.arrCheckLine, intTo, this.arrCheckLine, intTo + intShift, this.intCheckCount - intTo);
+            this.intCheckCount += intShift;
+        }
+        for (int i = 0; i < intNewCount; i++) {
+            // New checkpoints are stored relative to the new delta.
+            this.arrCheckPos[intFrom + 1 + i] = arrNewPos[i] - lngDeltaPosNew;
+            this.arrCheckLine[intFrom + 1 + i] = arrNewLine[i] - intDeltaLineNew;
+        }
+        this.intDeltaFrom = intFrom + 1;
+        this.lngDeltaPos = lngDeltaPosNew;
+        this.intDeltaLine = intDeltaLineNew;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------------------
+    private long getPos(int intCheck) {
+
+        if (intCheck >= this.intDeltaFrom) {
+            return this.arrCheckPos[intCheck] + this.lngDeltaPos;
+        }
+        return this.arrCheckPos[intCheck];
+    }
+
+    private int getLine(int intCheck) {
+
+        if (intCheck >= this.intDeltaFrom) {
+            return this.arrCheckLine[intCheck] + this.intDeltaLine;
+        }
+        return this.arrCheckLine[intCheck];
+    }
+
+    // -------------------------------------------------------------------------------------
+    // The last checkpoint at or before position.
+    private int findCheckpoint(long lngPos) {
+
+        int intLow = 0;
+        int intHigh = this.intCheckCount - 1;
+        while (intLow < intHigh) {
+            int intMid = (intLow + intHigh + 1) >>> 1;
+            if (this.getPos(intMid) <= lngPos) {
+                intLow = intMid;
+            } else {
+                intHigh = intMid - 1;
+            }
+        }
+        return intLow;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Line starts from checkpoint to the next checkpoint (to the end of content for the last one).
+    private void scanGap(int intCheck) {
+
+        if (intCheck == this.intGapCheck) {
+            return;
+        }
+        long lngFrom = this.getPos(intCheck);
+        long lngTo = intCheck + 1 < this.intCheckCount ? this.getPos(intCheck + 1) : this.lngLength + 1;
+        this.intGapStartCount = 0;
+        this.scanLineStarts(lngFrom, lngTo, true);
+        this.intGapCheck = intCheck;
+    }
+
+    // Count of line starts s in [lngFrom, lngTo), 0 < s <= length, line start is after '\n' or after '\r' not followed by '\n'.
+    // Line starts are added to gap starts when booGap is true.
+    private int scanLineStarts(long lngFrom, long lngTo, boolean booGap) {
+
+        long lngLen = this.lngLength;
+        long lngReadFrom = Math.max(0, lngFrom - 1);
+        long lngReadTo = Math.min(lngLen, lngTo);
+        if (lngReadFrom >= lngReadTo) {
+            return 0;
+        }
+        char[] arrBlock = new char[(int) Math.min(INT_SCAN_BLOCK_SIZE, lngReadTo - lngReadFrom)];
+        int intStarts = 0;
+        char chPrev = 0;
+        long lngBlockStart = lngReadFrom;
+        while (lngBlockStart < lngReadTo) {
+            int intBlockLen = (int) Math.min(arrBlock.length, lngReadTo - lngBlockStart);
+            this.storageChars.getChars(lngBlockStart, lngBlockStart + intBlockLen, arrBlock, 0);
+            for (int i = 0; i < intBlockLen; i++) {
+                char ch = arrBlock[i];
+                long lngPosChar = lngBlockStart + i;
+                if (lngPosChar >= lngFrom && lngPosChar > 0 && (chPrev == '\n' || (chPrev == '\r' && ch != '\n'))) {
+                    intStarts++;
+                    if (booGap) {
+                        this.addGapStart(lngPosChar);
+                    }
+                }
+                chPrev = ch;
+            }
+            lngBlockStart += intBlockLen;
+        }
+        if (lngTo > lngLen && lngLen > 0 && (chPrev == '\n' || chPrev == '\r')) {
+            // Line start at the end of content.
+            intStarts++;
+            if (booGap) {
+                this.addGapStart(lngLen);
+            }
+        }
+        return intStarts;
+    }
+
+    private void addGapStart(long lngPos) {
+
+        if (this.intGapStartCount == this.arrGapStarts.length) {
+            this.arrGapStarts = Arrays.copyOf(this.arrGapStarts, this.intGapStartCount * 2);
+        }
+        this.arrGapStarts[this.intGapStartCount++] = lngPos;
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Checkpoints are added at the end while file is loading, there is no pending delta then.
+    private void addCheckpoint(long lngPos, int intLine) {
+
+        this.ensureCapacity(this.intCheckCount + 1);
+        this.arrCheckPos[this.intCheckCount] = lngPos;
+        this.arrCheckLine[this.intCheckCount] = intLine;
+        this.intCheckCount++;
+        this.intDeltaFrom = this.intCheckCount;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void moveDelta(int intDeltaFromNew) {
+
+        if (this.lngDeltaPos != 0 || this.intDeltaLine != 0) {
+            if (this.intDeltaFrom < intDeltaFromNew) {
+                for (int i = this.intDeltaFrom; i < intDeltaFromNew; i++) {
+                    this.arrCheckPos[i] += this.lngDeltaPos;
+                    this.arrCheckLine[i] += this.intDeltaLine;
+                }
+            } else {
+                for (int i = intDeltaFromNew; i < this.intDeltaFrom; i++) {
+                    this.arrCheckPos[i] -= this.lngDeltaPos;
+                    this.arrCheckLine[i] -= this.intDeltaLine;
+                }
+            }
+        }
+        this.intDeltaFrom = intDeltaFromNew;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void ensureCapacity(int intCapacity) {
+
+        if (intCapacity > this.arrCheckPos.length) {
+            int intCapacityNew = Math.max(intCapacity, this.arrCheckPos.length * 2);
+            this.arrCheckPos = Arrays.copyOf(this.arrCheckPos, intCapacityNew);
+            this.arrCheckLine = Arrays.copyOf(this.arrCheckLine, intCapacityNew);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+}
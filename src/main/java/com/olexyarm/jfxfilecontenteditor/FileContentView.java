@@ -0,0 +1,862 @@
+/*
+ * Copyright (c) 2024, Oleksandr Yarmolenko. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2, as
+ * published by the Free Software Foundation.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details.
+ *
+ */
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.util.ArrayList;
+import java.util.List;
+import javafx.animation.KeyFrame;
+import javafx.animation.Timeline;
+import javafx.beans.property.BooleanProperty;
+import javafx.beans.property.LongProperty;
+import javafx.beans.property.SimpleBooleanProperty;
+import javafx.beans.property.SimpleLongProperty;
+import javafx.event.EventHandler;
+import javafx.geometry.Orientation;
+import javafx.geometry.Point2D;
+import javafx.geometry.VPos;
+import javafx.scene.Cursor;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.ScrollBar;
+import javafx.scene.input.Clipboard;
+import javafx.scene.input.ClipboardContent;
+import javafx.scene.input.ContextMenuEvent;
+import javafx.scene.input.KeyCode;
+import javafx.scene.input.KeyEvent;
+import javafx.scene.input.MouseButton;
+import javafx.scene.input.MouseEvent;
+import javafx.scene.input.ScrollEvent;
+import javafx.scene.layout.Pane;
+import javafx.scene.layout.Region;
+import javafx.scene.paint.Color;
+import javafx.scene.shape.Path;
+import javafx.scene.shape.PathElement;
+import javafx.scene.shape.Rectangle;
+import javafx.scene.text.Font;
+import javafx.scene.text.HitInfo;
+import javafx.scene.text.Text;
+import javafx.util.Duration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+// Virtualized view of FileContentDocument: only visible lines (plus few lines above and below) have Text nodes,
+// so layout, scrolling and caret movement cost does not depend on file size.
+public final class FileContentView extends Region {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FileContentView.class);
+
+    private static final int INT_OVERSCAN_LINES = 3;
+    private static final int INT_LINE_CHARS_RENDER_MAX = 100_000;
+    private static final double DBL_TEXT_PADDING = 4;
+    private static final Duration DURATION_CARET_BLINK = Duration.millis(500);
+
+    private FileContentDocument document;
+    private FileContentLineIndex lineIndex;
+    private final FileContentDocument.EditListener editListener;
+
+    private final Pane paneText = new Pane();
+    private final Rectangle rectClip = new Rectangle();
+    private final ScrollBar scrollBarV = new ScrollBar();
+    private final ScrollBar scrollBarH = new ScrollBar();
+    private final Path pathCaret = new Path();
+    private final Timeline timelineCaretBlink;
+
+    // Text and selection nodes of rendered lines, node i shows line intRenderedFirst + i.
+    private final List<Text> lstTextNodes = new ArrayList<>();
+    private final List<Path> lstSelectionPaths = new ArrayList<>();
+    private int intRenderedFirst = 0;
+
+    private Font font = Font.getDefault();
+    private double dblLineHeight;
+    private double dblContentWidth = 0;
+    private int intVisibleLines = 1;
+    private boolean booEnsureCaretVisible = false;
+
+    private final LongProperty lpCaretPosition = new SimpleLongProperty(0);
+    private long lngAnchor = 0;
+    private long lngCaretColumnPreferred = -1;
+    private final BooleanProperty bpEditable = new SimpleBooleanProperty(true);
+    private ContextMenu contextMenu;
+
+    // -------------------------------------------------------------------------------------
+    // Construstors
+    // -------------------------------------------------------------------------------------
+    public FileContentView() {
+
+        this.getStyleClass().add("fileContentView");
+        this.setFocusTraversable(true);
+        this.setCursor(Cursor.TEXT);
+
+        this.rectClip.setManaged(false);
+        this.paneText.setClip(this.rectClip);
+        this.paneText.setManaged(false);
+        this.pathCaret.setManaged(false);
+        this.pathCaret.setStrokeWidth(1.5);
+        this.pathCaret.setStroke(Color.BLACK);
+        this.pathCaret.setVisible(false);
+        this.paneText.getChildren().add(this.pathCaret);
+
+        this.scrollBarV.setOrientation(Orientation.VERTICAL);
+        this.scrollBarV.setManaged(false);
+        this.scrollBarH.setOrientation(Orientation.HORIZONTAL);
+        this.scrollBarH.setManaged(false);
+        this.scrollBarH.setUnitIncrement(20);
+        this.scrollBarV.valueProperty().addListener(o -> requestLayout());
+        this.scrollBarH.valueProperty().addListener(o -> requestLayout());
+
+        this.getChildren().addAll(this.paneText, this.scrollBarV, this.scrollBarH);
+
+        this.timelineCaretBlink = new Timeline(new KeyFrame(DURATION_CARET_BLINK, e -> {
+            pathCaret.setVisible(!pathCaret.isVisible() && isFocused());
+        }));
+        this.timelineCaretBlink.setCycleCount(Timeline.INDEFINITE);
+        this.focusedProperty().addListener((observable, oldValue, newValue) -> {
+            if (newValue) {
+                restartCaretBlink();
+            } else {
+                timelineCaretBlink.stop();
+                pathCaret.setVisible(false);
+            }
+        });
+
+        this.editListener = new FileContentDocument.EditListener() {
+            @Override
+            public void edited(long lngPos, long lngLenRemoved, long lngLenInserted) {
+                lngAnchor = adjustPosition(lngAnchor, lngPos, lngLenRemoved, lngLenInserted);
+                lpCaretPosition.set(adjustPosition(lpCaretPosition.get(), lngPos, lngLenRemoved, lngLenInserted));
+                requestLayout();
+            }
+        };
+
+        this.updateLineHeight();
+        this.setDocument(new FileContentDocument(""));
+
+        this.addEventHandler(KeyEvent.KEY_PRESSED, new EventHandler<KeyEvent>() {
+            @Override
+            public void handle(KeyEvent keyEvent) {
+                keyPressed(keyEvent);
+            }
+        });
+        this.addEventHandler(KeyEvent.KEY_TYPED, new EventHandler<KeyEvent>() {
+            @Override
+            public void handle(KeyEvent keyEvent) {
+                keyTyped(keyEvent);
+            }
+        });
+        this.addEventHandler(MouseEvent.MOUSE_PRESSED, new EventHandler<MouseEvent>() {
+            @Override
+            public void handle(MouseEvent mouseEvent) {
+                mousePressed(mouseEvent);
+            }
+        });
+        this.addEventHandler(MouseEvent.MOUSE_DRAGGED, new EventHandler<MouseEvent>() {
+            @Override
+            public void handle(MouseEvent mouseEvent) {
+                mouseDragged(mouseEvent);
+            }
+        });
+        this.addEventHandler(ContextMenuEvent.CONTEXT_MENU_REQUESTED, new EventHandler<ContextMenuEvent>() {
+            @Override
+            public void handle(ContextMenuEvent contextMenuEvent) {
+                if (contextMenu != null) {
+                    contextMenu.show(FileContentView.this, contextMenuEvent.getScreenX(), contextMenuEvent.getScreenY());
+                    contextMenuEvent.consume();
+                }
+            }
+        });
+        this.addEventHandler(ScrollEvent.SCROLL, new EventHandler<ScrollEvent>() {
+            @Override
+            public void handle(ScrollEvent scrollEvent) {
+                scrollBarV.setValue(clamp(scrollBarV.getValue() - scrollEvent.getDeltaY() / dblLineHeight, 0, scrollBarV.getMax()));
+                scrollBarH.setValue(clamp(scrollBarH.getValue() - scrollEvent.getDeltaX(), 0, scrollBarH.getMax()));
+                scrollEvent.consume();
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Methods
+    // -------------------------------------------------------------------------------------
+    public final void setDocument(FileContentDocument documentNew) {
+        this.setDocument(documentNew, false);
+    }
+
+    // Scroll and caret positions are kept if new Document continues old one (file loading).
+    public final void setDocument(FileContentDocument documentNew, boolean booKeepPosition) {
+
+        if (this.document != null) {
+            this.document.removeEditListener(this.editListener);
+        }
+        this.document = documentNew;
+        this.lineIndex = documentNew.getLineIndex();
+        this.document.addEditListener(this.editListener);
+        if (booKeepPosition) {
+            this.lngAnchor = Math.min(this.lngAnchor, documentNew.length());
+            this.lpCaretPosition.set(Math.min(this.lpCaretPosition.get(), documentNew.length()));
+        } else {
+            this.lngAnchor = 0;
+            this.lpCaretPosition.set(0);
+            this.dblContentWidth = 0;
+            this.scrollBarV.setValue(0);
+            this.scrollBarH.setValue(0);
+        }
+        LOGGER.debug("Set Document."
+                + " KeepPosition=" + booKeepPosition
+                + " Length=" + documentNew.length()
+                + " LineCount=" + this.lineIndex.getLineCount());
+        this.requestLayout();
+    }
+
+    public FileContentDocument getDocument() {
+        return this.document;
+    }
+
+    // -------------------------------------------------------------------------------------
+    public void setFont(Font font) {
+
+        this.font = font;
+        this.updateLineHeight();
+        for (Text text : this.lstTextNodes) {
+            text.setFont(font);
+        }
+        this.dblContentWidth = 0;
+        this.requestLayout();
+    }
+
+    public void setContextMenu(ContextMenu contextMenu) {
+        this.contextMenu = contextMenu;
+    }
+
+    public LongProperty caretPositionProperty() {
+        return this.lpCaretPosition;
+    }
+
+    public BooleanProperty editableProperty() {
+        return this.bpEditable;
+    }
+
+    public long getSelectionStart() {
+        return Math.min(this.lngAnchor, this.lpCaretPosition.get());
+    }
+
+    public long getSelectionEnd() {
+        return Math.max(this.lngAnchor, this.lpCaretPosition.get());
+    }
+
+    // -------------------------------------------------------------------------------------
+    public void positionCaret(long lngPos) {
+        this.moveCaret(lngPos, false);
+    }
+
+    public void selectRange(long lngAnchorNew, long lngCaretNew) {
+
+        this.lngAnchor = clamp(lngAnchorNew, 0, this.document.length());
+        this.moveCaret(lngCaretNew, true);
+    }
+
+    public void selectAll() {
+        this.selectRange(0, this.document.length());
+    }
+
+    // -------------------------------------------------------------------------------------
+    public void copy() {
+
+        long lngStart = this.getSelectionStart();
+        long lngEnd = this.getSelectionEnd();
+        if (lngStart == lngEnd) {
+            return;
+        }
+        ClipboardContent clipboardContent = new ClipboardContent();
+        clipboardContent.putString(this.document.getText(lngStart, lngEnd));
+        Clipboard.getSystemClipboard().setContent(clipboardContent);
+    }
+
+    public void cut() {
+
+        if (!this.bpEditable.get() || this.getSelectionStart() == this.getSelectionEnd()) {
+            return;
+        }
+        this.copy();
+        this.replaceSelection("");
+    }
+
+    public void paste() {
+
+        String strText = Clipboard.getSystemClipboard().getString();
+        if (strText != null && !strText.isEmpty()) {
+            this.replaceSelection(strText);
+        }
+    }
+
+    public void deleteSelection() {
+        this.replaceSelection("");
+    }
+
+    public void undo() {
+
+        if (!this.bpEditable.get()) {
+            return;
+        }
+        long lngPos = this.document.undo();
+        if (lngPos >= 0) {
+            this.positionCaret(lngPos);
+        }
+    }
+
+    public void redo() {
+
+        if (!this.bpEditable.get()) {
+            return;
+        }
+        long lngPos = this.document.redo();
+        if (lngPos >= 0) {
+            this.positionCaret(lngPos);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    public void replaceSelection(String strText) {
+
+        if (!this.bpEditable.get()) {
+            return;
+        }
+        long lngStart = this.getSelectionStart();
+        long lngEnd = this.getSelectionEnd();
+        if (this.document.replace(lngStart, lngEnd - lngStart, strText)) {
+            this.positionCaret(lngStart + strText.length());
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    @Override
+    protected double computePrefWidth(double height) {
+        return 400;
+    }
+
+    @Override
+    protected double computePrefHeight(double width) {
+        return 300;
+    }
+
+    // -------------------------------------------------------------------------------------
+    @Override
+    protected void layoutChildren() {
+
+        double dblWidth = this.getWidth();
+        double dblHeight = this.getHeight();
+        double dblBarV = this.scrollBarV.prefWidth(-1);
+        double dblBarH = this.scrollBarH.prefHeight(-1);
+        double dblViewWidth = Math.max(0, dblWidth - dblBarV);
+        double dblViewHeight = Math.max(0, dblHeight - dblBarH);
+
+        this.scrollBarV.resizeRelocate(dblViewWidth, 0, dblBarV, dblViewHeight);
+        this.scrollBarH.resizeRelocate(0, dblViewHeight, dblViewWidth, dblBarH);
+        this.paneText.resizeRelocate(0, 0, dblViewWidth, dblViewHeight);
+        this.rectClip.setWidth(dblViewWidth);
+        this.rectClip.setHeight(dblViewHeight);
+
+        int intLineCount = this.lineIndex.getLineCount();
+        this.intVisibleLines = Math.max(1, (int) Math.floor(dblViewHeight / this.dblLineHeight));
+        this.scrollBarV.setMax(Math.max(0, intLineCount - this.intVisibleLines));
+        this.scrollBarV.setVisibleAmount(this.intVisibleLines);
+        this.scrollBarV.setBlockIncrement(this.intVisibleLines);
+        this.scrollBarV.setUnitIncrement(1);
+
+        if (this.booEnsureCaretVisible) {
+            this.scrollToCaretLine();
+        }
+        this.renderLines(dblViewWidth, dblViewHeight);
+        if (this.booEnsureCaretVisible) {
+            this.booEnsureCaretVisible = false;
+            this.scrollToCaretColumn(dblViewWidth);
+        }
+
+        this.scrollBarH.setMax(Math.max(0, this.dblContentWidth + 2 * DBL_TEXT_PADDING - dblViewWidth));
+        this.scrollBarH.setVisibleAmount(dblViewWidth);
+        this.scrollBarH.setBlockIncrement(dblViewWidth / 2);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------------------
+    private void renderLines(double dblViewWidth, double dblViewHeight) {
+
+        int intLineCount = this.lineIndex.getLineCount();
+        double dblTop = this.scrollBarV.getValue();
+        int intFirstVisible = (int) Math.floor(dblTop);
+        int intFrom = Math.max(0, intFirstVisible - INT_OVERSCAN_LINES);
+        int intTo = Math.min(intLineCount, intFirstVisible + this.intVisibleLines + 1 + INT_OVERSCAN_LINES);
+        int intCount = Math.max(0, intTo - intFrom);
+
+        while (this.lstTextNodes.size() < intCount) {
+            Text text = new Text();
+            text.setTextOrigin(VPos.TOP);
+            text.setFont(this.font);
+            text.setManaged(false);
+            text.getStyleClass().add("fileContentViewText");
+            Path pathSelection = new Path();
+            pathSelection.setManaged(false);
+            pathSelection.setStroke(null);
+            pathSelection.getStyleClass().add("fileContentViewSelection");
+            this.lstTextNodes.add(text);
+            this.lstSelectionPaths.add(pathSelection);
+            // Selection is under text, caret is on top.
+            this.paneText.getChildren().add(0, pathSelection);
+            this.paneText.getChildren().add(this.paneText.getChildren().size() - 1, text);
+        }
+        while (this.lstTextNodes.size() > intCount) {
+            int intLast = this.lstTextNodes.size() - 1;
+            this.paneText.getChildren().removeAll(this.lstTextNodes.remove(intLast), this.lstSelectionPaths.remove(intLast));
+        }
+        this.intRenderedFirst = intFrom;
+
+        double dblX = DBL_TEXT_PADDING - this.scrollBarH.getValue();
+        long lngSelStart = this.getSelectionStart();
+        long lngSelEnd = this.getSelectionEnd();
+        for (int i = 0; i < intCount; i++) {
+            int intLine = intFrom + i;
+            long lngLineStart = this.lineIndex.getLineStart(intLine);
+            long lngLineEnd = this.getLineEnd(intLine);
+            Text text = this.lstTextNodes.get(i);
+            String strLine = this.document.getText(lngLineStart, Math.min(lngLineEnd, lngLineStart + INT_LINE_CHARS_RENDER_MAX));
+            if (!strLine.equals(text.getText())) {
+                text.setText(strLine);
+            }
+            double dblY = (intLine - dblTop) * this.dblLineHeight;
+            text.setLayoutX(dblX);
+            text.setLayoutY(dblY);
+            this.dblContentWidth = Math.max(this.dblContentWidth, text.getLayoutBounds().getWidth());
+
+            Path pathSelection = this.lstSelectionPaths.get(i);
+            pathSelection.setLayoutX(dblX);
+            pathSelection.setLayoutY(dblY);
+            long lngFrom = Math.max(lngSelStart, lngLineStart);
+            long lngTo = Math.min(lngSelEnd, lngLineEnd);
+            if (lngFrom < lngTo) {
+                int intLen = strLine.length();
+                pathSelection.getElements().setAll(text.rangeShape((int) Math.min(intLen, lngFrom - lngLineStart), (int) Math.min(intLen, lngTo - lngLineStart)));
+            } else {
+                pathSelection.getElements().clear();
+            }
+        }
+        this.renderCaret();
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void renderCaret() {
+
+        long lngCaret = this.lpCaretPosition.get();
+        int intLine = this.lineIndex.getLineOfOffset(lngCaret);
+        int intNode = intLine - this.intRenderedFirst;
+        if (intNode < 0 || intNode >= this.lstTextNodes.size()) {
+            this.pathCaret.getElements().clear();
+            return;
+        }
+        Text text = this.lstTextNodes.get(intNode);
+        int intColumn = (int) Math.min(text.getText().length(), lngCaret - this.lineIndex.getLineStart(intLine));
+        PathElement[] arrCaretShape = text.caretShape(intColumn, true);
+        this.pathCaret.getElements().setAll(arrCaretShape);
+        this.pathCaret.setLayoutX(text.getLayoutX());
+        this.pathCaret.setLayoutY(text.getLayoutY());
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void scrollToCaretLine() {
+
+        int intLine = this.lineIndex.getLineOfOffset(this.lpCaretPosition.get());
+        double dblTop = this.scrollBarV.getValue();
+        if (intLine < dblTop) {
+            this.scrollBarV.setValue(intLine);
+        } else if (intLine >= dblTop + this.intVisibleLines) {
+            this.scrollBarV.setValue(Math.min(this.scrollBarV.getMax(), intLine - this.intVisibleLines + 1));
+        }
+    }
+
+    private void scrollToCaretColumn(double dblViewWidth) {
+
+        if (this.pathCaret.getElements().isEmpty()) {
+            return;
+        }
+        double dblCaretX = this.pathCaret.getBoundsInParent().getMinX();
+        double dblScrollH = this.scrollBarH.getValue();
+        double dblScrollHNew = dblScrollH;
+        if (dblCaretX < DBL_TEXT_PADDING) {
+            dblScrollHNew = dblScrollH + dblCaretX - DBL_TEXT_PADDING;
+        } else if (dblCaretX > dblViewWidth - DBL_TEXT_PADDING) {
+            dblScrollHNew = dblScrollH + dblCaretX - dblViewWidth + DBL_TEXT_PADDING;
+        }
+        if (dblScrollHNew != dblScrollH) {
+            this.scrollBarH.setMax(Math.max(this.scrollBarH.getMax(), dblScrollHNew));
+            this.scrollBarH.setValue(Math.max(0, dblScrollHNew));
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void updateLineHeight() {
+
+        Text text = new Text("Xg");
+        text.setFont(this.font);
+        this.dblLineHeight = Math.max(1, Math.ceil(text.getLayoutBounds().getHeight()));
+    }
+
+    // -------------------------------------------------------------------------------------
+    // End of line content, without line terminator.
+    private long getLineEnd(int intLine) {
+
+        long lngEnd;
+        if (intLine + 1 < this.lineIndex.getLineCount()) {
+            lngEnd = this.lineIndex.getLineStart(intLine + 1);
+        } else {
+            lngEnd = this.document.length();
+        }
+        long lngStart = this.lineIndex.getLineStart(intLine);
+        if (lngEnd > lngStart && this.document.charAt(lngEnd - 1) == '\n') {
+            lngEnd--;
+        }
+        if (lngEnd > lngStart && this.document.charAt(lngEnd - 1) == '\r') {
+            lngEnd--;
+        }
+        return lngEnd;
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void moveCaret(long lngPos, boolean booSelect) {
+
+        lngPos = clamp(lngPos, 0, this.document.length());
+        if (!booSelect) {
+            this.lngAnchor = lngPos;
+        }
+        this.lpCaretPosition.set(lngPos);
+        this.booEnsureCaretVisible = true;
+        this.restartCaretBlink();
+        this.requestLayout();
+    }
+
+    private void restartCaretBlink() {
+
+        if (this.isFocused()) {
+            this.pathCaret.setVisible(true);
+            this.timelineCaretBlink.playFromStart();
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    private long getPositionLeft(long lngPos) {
+
+        if (lngPos <= 0) {
+            return 0;
+        }
+        // Line terminator "\r\n" and surrogate pair are passed as one char.
+        if (lngPos >= 2) {
+            char ch = this.document.charAt(lngPos - 1);
+            char chPrev = this.document.charAt(lngPos - 2);
+            if ((ch == '\n' && chPrev == '\r') || (Character.isLowSurrogate(ch) && Character.isHighSurrogate(chPrev))) {
+                return lngPos - 2;
+            }
+        }
+        return lngPos - 1;
+    }
+
+    private long getPositionRight(long lngPos) {
+
+        long lngLen = this.document.length();
+        if (lngPos >= lngLen) {
+            return lngLen;
+        }
+        if (lngPos + 1 < lngLen) {
+            char ch = this.document.charAt(lngPos);
+            char chNext = this.document.charAt(lngPos + 1);
+            if ((ch == '\r' && chNext == '\n') || (Character.isHighSurrogate(ch) && Character.isLowSurrogate(chNext))) {
+                return lngPos + 2;
+            }
+        }
+        return lngPos + 1;
+    }
+
+    private long getPositionWordLeft(long lngPos) {
+
+        long lngLineStart = this.lineIndex.getLineStart(this.lineIndex.getLineOfOffset(lngPos));
+        if (lngPos == lngLineStart) {
+            return this.getPositionLeft(lngPos);
+        }
+        while (lngPos > lngLineStart && !Character.isLetterOrDigit(this.document.charAt(lngPos - 1))) {
+            lngPos--;
+        }
+        while (lngPos > lngLineStart && Character.isLetterOrDigit(this.document.charAt(lngPos - 1))) {
+            lngPos--;
+        }
+        return lngPos;
+    }
+
+    private long getPositionWordRight(long lngPos) {
+
+        long lngLineEnd = this.getLineEnd(this.lineIndex.getLineOfOffset(lngPos));
+        if (lngPos == lngLineEnd) {
+            return this.getPositionRight(lngPos);
+        }
+        while (lngPos < lngLineEnd && Character.isLetterOrDigit(this.document.charAt(lngPos))) {
+            lngPos++;
+        }
+        while (lngPos < lngLineEnd && !Character.isLetterOrDigit(this.document.charAt(lngPos))) {
+            lngPos++;
+        }
+        return lngPos;
+    }
+
+    private long getPositionLine(long lngPos, int intLinesDelta) {
+
+        int intLine = this.lineIndex.getLineOfOffset(lngPos);
+        long lngLineStart = this.lineIndex.getLineStart(intLine);
+        if (this.lngCaretColumnPreferred < 0) {
+            this.lngCaretColumnPreferred = lngPos - lngLineStart;
+        }
+        int intLineNew = (int) clamp((long) intLine + intLinesDelta, 0, this.lineIndex.getLineCount() - 1);
+        long lngLineStartNew = this.lineIndex.getLineStart(intLineNew);
+        return Math.min(lngLineStartNew + this.lngCaretColumnPreferred, this.getLineEnd(intLineNew));
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void keyPressed(KeyEvent keyEvent) {
+
+        KeyCode keyCode = keyEvent.getCode();
+        boolean booShift = keyEvent.isShiftDown();
+        boolean booShortcut = keyEvent.isShortcutDown();
+        long lngCaret = this.lpCaretPosition.get();
+        boolean booVertical = false;
+        switch (keyCode) {
+            case LEFT -> {
+                if (!booShift && lngCaret != this.lngAnchor) {
+                    this.moveCaret(this.getSelectionStart(), false);
+                } else {
+                    this.moveCaret(booShortcut ? this.getPositionWordLeft(lngCaret) : this.getPositionLeft(lngCaret), booShift);
+                }
+            }
+            case RIGHT -> {
+                if (!booShift && lngCaret != this.lngAnchor) {
+                    this.moveCaret(this.getSelectionEnd(), false);
+                } else {
+                    this.moveCaret(booShortcut ? this.getPositionWordRight(lngCaret) : this.getPositionRight(lngCaret), booShift);
+                }
+            }
+            case UP -> {
+                booVertical = true;
+                this.moveCaret(this.getPositionLine(lngCaret, -1), booShift);
+            }
+            case DOWN -> {
+                booVertical = true;
+                this.moveCaret(this.getPositionLine(lngCaret, 1), booShift);
+            }
+            case PAGE_UP -> {
+                booVertical = true;
+                this.scrollBarV.setValue(clamp(this.scrollBarV.getValue() - this.intVisibleLines, 0, this.scrollBarV.getMax()));
+                this.moveCaret(this.getPositionLine(lngCaret, -this.intVisibleLines), booShift);
+            }
+            case PAGE_DOWN -> {
+                booVertical = true;
+                this.scrollBarV.setValue(clamp(this.scrollBarV.getValue() + this.intVisibleLines, 0, this.scrollBarV.getMax()));
+                this.moveCaret(this.getPositionLine(lngCaret, this.intVisibleLines), booShift);
+            }
+            case HOME -> {
+                if (booShortcut) {
+                    this.moveCaret(0, booShift);
+                } else {
+                    this.moveCaret(this.lineIndex.getLineStart(this.lineIndex.getLineOfOffset(lngCaret)), booShift);
+                }
+            }
+            case END -> {
+                if (booShortcut) {
+                    this.moveCaret(this.document.length(), booShift);
+                } else {
+                    this.moveCaret(this.getLineEnd(this.lineIndex.getLineOfOffset(lngCaret)), booShift);
+                }
+            }
+            case BACK_SPACE -> {
+                if (!this.bpEditable.get()) {
+                    return;
+                }
+                if (lngCaret == this.lngAnchor) {
+                    this.lngAnchor = booShortcut ? this.getPositionWordLeft(lngCaret) : this.getPositionLeft(lngCaret);
+                }
+                this.replaceSelection("");
+            }
+            case DELETE -> {
+                if (!this.bpEditable.get()) {
+                    return;
+                }
+                if (lngCaret == this.lngAnchor) {
+                    this.lngAnchor = booShortcut ? this.getPositionWordRight(lngCaret) : this.getPositionRight(lngCaret);
+                }
+                this.replaceSelection("");
+            }
+            case ENTER -> {
+                this.replaceSelection(this.document.getLineSeparator());
+            }
+            case TAB -> {
+                if (booShortcut) {
+                    return;
+                }
+                this.replaceSelection("\t");
+            }
+            case A -> {
+                if (!booShortcut) {
+                    return;
+                }
+                this.selectAll();
+            }
+            case C, INSERT -> {
+                if (!booShortcut) {
+                    return;
+                }
+                this.copy();
+            }
+            case X -> {
+                if (!booShortcut) {
+                    return;
+                }
+                this.cut();
+            }
+            case V -> {
+                if (!booShortcut) {
+                    return;
+                }
+                this.paste();
+            }
+            case Z -> {
+                if (!booShortcut) {
+                    return;
+                }
+                if (booShift) {
+                    this.redo();
+                } else {
+                    this.undo();
+                }
+            }
+            case Y -> {
+                if (!booShortcut) {
+                    return;
+                }
+                this.redo();
+            }
+            default -> {
+                return;
+            }
+        }
+        if (!booVertical) {
+            this.lngCaretColumnPreferred = -1;
+        }
+        keyEvent.consume();
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void keyTyped(KeyEvent keyEvent) {
+
+        String strChar = keyEvent.getCharacter();
+        if (strChar == null || strChar.isEmpty() || keyEvent.isShortcutDown() && !keyEvent.isAltDown()) {
+            return;
+        }
+        char ch = strChar.charAt(0);
+        if (Character.isISOControl(ch)) {
+            return;
+        }
+        this.replaceSelection(strChar);
+        this.lngCaretColumnPreferred = -1;
+        keyEvent.consume();
+    }
+
+    // -------------------------------------------------------------------------------------
+    private void mousePressed(MouseEvent mouseEvent) {
+
+        if (this.contextMenu != null) {
+            this.contextMenu.hide();
+        }
+        if (mouseEvent.getButton() != MouseButton.PRIMARY) {
+            return;
+        }
+        this.requestFocus();
+        long lngPos = this.getPositionAt(mouseEvent.getX(), mouseEvent.getY());
+        if (mouseEvent.getClickCount() == 2) {
+            this.selectWord(lngPos);
+        } else if (mouseEvent.getClickCount() == 3) {
+            int intLine = this.lineIndex.getLineOfOffset(lngPos);
+            this.selectRange(this.lineIndex.getLineStart(intLine), this.getLineEnd(intLine));
+        } else {
+            this.moveCaret(lngPos, mouseEvent.isShiftDown());
+        }
+        this.lngCaretColumnPreferred = -1;
+        mouseEvent.consume();
+    }
+
+    private void selectWord(long lngPos) {
+
+        int intLine = this.lineIndex.getLineOfOffset(lngPos);
+        long lngLineStart = this.lineIndex.getLineStart(intLine);
+        long lngLineEnd = this.getLineEnd(intLine);
+        long lngStart = lngPos;
+        long lngEnd = lngPos;
+        while (lngStart > lngLineStart && Character.isLetterOrDigit(this.document.charAt(lngStart - 1))) {
+            lngStart--;
+        }
+        while (lngEnd < lngLineEnd && Character.isLetterOrDigit(this.document.charAt(lngEnd))) {
+            lngEnd++;
+        }
+        this.selectRange(lngStart, lngEnd);
+    }
+
+    private void mouseDragged(MouseEvent mouseEvent) {
+
+        if (mouseEvent.getButton() != MouseButton.PRIMARY) {
+            return;
+        }
+        this.moveCaret(this.getPositionAt(mouseEvent.getX(), mouseEvent.getY()), true);
+        mouseEvent.consume();
+    }
+
+    // -------------------------------------------------------------------------------------
+    private long getPositionAt(double dblX, double dblY) {
+
+        double dblTop = this.scrollBarV.getValue();
+        int intLine = (int) clamp((long) Math.floor(dblTop + dblY / this.dblLineHeight), 0, this.lineIndex.getLineCount() - 1);
+        long lngLineStart = this.lineIndex.getLineStart(intLine);
+        long lngLineEnd = this.getLineEnd(intLine);
+        int intNode = intLine - this.intRenderedFirst;
+        if (intNode < 0 || intNode >= this.lstTextNodes.size()) {
+            return lngLineStart;
+        }
+        Text text = this.lstTextNodes.get(intNode);
+        HitInfo hitInfo = text.hitTest(new Point2D(dblX - text.getLayoutX(), this.dblLineHeight / 2));
+        return Math.min(lngLineStart + hitInfo.getInsertionIndex(), lngLineEnd);
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static long adjustPosition(long lngPosition, long lngPos, long lngLenRemoved, long lngLenInserted) {
+
+        if (lngPosition <= lngPos) {
+            return lngPosition;
+        }
+        if (lngPosition >= lngPos + lngLenRemoved) {
+            return lngPosition + lngLenInserted - lngLenRemoved;
+        }
+        return lngPos + lngLenInserted;
+    }
+
+    private static long clamp(long lngValue, long lngMin, long lngMax) {
+        return Math.max(lngMin, Math.min(lngMax, lngValue));
+    }
+
+    private static double clamp(double dblValue, double dblMin, double dblMax) {
+        return Math.max(dblMin, Math.min(dblMax, dblValue));
+    }
+
+    // -------------------------------------------------------------------------------------
+}
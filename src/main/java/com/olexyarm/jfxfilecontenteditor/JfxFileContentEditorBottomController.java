@@ -14,17 +14,37 @@
  */
 package com.olexyarm.jfxfilecontenteditor;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.PatternSyntaxException;
+import javafx.application.Platform;
+import javafx.beans.value.ChangeListener;
+import javafx.beans.value.ObservableValue;
 import javafx.collections.ObservableList;
+import javafx.concurrent.Task;
+import javafx.concurrent.WorkerStateEvent;
 import javafx.event.ActionEvent;
+import javafx.event.EventHandler;
 import javafx.fxml.FXML;
+import javafx.scene.control.CheckBox;
 import javafx.scene.control.Label;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
 import javafx.scene.control.TextField;
+import javafx.scene.control.TreeItem;
+import javafx.scene.control.TreeView;
 import javafx.scene.layout.BorderPane;
 import javafx.scene.layout.HBox;
 import javafx.scene.layout.VBox;
+import javafx.stage.DirectoryChooser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -54,6 +74,18 @@ public class JfxFileContentEditorBottomController {
     @FXML
     private Label hboxBottomLabelVersion;
 
+    @FXML
+    private CheckBox cbBottomFindRegex;
+
+    @FXML
+    private CheckBox cbBottomFindIgnoreCase;
+
+    @FXML
+    private CheckBox cbBottomFindWholeWord;
+
+    @FXML
+    private TreeView<Object> tvBottomFindInFiles;
+
     // -------------------------------------------------------------------------------------
     private BorderPane borderPaneEditor;
     private TabPane tabPane;
@@ -62,6 +94,13 @@ public class JfxFileContentEditorBottomController {
     // -------------------------------------------------------------------------------------
     private Label lblBottomFindResult = null;
     private TextField tfBottonFind = null;
+    private Task<Integer> taskFind = null;
+    private FileContentEditor fileEditorFind = null;
+    private Task<Integer> taskFindInFiles = null;
+    // Results found in search threads are added to tree in batches on FX thread.
+    // Every search has own queue, results of previous search which is still stopping are dropped.
+    private volatile ConcurrentLinkedQueue<FileContentFindInFiles.Result> queueFindInFilesResults = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean booFindInFilesResultsPosted = new AtomicBoolean(false);
 
     // -------------------------------------------------------------------------------------
     // JFX constructor
@@ -78,6 +117,16 @@ public class JfxFileContentEditorBottomController {
         hboxBottomSearchResult.managedProperty().bind(hboxBottomSearchResult.visibleProperty());
         hboxBottomFind.managedProperty().bind(hboxBottomFind.visibleProperty());
         hboxBottomReplace.managedProperty().bind(hboxBottomReplace.visibleProperty());
+        tvBottomFindInFiles.managedProperty().bind(tvBottomFindInFiles.visibleProperty());
+
+        tvBottomFindInFiles.setRoot(new TreeItem<Object>());
+        tvBottomFindInFiles.setShowRoot(false);
+        tvBottomFindInFiles.getSelectionModel().selectedItemProperty().addListener(new ChangeListener<TreeItem<Object>>() {
+            @Override
+            public void changed(ObservableValue<? extends TreeItem<Object>> observable, TreeItem<Object> oldValue, TreeItem<Object> newValue) {
+                openFindInFilesResult(newValue);
+            }
+        });
 
         LOGGER.debug("### Initialize JfxFileContentEditorBottomController."
                 + " this=\"" + this + "\""
@@ -119,113 +168,509 @@ public class JfxFileContentEditorBottomController {
     // -------------------------------------------------------------------------------------
     @FXML
     private void find(ActionEvent actionEvent) throws IOException {
+        this.find(actionEvent, true);
+    }
 
-        if (lstTabs.isEmpty()) {
-            LOGGER.error("No one file open for editing.");
-//            Utils.showMessage(Alert.AlertType.INFORMATION, "Find", "", "No one file open for editing.", null, null);
+    // -------------------------------------------------------------------------------------
+    @FXML
+    private void findPrevious(ActionEvent actionEvent) throws IOException {
+        this.find(actionEvent, false);
+    }
+
+    // -------------------------------------------------------------------------------------
+    @FXML
+    private void replace(ActionEvent actionEvent) throws IOException {
+
+        final FileContentEditor fileEditor = this.getSelectedEditor();
+        if (fileEditor == null) {
             return;
         }
-
-        if (!this.findLabelBottomSearchResult()) {
+        if (fileEditor.isBinary()) {
+            this.lblBottomFindResult.setText("Replace is not supported for binary file.");
             return;
         }
-
-        String strTextFind = this.findTextFieldFindValue();
-        if (strTextFind == null) {
+        final FileContentSearchPattern pattern = this.createSearchPattern();
+        if (pattern == null) {
             return;
         }
+        final String strTextReplace = this.getTextFieldReplaceValue();
+        this.startFindTask(fileEditor, pattern, new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                if (fileEditor.find(pattern) < 1) {
+                    showNoResult(fileEditor, pattern);
+                    return;
+                }
+                int intFoundCount = fileEditor.replace(pattern, strTextReplace);
+                if (intFoundCount < 1) {
+                    showNoResult(fileEditor, pattern);
+                    return;
+                }
+                lblBottomFindResult.setText(intFoundCount + " substring" + getPluralEnding(intFoundCount)
+                        + " updated in " + fileEditor.getFilePath());
+            }
+        });
+    }
 
-        Tab tab = this.tabPane.getSelectionModel().getSelectedItem();
-        FileContentEditor fileEditor = (FileContentEditor) tab.getContent();
-        int intFoundCount = fileEditor.find(strTextFind);
-        if (intFoundCount < 1) {
-            String strErrMsg = "No result found for " + fileEditor.getFilePath();
-            LOGGER.info(strErrMsg
-                    + " actionEvent=\"" + actionEvent + "\""
-                    + " TextFind=\"" + strTextFind + "\"");
-            this.lblBottomFindResult.setText(strErrMsg);
+    // -------------------------------------------------------------------------------------
+    @FXML
+    private void replaceAll(ActionEvent actionEvent) throws IOException {
+
+        final FileContentEditor fileEditor = this.getSelectedEditor();
+        if (fileEditor == null) {
             return;
         }
-        String strResult;
-        if (intFoundCount == 1) {
-            strResult = "";
-        } else {
-            strResult = "s";
+        if (fileEditor.isBinary()) {
+            this.lblBottomFindResult.setText("Replace is not supported for binary file.");
+            return;
+        }
+        final FileContentSearchPattern pattern = this.createSearchPattern();
+        if (pattern == null) {
+            return;
         }
-        String strFindResult = intFoundCount + " substring" + strResult + " found for " + fileEditor.getFilePath();
-        this.lblBottomFindResult.setText(strFindResult);
+        final String strTextReplace = this.getTextFieldReplaceValue();
+        this.startFindTask(fileEditor, pattern, new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                int intReplacedCount = fileEditor.replaceAll(pattern, strTextReplace);
+                if (intReplacedCount < 1) {
+                    showNoResult(fileEditor, pattern);
+                    return;
+                }
+                lblBottomFindResult.setText(intReplacedCount + " substring" + getPluralEnding(intReplacedCount)
+                        + " replaced in " + fileEditor.getFilePath());
+            }
+        });
     }
 
     // -------------------------------------------------------------------------------------
     @FXML
-    private void replace(ActionEvent actionEvent) throws IOException {
+    private void cancelFind(ActionEvent actionEvent) throws IOException {
 
-        if (this.lstTabs.isEmpty()) {
-            LOGGER.error("No one file open for editing.");
-//            Utils.showMessage(Alert.AlertType.INFORMATION, "Find", "", "No one file open for editing.", null, null);
+        if (this.fileEditorFind != null) {
+            this.fileEditorFind.cancelFindTask();
+        }
+        if (this.taskFindInFiles != null && this.taskFindInFiles.isRunning()) {
+            this.taskFindInFiles.cancel();
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    @FXML
+    private void findInTabs(ActionEvent actionEvent) throws IOException {
+        this.findInFiles((Path) null);
+    }
+
+    // -------------------------------------------------------------------------------------
+    @FXML
+    private void findInFiles(ActionEvent actionEvent) throws IOException {
+
+        DirectoryChooser directoryChooser = new DirectoryChooser();
+        directoryChooser.setInitialDirectory(new File(Settings.STR_DIRECTORY_USER_HOME_PATH));
+        directoryChooser.setTitle("Select a directory to find in files");
+        File fileDir = directoryChooser.showDialog(this.borderPaneEditor.getScene().getWindow());
+        if (fileDir == null) {
+            LOGGER.info("Find in Files. Directory is not selected.");
             return;
         }
+        this.findInFiles(fileDir.toPath());
+    }
+
+    // -------------------------------------------------------------------------------------
+    @FXML
+    private void bottomHide(ActionEvent actionEvent) throws IOException {
+
+        Utils.changeNodeVisibility(this.hboxBottomSearchResult, false);
+        Utils.changeNodeVisibility(this.hboxBottomFind, false);
+        Utils.changeNodeVisibility(this.hboxBottomReplace, false);
+        Utils.changeNodeVisibility(this.tvBottomFindInFiles, false);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Search in Documents of all open tabs and in files of directory (if pathDir is not null).
+    // Open Documents are searched with not saved changes, their files are skipped in directory.
+    private void findInFiles(final Path pathDir) {
 
         if (!this.findLabelBottomSearchResult()) {
             return;
         }
+        final FileContentSearchPattern pattern = this.createSearchPattern();
+        if (pattern == null) {
+            return;
+        }
+        if (this.taskFindInFiles != null && this.taskFindInFiles.isRunning()) {
+            this.taskFindInFiles.cancel();
+        }
+        // Snapshots of Documents are taken on FX thread, Documents could be edited while searching.
+        final List<Path> lstTabPaths = new ArrayList<>();
+        final List<String> lstTabIds = new ArrayList<>();
+        final List<FileContentDocument.Snapshot> lstTabSnapshots = new ArrayList<>();
+        final Set<Path> setPathsSkip = new HashSet<>();
+        for (Tab tab : this.lstTabs) {
+            FileContentEditor fileEditor = (FileContentEditor) tab.getContent();
+            lstTabPaths.add(fileEditor.getPathFile());
+            lstTabIds.add(tab.getId());
+            lstTabSnapshots.add(fileEditor.getDocument().snapshot());
+            setPathsSkip.add(fileEditor.getPathFile().toAbsolutePath().normalize());
+        }
+        final Charset charsetDefault = Charset.forName(Settings.STR_CHARSET_CURRENT);
+        final FileContentFindInFiles findInFiles = new FileContentFindInFiles(pattern,
+                Settings.INT_FIND_IN_FILES_THREADS, (long) Settings.INT_FIND_IN_FILES_FILE_SIZE_MAX * 1024 * 1024);
+        final ConcurrentLinkedQueue<FileContentFindInFiles.Result> queueResults = new ConcurrentLinkedQueue<>();
+        final FileContentFindInFiles.ResultListener resultListener = new FileContentFindInFiles.ResultListener() {
+            @Override
+            public void found(FileContentFindInFiles.Result result) {
+                postFindInFilesResult(queueResults, result);
+            }
+        };
+
+        this.queueFindInFilesResults = queueResults;
+        this.tvBottomFindInFiles.getRoot().getChildren().clear();
+        Utils.changeNodeVisibility(this.tvBottomFindInFiles, true);
+
+        this.taskFindInFiles = new Task<Integer>() {
+            @Override
+            protected Integer call() throws Exception {
+                for (int i = 0; i < lstTabSnapshots.size(); i++) {
+                    if (this.isCancelled()) {
+                        return 0;
+                    }
+                    this.updateMessage("Searching in " + lstTabPaths.get(i));
+                    FileContentFindInFiles.Result result = findInFiles.searchDocument(lstTabPaths.get(i), lstTabIds.get(i), lstTabSnapshots.get(i));
+                    if (result != null) {
+                        resultListener.found(result);
+                    }
+                }
+                if (pathDir == null) {
+                    return lstTabSnapshots.size();
+                }
+                this.updateMessage("Searching in files of " + pathDir);
+                int intFilesSearched = findInFiles.searchDirectory(pathDir, setPathsSkip, charsetDefault, new FileContentFindInFiles.ResultListener() {
+                    @Override
+                    public void found(FileContentFindInFiles.Result result) {
+                        resultListener.found(result);
+                    }
+
+                    @Override
+                    public void searched(Path pathFile, int intFilesSearched) {
+                        updateMessage("Searching in files of " + pathDir + ", searched " + intFilesSearched + " files");
+                    }
+                });
+                return lstTabSnapshots.size() + intFilesSearched;
+            }
+        };
+        final Task<Integer> taskFindInFilesFinal = this.taskFindInFiles;
+        this.taskFindInFiles.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                if (event.getSource() != taskFindInFiles) {
+                    return;
+                }
+                lblBottomFindResult.textProperty().unbind();
+                addFindInFilesResults();
+                int intFilesFound = tvBottomFindInFiles.getRoot().getChildren().size();
+                lblBottomFindResult.setText(intFilesFound + " file" + getPluralEnding(intFilesFound)
+                        + " found of " + taskFindInFilesFinal.getValue() + " searched for " + pattern.getText());
+            }
+        });
+        this.taskFindInFiles.setOnFailed(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                Throwable t = event.getSource().getException();
+                LOGGER.error("Find in Files failed."
+                        + " " + pattern
+                        + " pathDir=\"" + pathDir + "\""
+                        + " Throwable=\"" + t + "\"");
+                if (event.getSource() != taskFindInFiles) {
+                    return;
+                }
+                lblBottomFindResult.textProperty().unbind();
+                lblBottomFindResult.setText("Find in Files failed: " + t);
+            }
+        });
+        this.taskFindInFiles.setOnCancelled(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                if (event.getSource() != taskFindInFiles) {
+                    return;
+                }
+                lblBottomFindResult.textProperty().unbind();
+                lblBottomFindResult.setText("Find in Files cancelled.");
+            }
+        });
+        this.lblBottomFindResult.textProperty().unbind();
+        this.lblBottomFindResult.textProperty().bind(this.taskFindInFiles.messageProperty());
+
+        FileContentIOExecutor.getShared().execute(this.taskFindInFiles);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Called from search threads, only one runLater is pending at a time.
+    private void postFindInFilesResult(ConcurrentLinkedQueue<FileContentFindInFiles.Result> queueResults, FileContentFindInFiles.Result result) {
+
+        if (queueResults != this.queueFindInFilesResults) {
+            // Search was replaced by new one.
+            return;
+        }
+        queueResults.add(result);
+        if (this.booFindInFilesResultsPosted.compareAndSet(false, true)) {
+            Platform.runLater(new Runnable() {
+                @Override
+                public void run() {
+                    booFindInFilesResultsPosted.set(false);
+                    addFindInFilesResults();
+                }
+            });
+        }
+    }
+
+    private void addFindInFilesResults() {
+
+        FileContentFindInFiles.Result result;
+        List<TreeItem<Object>> lstItems = new ArrayList<>();
+        while ((result = this.queueFindInFilesResults.poll()) != null) {
+            TreeItem<Object> itemResult = new TreeItem<Object>(result);
+            for (FileContentFindInFiles.Hit hit : result.getHits()) {
+                itemResult.getChildren().add(new TreeItem<Object>(hit));
+            }
+            lstItems.add(itemResult);
+        }
+        this.tvBottomFindInFiles.getRoot().getChildren().addAll(lstItems);
+    }
+
+    // -------------------------------------------------------------------------------------
+    // File of result is opened in tab (or its tab is selected) and caret is moved to match.
+    private void openFindInFilesResult(TreeItem<Object> item) {
+
+        if (item == null) {
+            return;
+        }
+        FileContentFindInFiles.Hit hit = null;
+        TreeItem<Object> itemResult = item;
+        if (item.getValue() instanceof FileContentFindInFiles.Hit) {
+            hit = (FileContentFindInFiles.Hit) item.getValue();
+            itemResult = item.getParent();
+        }
+        if (itemResult == null || !(itemResult.getValue() instanceof FileContentFindInFiles.Result)) {
+            return;
+        }
+        FileContentFindInFiles.Result result = (FileContentFindInFiles.Result) itemResult.getValue();
+        FileContentEditor fileEditor = this.jfxEditorController.jfxEditorMenuController.openFileInTab(result.getPathFile());
+        if (fileEditor == null) {
+            return;
+        }
+        if (hit != null) {
+            fileEditor.goToLine(hit.getLine(), hit.getColumn());
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Helpers
+    // -------------------------------------------------------------------------------------
+    private void find(ActionEvent actionEvent, final boolean booForward) {
+
+        final FileContentEditor fileEditor = this.getSelectedEditor();
+        if (fileEditor == null) {
+            return;
+        }
+        if (fileEditor.isBinary()) {
+            this.findBinary(fileEditor, booForward);
+            return;
+        }
+        final FileContentSearchPattern pattern = this.createSearchPattern();
+        if (pattern == null) {
+            return;
+        }
+        this.startFindTask(fileEditor, pattern, new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                // Find index is built by task, find only moves caret.
+                int intFoundCount;
+                if (booForward) {
+                    intFoundCount = fileEditor.find(pattern);
+                } else {
+                    intFoundCount = fileEditor.findPrevious(pattern);
+                }
+                if (intFoundCount < 1) {
+                    showNoResult(fileEditor, pattern);
+                    return;
+                }
+                String strFindResult = intFoundCount + " substring" + getPluralEnding(intFoundCount)
+                        + " found for " + fileEditor.getFilePath()
+                        + ", match " + fileEditor.getFindMatchNumber(pattern)
+                        + ", line " + fileEditor.getCaretLine();
+                lblBottomFindResult.setText(strFindResult);
+            }
+        });
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Find value is hex bytes like "CA FE BA BE" or text in UTF-8.
+    private void findBinary(final FileContentEditor fileEditor, final boolean booForward) {
 
         String strTextFind = this.findTextFieldFindValue();
         if (strTextFind == null) {
             return;
         }
+        final byte[] arrPattern = FileContentBinary.parsePattern(strTextFind);
+        if (this.fileEditorFind != null && this.fileEditorFind != fileEditor) {
+            this.fileEditorFind.cancelFindTask();
+        }
+        this.lblBottomFindResult.textProperty().unbind();
+        this.fileEditorFind = fileEditor;
+        final Task<Long> taskFindBinary = fileEditor.startFindBinaryTask(arrPattern, booForward);
+        taskFindBinary.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                lblBottomFindResult.textProperty().unbind();
+                long lngPos = taskFindBinary.getValue();
+                if (lngPos < 0) {
+                    String strErrMsg = "No result found for " + fileEditor.getFilePath();
+                    LOGGER.info(strErrMsg
+                            + " Pattern=\"" + strTextFind + "\"");
+                    lblBottomFindResult.setText(strErrMsg);
+                    return;
+                }
+                fileEditor.selectBinary(lngPos, arrPattern.length);
+                lblBottomFindResult.setText(arrPattern.length + " byte" + getPluralEnding(arrPattern.length)
+                        + " found for " + fileEditor.getFilePath()
+                        + ", offset " + String.format("%08X", lngPos));
+            }
+        });
+        taskFindBinary.setOnFailed(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                lblBottomFindResult.textProperty().unbind();
+                Throwable t = taskFindBinary.getException();
+                LOGGER.error("Find in binary file failed."
+                        + " Pattern=\"" + strTextFind + "\""
+                        + " Throwable=\"" + t + "\"");
+                lblBottomFindResult.setText("Find failed: " + t);
+            }
+        });
+        taskFindBinary.setOnCancelled(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                lblBottomFindResult.textProperty().unbind();
+                lblBottomFindResult.setText("Find cancelled in " + fileEditor.getFilePath());
+            }
+        });
+        this.lblBottomFindResult.textProperty().bind(taskFindBinary.messageProperty());
+    }
+
+    // -------------------------------------------------------------------------------------
+    // Search is done by Task of editor in background thread, previous search is cancelled.
+    // Result label shows Task message while searching, handler gets control when find index is built.
+    private void startFindTask(final FileContentEditor fileEditor, final FileContentSearchPattern pattern,
+            final EventHandler<WorkerStateEvent> onSucceeded) {
+
+        if (this.fileEditorFind != null && this.fileEditorFind != fileEditor) {
+            this.fileEditorFind.cancelFindTask();
+        }
+        this.lblBottomFindResult.textProperty().unbind();
+        this.fileEditorFind = fileEditor;
+        this.taskFind = fileEditor.startFindTask(pattern);
+        this.taskFind.setOnSucceeded(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                if (event.getSource() != taskFind) {
+                    return;
+                }
+                lblBottomFindResult.textProperty().unbind();
+                onSucceeded.handle(event);
+            }
+        });
+        this.taskFind.setOnFailed(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                lblBottomFindResult.textProperty().unbind();
+                Throwable t = event.getSource().getException();
+                LOGGER.error("Find failed."
+                        + " " + pattern
+                        + " Throwable=\"" + t + "\"");
+                lblBottomFindResult.setText("Find failed: " + t);
+            }
+        });
+        this.taskFind.setOnCancelled(new EventHandler<WorkerStateEvent>() {
+            @Override
+            public void handle(WorkerStateEvent event) {
+                if (event.getSource() != taskFind) {
+                    // Cancelled by next search, label is bound to new Task.
+                    return;
+                }
+                lblBottomFindResult.textProperty().unbind();
+                lblBottomFindResult.setText("Find cancelled in " + fileEditor.getFilePath());
+            }
+        });
+        this.lblBottomFindResult.textProperty().bind(this.taskFind.messageProperty());
+    }
 
+    // -------------------------------------------------------------------------------------
+    private FileContentEditor getSelectedEditor() {
+
+        if (this.lstTabs.isEmpty()) {
+            LOGGER.error("No one file open for editing.");
+//            Utils.showMessage(Alert.AlertType.INFORMATION, "Find", "", "No one file open for editing.", null, null);
+            return null;
+        }
+        if (!this.findLabelBottomSearchResult()) {
+            return null;
+        }
         Tab tab = this.tabPane.getSelectionModel().getSelectedItem();
-        FileContentEditor fileEditor = (FileContentEditor) tab.getContent();
-        if (fileEditor.find(strTextFind) < 1) {
-            String strErrMsg = "No result found for " + fileEditor.getFilePath();
+        return (FileContentEditor) tab.getContent();
+    }
+
+    // -------------------------------------------------------------------------------------
+    private FileContentSearchPattern createSearchPattern() {
+
+        String strTextFind = this.findTextFieldFindValue();
+        if (strTextFind == null) {
+            return null;
+        }
+        try {
+            return new FileContentSearchPattern(strTextFind,
+                    this.cbBottomFindRegex.isSelected(), this.cbBottomFindIgnoreCase.isSelected(), this.cbBottomFindWholeWord.isSelected());
+        } catch (PatternSyntaxException e) {
+            String strErrMsg = "Not valid regular expression: " + e.getDescription();
             LOGGER.info(strErrMsg
-                    + " actionEvent=\"" + actionEvent + "\""
                     + " TextFind=\"" + strTextFind + "\"");
             this.lblBottomFindResult.setText(strErrMsg);
-            return;
+            return null;
         }
+    }
+
+    // -------------------------------------------------------------------------------------
+    private String getTextFieldReplaceValue() {
 
         String strNodeID = "tfBottomReplace";
         TextField tfTextField = (TextField) Utils.lookupNodeByID(this.borderPaneEditor, TextField.class, strNodeID);
         String strTextReplace = tfTextField.getText();
         LOGGER.debug("Found Replace string."
-                + " actionEvent=\"" + actionEvent + "\""
                 + " TextReplace=\"" + strTextReplace + "\"");
         if (strTextReplace == null) {
             strTextReplace = "";
         }
-        int intFoundCount = fileEditor.replace(strTextFind, strTextReplace);
-        if (intFoundCount < 1) {
-            String strErrMsg = "No result found for " + fileEditor.getFilePath();
-            LOGGER.info(strErrMsg
-                    + " actionEvent=\"" + actionEvent + "\""
-                    + " TextFind=\"" + strTextFind + "\""
-                    + " TextReplace=\"" + strTextReplace + "\"");
-            this.lblBottomFindResult.setText(strErrMsg);
-            return;
-        }
-        String strResult;
-        if (intFoundCount == 1) {
-            strResult = "";
-        } else {
-            strResult = "s";
-        }
-        String strFindResult = intFoundCount + " substring" + strResult + " updated in " + fileEditor.getFilePath();
-        this.lblBottomFindResult.setText(strFindResult);
+        return strTextReplace;
     }
 
     // -------------------------------------------------------------------------------------
-    @FXML
-    private void bottomHide(ActionEvent actionEvent) throws IOException {
+    private void showNoResult(FileContentEditor fileEditor, FileContentSearchPattern pattern) {
 
-        Utils.changeNodeVisibility(this.hboxBottomSearchResult, false);
-        Utils.changeNodeVisibility(this.hboxBottomFind, false);
-        Utils.changeNodeVisibility(this.hboxBottomReplace, false);
+        String strErrMsg = "No result found for " + fileEditor.getFilePath();
+        LOGGER.info(strErrMsg
+                + " " + pattern);
+        this.lblBottomFindResult.setText(strErrMsg);
     }
 
     // -------------------------------------------------------------------------------------
-    // Helpers
+    private static String getPluralEnding(int intCount) {
+
+        if (intCount == 1) {
+            return "";
+        }
+        return "s";
+    }
+
     // -------------------------------------------------------------------------------------
     private boolean findLabelBottomSearchResult() {
 
@@ -25,8 +25,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.Optional;
 import javafx.application.Platform;
-import javafx.beans.property.StringProperty;
 import javafx.collections.ObservableList;
 import javafx.event.ActionEvent;
 import javafx.event.Event;
@@ -38,12 +38,14 @@ import javafx.print.PrinterJob;
 import javafx.scene.Scene;
 import javafx.scene.control.Alert;
 import javafx.scene.control.Alert.AlertType;
+import javafx.scene.control.CheckMenuItem;
 import javafx.scene.control.CustomMenuItem;
 import javafx.scene.control.ListView;
 import javafx.scene.control.Menu;
 import javafx.scene.control.MenuItem;
 import javafx.scene.control.Tab;
 import javafx.scene.control.TabPane;
+import javafx.scene.control.TextInputDialog;
 import javafx.scene.control.TextField;
 import javafx.scene.control.Tooltip;
 import javafx.scene.input.MouseEvent;
@@ -91,6 +93,9 @@ public class JfxFileContentEditorMenuController {
     @FXML
     private Menu menuEdit;
 
+    @FXML
+    private CheckMenuItem cmiFollowFile;
+
     // -------------------------------------------------------------------------------------
     @FXML
     private Menu menuFont;
@@ -272,6 +277,41 @@ public class JfxFileContentEditorMenuController {
         }
     }
 
+    // -------------------------------------------------------------------------------------
+    // Select tab of file if it is open, otherwise open file in new tab.
+    public FileContentEditor openFileInTab(Path pathFile) {
+
+        Path pathFileNormalized = pathFile.toAbsolutePath().normalize();
+        for (Tab tab : this.lstTabs) {
+            FileContentEditor fileEditor = (FileContentEditor) tab.getContent();
+            Path pathFileTab = fileEditor.getPathFile().toAbsolutePath().normalize();
+            if (pathFileTab.equals(pathFileNormalized)) {
+                this.tabPane.getSelectionModel().select(tab);
+                return fileEditor;
+            }
+        }
+        if (!Utils.checkNewTabsAllowed(this.lstTabs)) {
+            return null;
+        }
+        Tab tab = this.createNewTab(pathFileNormalized);
+        if (tab == null) {
+            return null;
+        }
+        FileContentEditor fileEditor = (FileContentEditor) tab.getContent();
+        fileEditor.openFile();
+        fileEditor.setFont(Settings.getFontDefault());
+        this.lstTabs.add(tab);
+        this.tabPane.getSelectionModel().select(tab);
+
+        this.changeMenuVisibility(true);
+
+        Settings.INT_FILES_OPEN_COUNT_TOTAL++;
+        LOGGER.info("Opened File in Tab."
+                + " FILES_OPEN_COUNT=\"" + Settings.INT_FILES_OPEN_COUNT_TOTAL
+                + " pathFile=\"" + pathFileNormalized + "\"");
+        return fileEditor;
+    }
+
     // -------------------------------------------------------------------------------------
     // FXML Action Methods
     // -------------------------------------------------------------------------------------
@@ -340,7 +380,11 @@ public class JfxFileContentEditorMenuController {
             return;
         }
         FileContentEditor fileEditor = (FileContentEditor) tab.getContent();
-        fileEditor.openFile();
+        if ("openFileBinary".equals(strMenuItemId)) {
+            fileEditor.openFileBinary();
+        } else {
+            fileEditor.openFile();
+        }
         fileEditor.setFont(Settings.getFontDefault());
         this.lstTabs.add(tab);
         this.tabPane.getSelectionModel().select(tab);
@@ -443,8 +487,7 @@ public class JfxFileContentEditorMenuController {
         String strFilePath = fileEditor.getFilePath();
 
 // TODO: move print to Custom Control, or find better way to call PrinterJob.
-        StringProperty sspFileContent = fileEditor.getFileContent();
-        String strFileContent = sspFileContent.getValue();
+        String strFileContent = fileEditor.getDocument().toString();
 
         Font font = fileEditor.getFont();
         Text text = new Text(strFileContent);
@@ -512,6 +555,68 @@ public class JfxFileContentEditorMenuController {
         Utils.changeNodeVisibility(node, true);
     }
 
+    // -------------------------------------------------------------------------------------
+    @FXML
+    private void goToLine(ActionEvent actionEvent) throws IOException {
+
+        Tab tab = this.tabPane.getSelectionModel().getSelectedItem();
+        if (tab == null) {
+            Utils.showMessage(AlertType.INFORMATION, "Go to Line", "", "No one file open for editing.", null, null);
+            return;
+        }
+        FileContentEditor fileEditor = (FileContentEditor) tab.getContent();
+        int intLineCount = fileEditor.getDocument().getLineCount();
+        TextInputDialog textInputDialog = new TextInputDialog("" + fileEditor.getCaretLine());
+        textInputDialog.setTitle("Go to Line");
+        textInputDialog.setHeaderText(null);
+        textInputDialog.setContentText("Line number (1 - " + intLineCount + "):");
+        Optional<String> optResult = textInputDialog.showAndWait();
+        if (optResult.isEmpty()) {
+            return;
+        }
+        long lngLine;
+        try {
+            lngLine = Long.parseLong(optResult.get().trim());
+        } catch (NumberFormatException e) {
+            Utils.showMessage(AlertType.ERROR, "Go to Line", "", "Wrong line number \"" + optResult.get() + "\".", null, null);
+            return;
+        }
+        if (!fileEditor.goToLine(lngLine)) {
+            Utils.showMessage(AlertType.ERROR, "Go to Line", "", "Line number " + lngLine + " is out of range 1 - " + intLineCount + ".", null, null);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    @FXML
+    private void followFile(ActionEvent actionEvent) throws IOException {
+
+        Tab tab = this.tabPane.getSelectionModel().getSelectedItem();
+        if (tab == null) {
+            this.cmiFollowFile.setSelected(false);
+            Utils.showMessage(AlertType.INFORMATION, "Follow File", "", "No one file open for editing.", null, null);
+            return;
+        }
+        FileContentEditor fileEditor = (FileContentEditor) tab.getContent();
+        fileEditor.setFollow(this.cmiFollowFile.isSelected());
+        if (this.cmiFollowFile.isSelected() && !fileEditor.isFollow()) {
+            this.cmiFollowFile.setSelected(false);
+            Utils.showMessage(AlertType.INFORMATION, "Follow File", "", "File should be saved before following.", null, null);
+        }
+    }
+
+    // -------------------------------------------------------------------------------------
+    @FXML
+    private void editMenuShowing(Event event) {
+
+        Tab tab = this.tabPane.getSelectionModel().getSelectedItem();
+        if (tab == null) {
+            this.cmiFollowFile.setSelected(false);
+            return;
+        }
+        FileContentEditor fileEditor = (FileContentEditor) tab.getContent();
+        this.cmiFollowFile.setSelected(fileEditor.isFollow());
+    }
+
     // -------------------------------------------------------------------------------------
     @FXML
     private void replace(ActionEvent actionEvent) throws IOException {
@@ -861,6 +966,7 @@ public class JfxFileContentEditorMenuController {
                         + " FilePath=\"" + strFilePath + "\""
                         + " FileNameExt=\"" + strFileNameExt + "\""
                         + " eventType=\"" + eventType + "\"");
+                fileEditor.closeFile();
                 Settings.INT_TABS_COUNT_OPEN--;
                 Settings.INT_TABS_COUNT_CLOSED++;
                 if (Settings.INT_TABS_COUNT_OPEN == 0) {
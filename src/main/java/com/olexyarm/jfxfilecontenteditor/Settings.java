@@ -184,6 +184,76 @@ public class Settings {
     private static final int INT_TABS_COUNT_MAX_DEFAULT = 3;
     public static int INT_TABS_COUNT_MAX;
 
+    // -------------------------------------------------------------------------------------
+    private static final String STR_PROP_NAME_FILE_MAPPED_LOAD_SIZE_MIN = "FileMappedLoad_size_min_MB";
+    private static final int INT_FILE_MAPPED_LOAD_SIZE_MIN_MAX = 1024 * 1024;
+    private static final int INT_FILE_MAPPED_LOAD_SIZE_MIN_DEFAULT = 100;
+    public static int INT_FILE_MAPPED_LOAD_SIZE_MIN = INT_FILE_MAPPED_LOAD_SIZE_MIN_DEFAULT;
+
+    // -------------------------------------------------------------------------------------
+    private static final String STR_PROP_NAME_FIND_PARALLEL_SIZE_MIN = "FindParallel_size_min_MB";
+    private static final int INT_FIND_PARALLEL_SIZE_MIN_MAX = 1024 * 1024;
+    private static final int INT_FIND_PARALLEL_SIZE_MIN_DEFAULT = 16;
+    public static int INT_FIND_PARALLEL_SIZE_MIN = INT_FIND_PARALLEL_SIZE_MIN_DEFAULT;
+
+    // -------------------------------------------------------------------------------------
+    private static final String STR_PROP_NAME_FIND_IN_FILES_THREADS = "FindInFiles_threads";
+    private static final int INT_FIND_IN_FILES_THREADS_MAX = 1024;
+    private static final int INT_FIND_IN_FILES_THREADS_DEFAULT = 8;
+    public static int INT_FIND_IN_FILES_THREADS = INT_FIND_IN_FILES_THREADS_DEFAULT;
+
+    private static final String STR_PROP_NAME_FIND_IN_FILES_FILE_SIZE_MAX = "FindInFiles_file_size_max_MB";
+    private static final int INT_FIND_IN_FILES_FILE_SIZE_MAX_MAX = 1024 * 1024;
+    private static final int INT_FIND_IN_FILES_FILE_SIZE_MAX_DEFAULT = 100;
+    public static int INT_FIND_IN_FILES_FILE_SIZE_MAX = INT_FIND_IN_FILES_FILE_SIZE_MAX_DEFAULT;
+
+    // -------------------------------------------------------------------------------------
+    // Number of files loaded and saved at the same time, it is used on application start.
+    private static final String STR_PROP_NAME_IO_THREADS = "IO_threads";
+    private static final int INT_IO_THREADS_MAX = 1024;
+    private static final int INT_IO_THREADS_DEFAULT = 4;
+    public static int INT_IO_THREADS = INT_IO_THREADS_DEFAULT;
+
+    // -------------------------------------------------------------------------------------
+    // File of this size or larger is opened in large file mode, its content stays on disk.
+    private static final String STR_PROP_NAME_LARGE_FILE_SIZE_MIN = "LargeFile_size_min_MB";
+    private static final int INT_LARGE_FILE_SIZE_MIN_MAX = 1024 * 1024;
+    private static final int INT_LARGE_FILE_SIZE_MIN_DEFAULT = 1024;
+    public static int INT_LARGE_FILE_SIZE_MIN = INT_LARGE_FILE_SIZE_MIN_DEFAULT;
+
+    private static final String STR_PROP_NAME_LARGE_FILE_CACHE_SIZE = "LargeFile_cache_size_MB";
+    private static final int INT_LARGE_FILE_CACHE_SIZE_MAX = 1024 * 1024;
+    private static final int INT_LARGE_FILE_CACHE_SIZE_DEFAULT = 64;
+    public static int INT_LARGE_FILE_CACHE_SIZE = INT_LARGE_FILE_CACHE_SIZE_DEFAULT;
+
+    // -------------------------------------------------------------------------------------
+    private static final String STR_PROP_NAME_FOLLOW_INTERVAL = "Follow_interval_ms";
+    private static final int INT_FOLLOW_INTERVAL_MAX = 3600 * 1000;
+    private static final int INT_FOLLOW_INTERVAL_DEFAULT = 1000;
+    public static int INT_FOLLOW_INTERVAL = INT_FOLLOW_INTERVAL_DEFAULT;
+
+    // -------------------------------------------------------------------------------------
+    // Content of file of this size or larger is kept outside of Java heap.
+    private static final String STR_PROP_NAME_OFF_HEAP_ENABLED = "OffHeap_enabled";
+    private static final boolean BOO_OFF_HEAP_ENABLED_DEFAULT = true;
+    public static boolean BOO_OFF_HEAP_ENABLED = BOO_OFF_HEAP_ENABLED_DEFAULT;
+
+    private static final String STR_PROP_NAME_OFF_HEAP_SIZE_MIN = "OffHeap_size_min_MB";
+    private static final int INT_OFF_HEAP_SIZE_MIN_MAX = 1024 * 1024;
+    private static final int INT_OFF_HEAP_SIZE_MIN_DEFAULT = 64;
+    public static int INT_OFF_HEAP_SIZE_MIN = INT_OFF_HEAP_SIZE_MIN_DEFAULT;
+
+    // -------------------------------------------------------------------------------------
+    // Charset of opened file is detected by sample of its content, charset selected in menu is used as is.
+    private static final String STR_PROP_NAME_CHARSET_DETECT_ENABLED = "Charset_detect_enabled";
+    private static final boolean BOO_CHARSET_DETECT_ENABLED_DEFAULT = true;
+    public static boolean BOO_CHARSET_DETECT_ENABLED = BOO_CHARSET_DETECT_ENABLED_DEFAULT;
+
+    private static final String STR_PROP_NAME_CHARSET_DETECT_SAMPLE_SIZE = "Charset_detect_sample_size_KB";
+    private static final int INT_CHARSET_DETECT_SAMPLE_SIZE_MAX = 1024;
+    private static final int INT_CHARSET_DETECT_SAMPLE_SIZE_DEFAULT = 64;
+    public static int INT_CHARSET_DETECT_SAMPLE_SIZE = INT_CHARSET_DETECT_SAMPLE_SIZE_DEFAULT;
+
     // -------------------------------------------------------------------------------------
     private static final String STR_PROP_NAME_LOG_LEVEL = "Log_level";
     public static String STR_LOG_LEVEL = "D";
@@ -268,6 +338,19 @@ public class Settings {
                 STR_CHARSET_CURRENT = strPropValue;
             }
 
+            INT_FILE_MAPPED_LOAD_SIZE_MIN = getPropValueInt(STR_PROP_NAME_FILE_MAPPED_LOAD_SIZE_MIN, "" + INT_FILE_MAPPED_LOAD_SIZE_MIN_DEFAULT, INT_FILE_MAPPED_LOAD_SIZE_MIN_MAX);
+            INT_FIND_PARALLEL_SIZE_MIN = getPropValueInt(STR_PROP_NAME_FIND_PARALLEL_SIZE_MIN, "" + INT_FIND_PARALLEL_SIZE_MIN_DEFAULT, INT_FIND_PARALLEL_SIZE_MIN_MAX);
+            INT_FIND_IN_FILES_THREADS = getPropValueInt(STR_PROP_NAME_FIND_IN_FILES_THREADS, "" + INT_FIND_IN_FILES_THREADS_DEFAULT, INT_FIND_IN_FILES_THREADS_MAX);
+            INT_FIND_IN_FILES_FILE_SIZE_MAX = getPropValueInt(STR_PROP_NAME_FIND_IN_FILES_FILE_SIZE_MAX, "" + INT_FIND_IN_FILES_FILE_SIZE_MAX_DEFAULT, INT_FIND_IN_FILES_FILE_SIZE_MAX_MAX);
+            INT_IO_THREADS = getPropValueInt(STR_PROP_NAME_IO_THREADS, "" + INT_IO_THREADS_DEFAULT, INT_IO_THREADS_MAX);
+            INT_LARGE_FILE_SIZE_MIN = getPropValueInt(STR_PROP_NAME_LARGE_FILE_SIZE_MIN, "" + INT_LARGE_FILE_SIZE_MIN_DEFAULT, INT_LARGE_FILE_SIZE_MIN_MAX);
+            INT_LARGE_FILE_CACHE_SIZE = getPropValueInt(STR_PROP_NAME_LARGE_FILE_CACHE_SIZE, "" + INT_LARGE_FILE_CACHE_SIZE_DEFAULT, INT_LARGE_FILE_CACHE_SIZE_MAX);
+            INT_FOLLOW_INTERVAL = getPropValueInt(STR_PROP_NAME_FOLLOW_INTERVAL, "" + INT_FOLLOW_INTERVAL_DEFAULT, INT_FOLLOW_INTERVAL_MAX);
+            BOO_OFF_HEAP_ENABLED = getPropValueBoolean(STR_PROP_NAME_OFF_HEAP_ENABLED, BOO_OFF_HEAP_ENABLED_DEFAULT ? "Y" : "N");
+            INT_OFF_HEAP_SIZE_MIN = getPropValueInt(STR_PROP_NAME_OFF_HEAP_SIZE_MIN, "" + INT_OFF_HEAP_SIZE_MIN_DEFAULT, INT_OFF_HEAP_SIZE_MIN_MAX);
+            BOO_CHARSET_DETECT_ENABLED = getPropValueBoolean(STR_PROP_NAME_CHARSET_DETECT_ENABLED, BOO_CHARSET_DETECT_ENABLED_DEFAULT ? "Y" : "N");
+            INT_CHARSET_DETECT_SAMPLE_SIZE = getPropValueInt(STR_PROP_NAME_CHARSET_DETECT_SAMPLE_SIZE, "" + INT_CHARSET_DETECT_SAMPLE_SIZE_DEFAULT, INT_CHARSET_DETECT_SAMPLE_SIZE_MAX);
+
         } catch (Exception ex) {
             LOGGER.error("Could not process property."
                     + " IOException=\"" + ex.toString() + "\"");
@@ -307,6 +390,88 @@ public class Settings {
 
         prop.setProperty(STR_PROP_NAME_CHARSET_CURRENT, STR_CHARSET_CURRENT);
 
+        if (INT_FILE_MAPPED_LOAD_SIZE_MIN <= 0) {
+            INT_FILE_MAPPED_LOAD_SIZE_MIN = 1;
+        }
+        if (INT_FILE_MAPPED_LOAD_SIZE_MIN > INT_FILE_MAPPED_LOAD_SIZE_MIN_MAX) {
+            INT_FILE_MAPPED_LOAD_SIZE_MIN = INT_FILE_MAPPED_LOAD_SIZE_MIN_MAX;
+        }
+        prop.setProperty(STR_PROP_NAME_FILE_MAPPED_LOAD_SIZE_MIN, "" + INT_FILE_MAPPED_LOAD_SIZE_MIN);
+
+        if (INT_FIND_PARALLEL_SIZE_MIN <= 0) {
+            INT_FIND_PARALLEL_SIZE_MIN = 1;
+        }
+        if (INT_FIND_PARALLEL_SIZE_MIN > INT_FIND_PARALLEL_SIZE_MIN_MAX) {
+            INT_FIND_PARALLEL_SIZE_MIN = INT_FIND_PARALLEL_SIZE_MIN_MAX;
+        }
+        prop.setProperty(STR_PROP_NAME_FIND_PARALLEL_SIZE_MIN, "" + INT_FIND_PARALLEL_SIZE_MIN);
+
+        if (INT_FIND_IN_FILES_THREADS <= 0) {
+            INT_FIND_IN_FILES_THREADS = 1;
+        }
+        if (INT_FIND_IN_FILES_THREADS > INT_FIND_IN_FILES_THREADS_MAX) {
+            INT_FIND_IN_FILES_THREADS = INT_FIND_IN_FILES_THREADS_MAX;
+        }
+        prop.setProperty(STR_PROP_NAME_FIND_IN_FILES_THREADS, "" + INT_FIND_IN_FILES_THREADS);
+
+        if (INT_FIND_IN_FILES_FILE_SIZE_MAX <= 0) {
+            INT_FIND_IN_FILES_FILE_SIZE_MAX = 1;
+        }
+        if (INT_FIND_IN_FILES_FILE_SIZE_MAX > INT_FIND_IN_FILES_FILE_SIZE_MAX_MAX) {
+            INT_FIND_IN_FILES_FILE_SIZE_MAX = INT_FIND_IN_FILES_FILE_SIZE_MAX_MAX;
+        }
+        prop.setProperty(STR_PROP_NAME_FIND_IN_FILES_FILE_SIZE_MAX, "" + INT_FIND_IN_FILES_FILE_SIZE_MAX);
+
+        if (INT_IO_THREADS <= 0) {
+            INT_IO_THREADS = 1;
+        }
+        if (INT_IO_THREADS > INT_IO_THREADS_MAX) {
+            INT_IO_THREADS = INT_IO_THREADS_MAX;
+        }
+        prop.setProperty(STR_PROP_NAME_IO_THREADS, "" + INT_IO_THREADS);
+
+        if (INT_LARGE_FILE_SIZE_MIN <= 0) {
+            INT_LARGE_FILE_SIZE_MIN = 1;
+        }
+        if (INT_LARGE_FILE_SIZE_MIN > INT_LARGE_FILE_SIZE_MIN_MAX) {
+            INT_LARGE_FILE_SIZE_MIN = INT_LARGE_FILE_SIZE_MIN_MAX;
+        }
+        prop.setProperty(STR_PROP_NAME_LARGE_FILE_SIZE_MIN, "" + INT_LARGE_FILE_SIZE_MIN);
+
+        if (INT_LARGE_FILE_CACHE_SIZE <= 0) {
+            INT_LARGE_FILE_CACHE_SIZE = 1;
+        }
+        if (INT_LARGE_FILE_CACHE_SIZE > INT_LARGE_FILE_CACHE_SIZE_MAX) {
+            INT_LARGE_FILE_CACHE_SIZE = INT_LARGE_FILE_CACHE_SIZE_MAX;
+        }
+        prop.setProperty(STR_PROP_NAME_LARGE_FILE_CACHE_SIZE, "" + INT_LARGE_FILE_CACHE_SIZE);
+
+        if (INT_FOLLOW_INTERVAL <= 0) {
+            INT_FOLLOW_INTERVAL = 1;
+        }
+        if (INT_FOLLOW_INTERVAL > INT_FOLLOW_INTERVAL_MAX) {
+            INT_FOLLOW_INTERVAL = INT_FOLLOW_INTERVAL_MAX;
+        }
+        prop.setProperty(STR_PROP_NAME_FOLLOW_INTERVAL, "" + INT_FOLLOW_INTERVAL);
+
+        prop.setProperty(STR_PROP_NAME_OFF_HEAP_ENABLED, BOO_OFF_HEAP_ENABLED ? "Y" : "N");
+        if (INT_OFF_HEAP_SIZE_MIN <= 0) {
+            INT_OFF_HEAP_SIZE_MIN = 1;
+        }
+        if (INT_OFF_HEAP_SIZE_MIN > INT_OFF_HEAP_SIZE_MIN_MAX) {
+            INT_OFF_HEAP_SIZE_MIN = INT_OFF_HEAP_SIZE_MIN_MAX;
+        }
+        prop.setProperty(STR_PROP_NAME_OFF_HEAP_SIZE_MIN, "" + INT_OFF_HEAP_SIZE_MIN);
+
+        prop.setProperty(STR_PROP_NAME_CHARSET_DETECT_ENABLED, BOO_CHARSET_DETECT_ENABLED ? "Y" : "N");
+        if (INT_CHARSET_DETECT_SAMPLE_SIZE <= 0) {
+            INT_CHARSET_DETECT_SAMPLE_SIZE = 1;
+        }
+        if (INT_CHARSET_DETECT_SAMPLE_SIZE > INT_CHARSET_DETECT_SAMPLE_SIZE_MAX) {
+            INT_CHARSET_DETECT_SAMPLE_SIZE = INT_CHARSET_DETECT_SAMPLE_SIZE_MAX;
+        }
+        prop.setProperty(STR_PROP_NAME_CHARSET_DETECT_SAMPLE_SIZE, "" + INT_CHARSET_DETECT_SAMPLE_SIZE);
+
         try {
             OutputStream os = new FileOutputStream(STR_SETTINGS_FILE_PATH);
             prop.store(os, "");
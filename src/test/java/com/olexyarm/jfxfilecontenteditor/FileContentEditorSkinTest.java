@@ -0,0 +1,90 @@
+package com.olexyarm.jfxfilecontenteditor;
+
+import java.nio.file.Paths;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import javafx.application.Platform;
+import javafx.scene.Node;
+import javafx.scene.Parent;
+import javafx.scene.Scene;
+import javafx.scene.layout.StackPane;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileContentEditorSkinTest {
+
+    // -------------------------------------------------------------------------------------
+    @BeforeAll
+    public static void startPlatform() throws Exception {
+
+        CountDownLatch latch = new CountDownLatch(1);
+        try {
+            Platform.startup(latch::countDown);
+        } catch (IllegalStateException e) {
+            // Platform is already started.
+            latch.countDown();
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+    }
+
+    // -------------------------------------------------------------------------------------
+    @Test
+    public void selectRangeSurvivesSkinCaretWiring() throws Exception {
+
+        AtomicReference<Throwable> refError = new AtomicReference<>();
+        AtomicReference<String> refSelection = new AtomicReference<>();
+        AtomicReference<long[]> refRange = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch(1);
+        Platform.runLater(() -> {
+            try {
+                FileContentEditor fileContentEditor = new FileContentEditor("tab1", Paths.get("test.txt"));
+                new Scene(new StackPane(fileContentEditor));
+                fileContentEditor.setSkin(new FileContentEditorSkin(fileContentEditor));
+                fileContentEditor.setDocument(new FileContentDocument("hello world"));
+
+                FileContentView fileContentView = findView(fileContentEditor);
+                assertNotNull(fileContentView);
+                fileContentView.selectRange(2, 5);
+
+                long lngStart = fileContentView.getSelectionStart();
+                long lngEnd = fileContentView.getSelectionEnd();
+                refRange.set(new long[]{lngStart, lngEnd});
+                refSelection.set(fileContentView.getDocument().getText(lngStart, lngEnd));
+            } catch (Throwable t) {
+                refError.set(t);
+            } finally {
+                latch.countDown();
+            }
+        });
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        if (refError.get() != null) {
+            throw new AssertionError(refError.get());
+        }
+        assertEquals(2L, refRange.get()[0]);
+        assertEquals(5L, refRange.get()[1]);
+        assertEquals("llo", refSelection.get());
+    }
+
+    // -------------------------------------------------------------------------------------
+    private static FileContentView findView(Node node) {
+
+        if (node instanceof FileContentView fileContentView) {
+            return fileContentView;
+        }
+        if (node instanceof Parent parent) {
+            for (Node nodeChild : parent.getChildrenUnmodifiable()) {
+                FileContentView fileContentView = findView(nodeChild);
+                if (fileContentView != null) {
+                    return fileContentView;
+                }
+            }
+        }
+        return null;
+    }
+    // -------------------------------------------------------------------------------------
+}